@@ -1,13 +1,11 @@
 package DataAnalyzers;
 
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.SortedSet;
 import java.util.TreeMap;
 
 import org.apache.commons.math3.exception.DimensionMismatchException;
 import org.apache.commons.math3.util.FastMath;
-import org.apache.commons.math3.util.Pair;
 
 /**
  * Class that holds the wrappers used for Pearsons, Error, and Spearmans Correlation.
@@ -17,8 +15,50 @@ import org.apache.commons.math3.util.Pair;
  */
 public class Correlations {
 	
+	/**
+	 * Scratch arrays for the rank correlations, kept per thread since the comparisons of a run call them once per slice
+	 * per measure. They only ever grow, so a thread ends up holding arrays as long as its longest series
+	 */
+	private static class Scratch {
+		double[] sorted = new double[0], sortedRanks = new double[0], rank1 = new double[0], rank2 = new double[0];
+		int[] indices = new int[0], buffer = new int[0];
+		
+		/**
+		 * Grows the arrays of the spearman's correlation to at least n
+		 */
+		Scratch forRanks(int n) {
+			if (sorted.length < n) {
+				sorted = new double[n];
+				sortedRanks = new double[n];
+				rank1 = new double[n];
+				rank2 = new double[n];
+			}
+			return this;
+		}
+		
+		/**
+		 * Grows the arrays of the kendall's correlation to at least n
+		 */
+		Scratch forPairs(int n) {
+			if (indices.length < n) {
+				indices = new int[n];
+				buffer = new int[n];
+			}
+			return this;
+		}
+	}
+	
+	private static final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+		@Override
+		protected Scratch initialValue() {
+			return new Scratch();
+		}
+	};
+	
 	/**
      * Computes the Kendall's Tau rank correlation coefficient between the two arrays.
+     * The pairs are kept as int indices into the arrays rather than boxed, and both sorts are bottom-up merge sorts of the
+     * indices, the second one counting the swaps (discordant pairs) as it goes
      *
      * @param xArray first data array
      * @param yArray second data array
@@ -33,32 +73,30 @@ public class Correlations {
         }
 
         final int n = xArray.length;
-        final int numPairs = n * (n - 1) / 2;
+        final long numPairs = (long)n * (n - 1) / 2;
+        if (n == 0)
+        	return -999;
 
-        @SuppressWarnings("unchecked")
-        Pair<Double, Double>[] pairs = new Pair[n];
+        // Sort the pairs by x, then y
+        Scratch space = scratch.get().forPairs(n);
+        int[] indices = space.indices;
         for (int i = 0; i < n; i++) {
-            pairs[i] = new Pair<Double, Double>(xArray[i], yArray[i]);
+            indices[i] = i;
         }
+        int[] buffer = space.buffer;
+        int[] pairs = mergeSort(indices, buffer, n, xArray, yArray);
+        int[] pairsDestination = (pairs == indices) ? buffer : indices;
 
-        Arrays.sort(pairs, new Comparator<Pair<Double, Double>>() {
-            @Override
-            public int compare(Pair<Double, Double> pair1, Pair<Double, Double> pair2) {
-                int compareFirst = pair1.getFirst().compareTo(pair2.getFirst());
-                return compareFirst != 0 ? compareFirst : pair1.getSecond().compareTo(pair2.getSecond());
-            }
-        });
-
-        int tiedXPairs = 0;
-        int tiedXYPairs = 0;
-        int consecutiveXTies = 1;
-        int consecutiveXYTies = 1;
-        Pair<Double, Double> prev = pairs[0];
+        long tiedXPairs = 0;
+        long tiedXYPairs = 0;
+        long consecutiveXTies = 1;
+        long consecutiveXYTies = 1;
+        int prev = pairs[0];
         for (int i = 1; i < n; i++) {
-            final Pair<Double, Double> curr = pairs[i];
-            if (curr.getFirst().equals(prev.getFirst())) {
+            final int curr = pairs[i];
+            if (Double.compare(xArray[curr], xArray[prev]) == 0) {
                 consecutiveXTies++;
-                if (curr.getSecond().equals(prev.getSecond())) {
+                if (Double.compare(yArray[curr], yArray[prev]) == 0) {
                     consecutiveXYTies++;
                 } else {
                     tiedXYPairs += consecutiveXYTies * (consecutiveXYTies - 1) / 2;
@@ -75,9 +113,8 @@ public class Correlations {
         tiedXPairs += consecutiveXTies * (consecutiveXTies - 1) / 2;
         tiedXYPairs += consecutiveXYTies * (consecutiveXYTies - 1) / 2;
 
-        int swaps = 0;
-        @SuppressWarnings("unchecked")
-        Pair<Double, Double>[] pairsDestination = new Pair[n];
+        // Sort by y, every time a pair jumps ahead of the ones left of it those are discordant
+        long swaps = 0;
         for (int segmentSize = 1; segmentSize < n; segmentSize <<= 1) {
             for (int offset = 0; offset < n; offset += 2 * segmentSize) {
                 int i = offset;
@@ -86,39 +123,28 @@ public class Correlations {
                 final int jEnd = FastMath.min(j + segmentSize, n);
 
                 int copyLocation = offset;
-                while (i < iEnd || j < jEnd) {
-                    if (i < iEnd) {
-                        if (j < jEnd) {
-                            if (pairs[i].getSecond().compareTo(pairs[j].getSecond()) <= 0) {
-                                pairsDestination[copyLocation] = pairs[i];
-                                i++;
-                            } else {
-                                pairsDestination[copyLocation] = pairs[j];
-                                j++;
-                                swaps += iEnd - i;
-                            }
-                        } else {
-                            pairsDestination[copyLocation] = pairs[i];
-                            i++;
-                        }
+                while (i < iEnd && j < jEnd) {
+                    if (Double.compare(yArray[pairs[i]], yArray[pairs[j]]) <= 0) {
+                        pairsDestination[copyLocation++] = pairs[i++];
                     } else {
-                        pairsDestination[copyLocation] = pairs[j];
-                        j++;
+                        pairsDestination[copyLocation++] = pairs[j++];
+                        swaps += iEnd - i;
                     }
-                    copyLocation++;
                 }
+                System.arraycopy(pairs, i, pairsDestination, copyLocation, iEnd - i);
+                System.arraycopy(pairs, j, pairsDestination, copyLocation + iEnd - i, jEnd - j);
             }
-            final Pair<Double, Double>[] pairsTemp = pairs;
+            final int[] pairsTemp = pairs;
             pairs = pairsDestination;
             pairsDestination = pairsTemp;
         }
 
-        int tiedYPairs = 0;
-        int consecutiveYTies = 1;
+        long tiedYPairs = 0;
+        long consecutiveYTies = 1;
         prev = pairs[0];
         for (int i = 1; i < n; i++) {
-            final Pair<Double, Double> curr = pairs[i];
-            if (curr.getSecond().equals(prev.getSecond())) {
+            final int curr = pairs[i];
+            if (Double.compare(yArray[curr], yArray[prev]) == 0) {
                 consecutiveYTies++;
             } else {
                 tiedYPairs += consecutiveYTies * (consecutiveYTies - 1) / 2;
@@ -129,11 +155,45 @@ public class Correlations {
         tiedYPairs += consecutiveYTies * (consecutiveYTies - 1) / 2;
 
         // Added Divisor Check
-        int concordantMinusDiscordant = numPairs - tiedXPairs - tiedYPairs + tiedXYPairs - 2 * swaps;
-        double divisor = Math.sqrt((numPairs - tiedXPairs) * (numPairs - tiedYPairs));
+        long concordantMinusDiscordant = numPairs - tiedXPairs - tiedYPairs + tiedXYPairs - 2 * swaps;
+        double divisor = Math.sqrt((double)(numPairs - tiedXPairs) * (double)(numPairs - tiedYPairs));
         return (divisor != 0) ? (double)concordantMinusDiscordant / divisor : -999;		 
 	 }
 	
+	/**
+	 * Stable bottom-up merge sort of indices, by their primary value then their secondary value
+	 * @param indices - the indices to sort
+	 * @param buffer - scratch space at least as long as the indices
+	 * @param n - the amount of indices, the rest of the arrays isn't touched
+	 * @param primary
+	 * @param secondary
+	 * @return whichever of indices and buffer holds the sorted indices
+	 */
+	private static int[] mergeSort(int[] indices, int[] buffer, int n, double[] primary, double[] secondary) {
+		for (int segmentSize = 1; segmentSize < n; segmentSize <<= 1) {
+			for (int offset = 0; offset < n; offset += 2 * segmentSize) {
+				int i = offset;
+				final int iEnd = Math.min(i + segmentSize, n);
+				int j = iEnd;
+				final int jEnd = Math.min(j + segmentSize, n);
+				
+				int copyLocation = offset;
+				while (i < iEnd && j < jEnd) {
+					int compare = Double.compare(primary[indices[i]], primary[indices[j]]);
+					if (compare == 0)
+						compare = Double.compare(secondary[indices[i]], secondary[indices[j]]);
+					buffer[copyLocation++] = (compare <= 0) ? indices[i++] : indices[j++];
+				}
+				System.arraycopy(indices, i, buffer, copyLocation, iEnd - i);
+				System.arraycopy(indices, j, buffer, copyLocation + iEnd - i, jEnd - j);
+			}
+			final int[] temp = indices;
+			indices = buffer;
+			buffer = temp;
+		}
+		return indices;
+	}
+	
 	
 	/**
 	 * Pearson's Correlation with a degenerate handling scheme. Both series must be the same length
@@ -194,34 +254,47 @@ public class Correlations {
 	}
 	
 	/**
-	 * Ranking algorithm, a tolerance of 0.0001 is used
+	 * Ranking algorithm, a tolerance of 0.0001 is used. A value's rank is the average place of every value within the
+	 * tolerance of it. The values are sorted once and the tolerance windows are found in a single sweep of the sorted values,
+	 * since both ends of the window only move forward, so large groups of ties don't make it quadratic
 	 * @param values
-	 * @return
+	 * @param sorted - scratch space at least as long as the values
+	 * @param sortedRanks - scratch space at least as long as the values
+	 * @param ranks - where the ranks are written, at least as long as the values
+	 * @return the ranks
 	 */
-	private static double[] Rank(double[] values)
+	private static double[] Rank(double[] values, double[] sorted, double[] sortedRanks, double[] ranks)
 	{
 		final double tolerance = 0.0001;
+		final int n = values.length;
 		
-		double[] sortedList = Arrays.copyOf(values, values.length);
-		Arrays.sort(sortedList);
+		System.arraycopy(values, 0, sorted, 0, n);
+		Arrays.sort(sorted, 0, n);
 		
-		double[] ranks = new double[values.length];
-		for (int i = 0; i < values.length; i++) {
-			int index = Arrays.binarySearch(sortedList, values[i]);
-			// Check around to see how many numbers are around the ranking
-			double num = sortedList[index];
-			// Iterate back till it changes
-			int j = 1;
-			for (; j <= index && Math.abs(sortedList[index - j] - num) < tolerance; j++);
-			// Iterate forward till it changes
-			int k = index + 1;
-			for (; k < sortedList.length && Math.abs(sortedList[k] - num) < tolerance; k++);
+		// The window of the value at each place: low is the first place within the tolerance, high the first place past it
+		int low = 0, high = 0;
+		for (int p = 0; p < n; p++) {
+			double num = sorted[p];
+			if (p > 0 && num == sorted[p - 1]) {
+				sortedRanks[p] = sortedRanks[p - 1];
+				continue;
+			} else if (Double.isNaN(num)) {
+				sortedRanks[p] = p + 1;
+				continue;
+			}
+			while (num - sorted[low] >= tolerance)
+				low++;
+			high = Math.max(high, p + 1);
+			while (high < n && sorted[high] - num < tolerance)
+				high++;
 			
-			// Place the real rank in ranks
-			ranks[i] = index - j + k + 2;
-			ranks[i] /= 2.0;
+			// The average of the places low+1 to high
+			sortedRanks[p] = (low + 1 + high) / 2.0;
 		}
-
+		
+		// Every value takes the rank of its place
+		for (int i = 0; i < n; i++)
+			ranks[i] = sortedRanks[Arrays.binarySearch(sorted, 0, n, values[i])];
 		return ranks;
 	}
 	
@@ -239,22 +312,24 @@ public class Correlations {
 		if (series1.length != series2.length)
 			return Double.NaN;
 		
-		/** Included ranking algorithm **/
-		double[] rank1 = Rank(series1);
-		double[] rank2 = Rank(series2);	
+		/** Included ranking algorithm, both rankings share the thread's scratch space **/
+		final int n = series1.length;
+		Scratch space = scratch.get().forRanks(n);
+		double[] rank1 = Rank(series1, space.sorted, space.sortedRanks, space.rank1);
+		double[] rank2 = Rank(series2, space.sorted, space.sortedRanks, space.rank2);
 			
 		/** Now run the spearman's correlation on the algorithm **/
 		
 		// Do each in 3 passes
 		double mean1 = 0, mean2 = 0;
 
-		// Calculate the means
-		for (int i = 0; i < rank1.length; i++) {
+		// Calculate the means, the ranks are only the first n of the scratch arrays
+		for (int i = 0; i < n; i++) {
 			mean1 += rank1[i];
 			mean2 += rank2[i];
 		}
-		mean1 /= rank1.length;
-		mean2 /= rank2.length;
+		mean1 /= n;
+		mean2 /= n;
 		
 		// Calculate the values
 		double nominator = 0;
@@ -1,9 +1,11 @@
 package DataAnalyzers;
 
-import jsc.independentsamples.SmirnovTest;
+import java.util.Arrays;
 
 /**
  * Class holder for the KS-Test for comparing distributions. 
+ * The two-sample statistic D is found with a single merge of the sorted distributions, and its p-value with the asymptotic
+ * Kolmogorov distribution. Earlier this wrapped jsc's SmirnovTest, whose exact p-value failed ("Invalid SP") on large inputs
  * @author MOREPOWER
  *
  */
@@ -12,43 +14,74 @@ public class KolmogorovSmirnovTest {
 	final static double threshold = 0.000001;
 	
 	/**
-	 * Wrapper function for the KS-Test. This function catches errors caused by the approximation, making extremely
-	 * small values equal 0, as well as catching infinity cases.
+	 * Wrapper function for the KS-Test on unsorted distributions. Neither array is changed
 	 * @param population - the population or true distribution
 	 * @param sample - the distribution to compare to the population
-	 * @return the value of the Kolmogorov-Smirnov test statistic, D.
-	 * @Documentation: http://www.jsc.nildram.co.uk/api/jsc/independentsamples/SmirnovTest.html
+	 * @return the value of the Kolmogorov-Smirnov test statistic, D, or NaN if either has less than 2 values
 	 */
 	public static double runSmirnov(double[] population, double[] sample) {
-		if (population.length < 2 || sample.length < 2) {
+		double[] sortedPopulation = Arrays.copyOf(population, population.length);
+		double[] sortedSample = Arrays.copyOf(sample, sample.length);
+		Arrays.sort(sortedPopulation);
+		Arrays.sort(sortedSample);
+		return statistic(sortedPopulation, sortedSample);
+	}
+	
+	/**
+	 * The KS statistic D, the largest gap between the two empirical distribution functions. The gap is only checked once
+	 * every value tied at a point has been passed in both distributions
+	 * @param sortedPopulation - the population, sorted from smallest up
+	 * @param sortedSample - the sample, sorted from smallest up
+	 * @return D, or NaN if either has less than 2 values
+	 */
+	public static double statistic(double[] sortedPopulation, double[] sortedSample) {
+		final int n = sortedPopulation.length, m = sortedSample.length;
+		if (n < 2 || m < 2) {
 			System.out.println("Pop/Sample is too small");
 			return Double.NaN;
 		}
 		
-		SmirnovTest smt = null;
-		try {
-			smt = new SmirnovTest(population, sample);
-		}
-		catch (java.lang.IllegalArgumentException e) {
-			if (e.getMessage().matches("^Invalid SP.+E\\-[0-9]+$")) {
-//				e.printStackTrace();
-				return 0;
-			} else if (e.getMessage().matches("^Invalid SP -Infinity$")) {
-				e.printStackTrace();
-				return Double.NEGATIVE_INFINITY;
-			} else if (e.getMessage().matches("^Invalid SP Infinity$")) {
-				e.printStackTrace();
-				return Double.POSITIVE_INFINITY;
-			} else {
-				e.printStackTrace();
-				return Double.NaN;
-			}
+		// The gap is kept as i/n - j/m over the common denominator n*m, so it's only rounded once
+		long gap = 0;
+		int i = 0, j = 0;
+		while (i < n && j < m) {
+			double value = Math.min(sortedPopulation[i], sortedSample[j]);
+			while (i < n && sortedPopulation[i] <= value)
+				i++;
+			while (j < m && sortedSample[j] <= value)
+				j++;
+			gap = Math.max(gap, Math.abs((long)i * m - (long)j * n));
 		}
-		catch (java.lang.RuntimeException e) {
-			e.printStackTrace();
+		// Anything after that is only closing the gap
+		return (double)gap / ((double)n * m);
+	}
+	
+	/**
+	 * The asymptotic p-value of D, from the Kolmogorov distribution with Stephens' correction for the sizes
+	 * (as in Numerical Recipes' probks)
+	 * @param d - the KS statistic
+	 * @param n - the size of the population
+	 * @param m - the size of the sample
+	 * @return the probability of a D at least this large when both come from the same distribution, NaN for a NaN D
+	 */
+	public static double pValue(double d, int n, int m) {
+		if (Double.isNaN(d))
 			return Double.NaN;
+		double en = Math.sqrt((double)n * m / (n + m));
+		double lambda = (en + 0.12 + 0.11 / en) * d;
+		
+		// Q(lambda) = 2 * sum (-1)^(k-1) exp(-2 k^2 lambda^2), which only converges quickly enough away from 0
+		double sum = 0, sign = 2, previous = 0;
+		for (int k = 1; k <= 100; k++) {
+			double term = sign * Math.exp(-2 * lambda * lambda * k * k);
+			sum += term;
+			if (Math.abs(term) <= 0.001 * previous || Math.abs(term) <= 1.0e-8 * sum)
+				return Math.max(0, Math.min(1, sum));
+			sign = -sign;
+			previous = Math.abs(term);
 		}
-		return smt.getTestStatistic();
+		// Didn't converge, so lambda is near 0
+		return 1;
 	}
 	
 }
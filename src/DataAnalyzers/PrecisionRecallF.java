@@ -42,6 +42,26 @@ public class PrecisionRecallF {
 		return (double)common / (double)reference.size();
 	}
 	
+	/**
+	 * Precision from the amount of test values that appear in the reference set, |reference&test|/|test|
+	 * @param common - |reference&test|
+	 * @param testSize - |test|
+	 * @return
+	 */
+	public static double Precision(int common, int testSize) {
+		return (double)common / (double)testSize;
+	}
+	
+	/**
+	 * Recall from the amount of reference values that appear in the test set, |reference&test|/|reference|
+	 * @param common - |reference&test|
+	 * @param referenceSize - |reference|
+	 * @return
+	 */
+	public static double Recall(int common, int referenceSize) {
+		return (double)common / (double)referenceSize;
+	}
+	
 	/**
 	 * Calculates the F-Measure based off the precision and recall values with a weight.
 	 * The weight is a ratio that increases or decreases the importance of precision.
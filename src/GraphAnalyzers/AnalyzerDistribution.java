@@ -1,10 +1,15 @@
 package GraphAnalyzers;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Map;
 
+import GraphCreation.LabelDictionary;
+import Utils.HardCode;
+
 import edu.uci.ics.jung.graph.Graph;
 
 /**
@@ -36,7 +41,7 @@ public abstract class AnalyzerDistribution {
 	public Map<String, Double> computeOrProcess(Graph<String, String> graph, String filepath) throws FileNotFoundException, IOException, Error {
 		if ((new File(filepath)).exists() && (new File(filepath)).isFile())
 //			try {
-				return read(filepath);
+				return readCached(filepath).toMap();
 //			} catch (Exception e) {
 		// TODO: Could make it so it will overwrite the file, but this is unsafe
 //				return analyzeGraph(graph, filepath);
@@ -45,6 +50,96 @@ public abstract class AnalyzerDistribution {
 			return analyzeGraph(graph, filepath);
 	}
 	
+	/**
+	 * Analyzes the graph for a specific measure, like analyzeGraph, but returns the measures as a MeasureVector.
+	 * Analyzers that compute over a CompactGraph override this so the values never go through a map
+	 * @param graph
+	 * @param filepath
+	 * @return the measure of every vertex
+	 * @throws IOException
+	 */
+	public MeasureVector analyzeVector(Graph<String, String> graph, String filepath) throws IOException {
+		return MeasureVector.of(analyzeGraph(graph, filepath));
+	}
+	
+	/**
+	 * Reads in the measure values of a previously exported analysis as a MeasureVector
+	 * @throws FileNotFoundException 
+	 * @throws Error 
+	 * @throws IOException 
+	 */
+	public MeasureVector readVector(String filepath) throws FileNotFoundException, IOException, Error {
+		return MeasureVector.of(read(filepath));
+	}
+	
+	public MeasureVector computeOrProcessVector(Graph<String, String> graph, String filepath) throws FileNotFoundException, IOException, Error {
+		if ((new File(filepath)).exists() && (new File(filepath)).isFile())
+			return readCached(filepath);
+		else
+			return analyzeVector(graph, filepath);
+	}
+	
+	/**
+	 * Reads in the measure values of a previously exported analysis from its MeasureCache, reading the csv
+	 * and caching it instead if the cache is missing or stale
+	 * @throws FileNotFoundException 
+	 * @throws Error 
+	 * @throws IOException 
+	 */
+	public MeasureVector readCached(String filepath) throws FileNotFoundException, IOException, Error {
+		MeasureVector measures = MeasureCache.load(filepath, getVersion());
+		if (measures != null)
+			return measures;
+		
+		measures = readVector(filepath);
+		try {
+			MeasureCache.store(filepath, getVersion(), measures);
+		} catch (IOException e) {
+			// The cache is only a shortcut, the csv can still be read next time
+		}
+		return measures;
+	}
+	
+	/**
+	 * The version of what the analyzer reads out of its csv. Raise it whenever that changes, so the cached
+	 * measures made by the older version are made again
+	 */
+	public int getVersion() {
+		return 1;
+	}
+	
+	/**
+	 * Reads the "userid,value" lines left in the reader into a MeasureVector, then closes the reader.
+	 * A vertex listed more than once keeps its last value
+	 * @param br - a reader that's past the header
+	 * @return the measure of every vertex, in the order of the file
+	 * @throws IOException
+	 * @throws Error - if a line isn't formatted correctly
+	 */
+	protected static MeasureVector readValues(BufferedReader br) throws IOException, Error {
+		LabelDictionary dictionary = new LabelDictionary();
+		double[] values = new double[16];
+		
+		String data;
+		while ((data = br.readLine()) != null) {
+			// Import in "userID, score"
+			data = data.replaceAll("\"", "");
+			String[] items = HardCode.separateReg.split(data);
+			if (items.length != 2) {
+				br.close();
+				throw new Error("Data Split was incorrectly formatted: " + data);
+			}
+			
+			int id = dictionary.intern(items[0].trim());
+			if (id == values.length)
+				values = Arrays.copyOf(values, values.length * 2);
+			values[id] = Double.parseDouble(items[1].trim());
+		}
+		br.close();
+		
+		return new MeasureVector(dictionary, Arrays.copyOf(values, dictionary.size()));
+	}
+	
 	/**
 	 * Returns the name of the type of analysis
 	 */
@@ -0,0 +1,74 @@
+package GraphAnalyzers;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.Random;
+
+import GraphCreation.CompactGraph;
+import edu.uci.ics.jung.graph.Graph;
+
+/**
+ * Analyzer class that approximates betweenness centrality with the ApproximateBetweenness, for graphs too large for
+ * the exact BCAnalyzer. The output is the same csv as the BCAnalyzer, with a note before the header giving the
+ * epsilon, delta, amount of samples and the error bound that was reached. Either analyzer can read the other's file.
+ * @author MOREPOWER
+ *
+ */
+public class ApproxBCAnalyzer extends BCAnalyzer {
+
+	private final ApproximateBetweenness approximation;
+	private final long seed;
+
+	/**
+	 * Constructor for the analyzer
+	 * @param epsilon - the largest error allowed for the normalized scores, between 0 and 1
+	 * @param delta - the probability allowed of any score being outside of the error, between 0 and 1
+	 */
+	public ApproxBCAnalyzer(double epsilon, double delta) {
+		this(epsilon, delta, new Random().nextLong());
+	}
+
+	/**
+	 * Constructor for the analyzer with a fixed seed, so the scores can be repeated
+	 * @param epsilon
+	 * @param delta
+	 * @param seed
+	 */
+	public ApproxBCAnalyzer(double epsilon, double delta, long seed) {
+		this.approximation = new ApproximateBetweenness(epsilon, delta, seed);
+		this.seed = seed;
+	}
+
+	@Override
+	public MeasureVector analyzeVector(Graph<String, String> graph,
+			String filepath) throws IOException {
+		// First create the writer
+		BufferedWriter bw = Utils.FileSystem.createNewFile(filepath);
+
+		// Run the approximation over the int adjacency of the graph
+		CompactGraph compact = CompactGraph.of(graph);
+		double[] scores = approximation.compute(compact);
+
+		// Note the error bound ahead of the header
+		bw.write(myNote + " approximate betweenness: epsilon=" + approximation.getEpsilon()
+				+ " delta=" + approximation.getDelta()
+				+ " samples=" + approximation.getSamples()
+				+ " vertexDiameter=" + approximation.getVertexDiameter()
+				+ " absoluteError=" + approximation.getAbsoluteError()
+				+ " seed=" + seed + "\n");
+		bw.write(myHeader+"\n");
+
+		// Print out the results
+		writeScores(bw, compact, scores);
+
+		// Close to writer
+		bw.close();
+
+		return new MeasureVector(compact.getDictionary(), scores);
+	}
+
+	@Override
+	public String getName() {
+		return "Approximate Betweenness Centrality";
+	}
+}
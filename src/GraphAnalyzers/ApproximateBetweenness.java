@@ -0,0 +1,282 @@
+package GraphAnalyzers;
+
+import java.util.Random;
+import java.util.concurrent.RecursiveTask;
+
+import GraphCreation.CompactGraph;
+import Utils.SplitMix64;
+
+/**
+ * Approximate betweenness centrality by sampling shortest paths (Riondato and Kornaropoulos, "Fast approximation of
+ * betweenness centrality through sampling"). Each sample takes a random pair of vertices (u, v), picks one of the
+ * shortest paths from u to v uniformly at random and credits the vertices inside of it.
+ * With r = (c / epsilon^2) * (floor(log2(VD - 2)) + 1 + ln(1 / delta)) samples, where VD is the vertex diameter,
+ * every normalized score is within epsilon of the real one with probability at least 1 - delta.
+ *
+ * The scores are put back on the scale of BCAnalyzer (the raw Brandes sums, halved for UNDIRECTED graphs),
+ * so the absolute error is epsilon * n * (n - 1), or half of that for UNDIRECTED graphs.
+ * Sampling runs on the pool of the ParallelBetweenness, split into a fixed amount of blocks that each have their own
+ * generator, so a seed gives the same scores on any machine.
+ * The vertex diameter is bounded per weakly connected component, see boundVertexDiameter.
+ * @author MOREPOWER
+ *
+ */
+public class ApproximateBetweenness {
+
+	// The universal constant of the sample size, 0.5 as suggested by Riondato and Kornaropoulos
+	static final double c = 0.5;
+
+	// The amount of blocks the samples are split into, fixed so the sampled pairs don't depend on the pool
+	static final int sampleBlocks = 64;
+
+	private final double epsilon, delta;
+	private final long seed;
+
+	// Filled in by compute
+	private int vertexDiameter;
+	private long samples;
+	private double absoluteError;
+
+	/**
+	 * Constructor for the approximation
+	 * @param epsilon - the largest error allowed for the normalized scores, between 0 and 1
+	 * @param delta - the probability allowed of any score being outside of the error, between 0 and 1
+	 * @param seed - the seed of the sampling, so a run can be repeated
+	 */
+	public ApproximateBetweenness(double epsilon, double delta, long seed) {
+		checkBounds(epsilon, delta);
+		this.epsilon = epsilon;
+		this.delta = delta;
+		this.seed = seed;
+	}
+
+	/**
+	 * Approximates the betweenness centrality of every vertex
+	 * @param graph
+	 * @return the score of every vertex, indexed by its id
+	 */
+	public double[] compute(CompactGraph graph) {
+		int n = graph.getVertexCount();
+		vertexDiameter = boundVertexDiameter(graph);
+		samples = sampleSize(epsilon, delta, vertexDiameter);
+		double scale = (double)n * (n - 1) / (graph.isDirected() ? 1.0 : 2.0);
+		absoluteError = getEpsilon() * scale;
+		if (n < 2)
+			return new double[n];
+
+		int blocks = (int)Math.min(samples, sampleBlocks);
+		double[] counts = ParallelBetweenness.pool.invoke(new SampleBlocks(graph, samples, seed, blocks, 0, blocks));
+		for (int v = 0; v < n; v++)
+			counts[v] = counts[v] / samples * scale;
+		return counts;
+	}
+
+	/**
+	 * Checks the epsilon and delta of an approximation
+	 * @param epsilon
+	 * @param delta
+	 * @throws Error if either isn't between 0 and 1
+	 */
+	public static void checkBounds(double epsilon, double delta) {
+		if (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1)
+			throw new Error("Epsilon and delta must be between 0 and 1: " + epsilon + ", " + delta);
+	}
+
+	/**
+	 * @param epsilon
+	 * @param delta
+	 * @param vertexDiameter
+	 * @return the amount of samples needed for the error bound
+	 */
+	public static long sampleSize(double epsilon, double delta, int vertexDiameter) {
+		int diameterBits = (vertexDiameter > 3) ? 31 - Integer.numberOfLeadingZeros(vertexDiameter - 2) : 0;
+		return (long)Math.ceil((c / (epsilon * epsilon)) * (diameterBits + 1 + Math.log(1 / delta)));
+	}
+
+	/**
+	 * Bounds the vertex diameter (the most vertices on a shortest path) by running a breadth first search, ignoring
+	 * direction, from one vertex of every weakly connected component. In an UNDIRECTED component with eccentricity e
+	 * from that vertex no shortest path has more than 2e + 1 vertices. A DIRECTED shortest path can be much longer than
+	 * the undirected one between its ends, so there only the size of the component is a bound
+	 * @param graph
+	 * @return the bound, at most the amount of vertices
+	 */
+	public static int boundVertexDiameter(CompactGraph graph) {
+		boolean directed = graph.isDirected();
+		int n = graph.getVertexCount();
+		int[] outOffsets = graph.getOutOffsets(), outNeighbors = graph.getOutNeighbors();
+		int[] inOffsets = graph.getInOffsets(), inNeighbors = graph.getInNeighbors();
+		int[] distance = new int[n];
+		int[] queue = new int[n];
+		for (int v = 0; v < n; v++)
+			distance[v] = -1;
+
+		int bound = Math.min(n, 1);
+		for (int root = 0; root < n; root++) {
+			if (distance[root] >= 0)
+				continue;
+			int head = 0, tail = 0, eccentricity = 0;
+			queue[tail++] = root;
+			distance[root] = 0;
+			while (head < tail) {
+				int v = queue[head++];
+				eccentricity = distance[v];
+				for (int p = outOffsets[v]; p < outOffsets[v + 1]; p++) {
+					if (distance[outNeighbors[p]] < 0) {
+						distance[outNeighbors[p]] = distance[v] + 1;
+						queue[tail++] = outNeighbors[p];
+					}
+				}
+				for (int p = inOffsets[v]; p < inOffsets[v + 1]; p++) {
+					if (distance[inNeighbors[p]] < 0) {
+						distance[inNeighbors[p]] = distance[v] + 1;
+						queue[tail++] = inNeighbors[p];
+					}
+				}
+			}
+			bound = Math.max(bound, directed ? tail : Math.min(tail, 2 * eccentricity + 1));
+		}
+		return bound;
+	}
+
+	/**
+	 * Runs the samples of blocks [from, to), splitting in half until it's down to one block
+	 */
+	private static class SampleBlocks extends RecursiveTask<double[]> {
+		private static final long serialVersionUID = 1L;
+
+		final CompactGraph graph;
+		final long samples, seed;
+		final int blocks, from, to;
+
+		SampleBlocks(CompactGraph graph, long samples, long seed, int blocks, int from, int to) {
+			this.graph = graph;
+			this.samples = samples;
+			this.seed = seed;
+			this.blocks = blocks;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected double[] compute() {
+			if (to - from == 1) {
+				long count = samples * to / blocks - samples * from / blocks;
+				// Every block gets its own generator, so the result doesn't depend on which thread runs it
+				return runBlock(graph, count, new SplitMix64(SplitMix64.derive(seed, from)));
+			}
+
+			int mid = (from + to) >>> 1;
+			SampleBlocks left = new SampleBlocks(graph, samples, seed, blocks, from, mid);
+			SampleBlocks right = new SampleBlocks(graph, samples, seed, blocks, mid, to);
+			left.fork();
+			double[] rightCounts = right.compute();
+			double[] counts = left.join();
+			for (int v = 0; v < counts.length; v++)
+				counts[v] += rightCounts[v];
+			return counts;
+		}
+	}
+
+	/**
+	 * Takes count samples
+	 * @return the amount of sampled paths every vertex was inside of
+	 */
+	static double[] runBlock(CompactGraph graph, long count, Random random) {
+		final int n = graph.getVertexCount();
+		final int[] outOffsets = graph.getOutOffsets(), outNeighbors = graph.getOutNeighbors();
+		final int[] inOffsets = graph.getInOffsets(), inNeighbors = graph.getInNeighbors();
+
+		double[] counts = new double[n];
+		int[] distance = new int[n];
+		double[] paths = new double[n];
+		int[] order = new int[n];
+		for (int v = 0; v < n; v++)
+			distance[v] = -1;
+
+		for (long sample = 0; sample < count; sample++) {
+			int u = random.nextInt(n);
+			int v = random.nextInt(n - 1);
+			if (v >= u)
+				v++;
+
+			// Breadth first search from u counting shortest paths, stopping once the level of v is counted
+			int head = 0, tail = 0;
+			order[tail++] = u;
+			distance[u] = 0;
+			paths[u] = 1;
+			while (head < tail) {
+				int x = order[head++];
+				if (distance[v] >= 0 && distance[x] >= distance[v])
+					break;
+				int next = distance[x] + 1;
+				for (int p = outOffsets[x]; p < outOffsets[x + 1]; p++) {
+					int w = outNeighbors[p];
+					if (distance[w] < 0) {
+						distance[w] = next;
+						order[tail++] = w;
+					}
+					if (distance[w] == next)
+						paths[w] += paths[x];
+				}
+			}
+
+			// Walk back from v, picking each predecessor by its share of the shortest paths
+			if (distance[v] > 0) {
+				int w = v;
+				while (true) {
+					double pick = random.nextDouble() * paths[w];
+					int previous = distance[w] - 1;
+					int chosen = -1;
+					for (int p = inOffsets[w]; p < inOffsets[w + 1]; p++) {
+						int x = inNeighbors[p];
+						if (distance[x] == previous) {
+							chosen = x;
+							pick -= paths[x];
+							if (pick < 0)
+								break;
+						}
+					}
+					if (chosen == u)
+						break;
+					counts[chosen]++;
+					w = chosen;
+				}
+			}
+
+			// Reset only what this search touched
+			for (int i = 0; i < tail; i++) {
+				distance[order[i]] = -1;
+				paths[order[i]] = 0;
+			}
+		}
+		return counts;
+	}
+
+	public int getVertexDiameter() {
+		return vertexDiameter;
+	}
+
+	public long getSamples() {
+		return samples;
+	}
+
+	/**
+	 * @return the error bound of the normalized scores that the samples taken give
+	 */
+	public double getEpsilon() {
+		int diameterBits = (vertexDiameter > 3) ? 31 - Integer.numberOfLeadingZeros(vertexDiameter - 2) : 0;
+		return Math.sqrt((c / samples) * (diameterBits + 1 + Math.log(1 / delta)));
+	}
+
+	public double getDelta() {
+		return delta;
+	}
+
+	/**
+	 * @return the error bound in the units of the returned scores
+	 */
+	public double getAbsoluteError() {
+		return absoluteError;
+	}
+}
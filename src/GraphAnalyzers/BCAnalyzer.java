@@ -4,15 +4,15 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
 
+import GraphCreation.CompactGraph;
 import Utils.HardCode;
-import edu.uci.ics.jung.algorithms.importance.BetweennessCentrality;
 import edu.uci.ics.jung.graph.Graph;
 
 /**
- * Analyzer class that calculates betweenness centrality
+ * Analyzer class that calculates betweenness centrality. The scores are the same as JUNG's BetweennessCentrality,
+ * but are computed by the ParallelBetweenness on all of the cores
  * @author MOREPOWER
  *
  */
@@ -24,61 +24,63 @@ public class BCAnalyzer extends AnalyzerDistribution {
 	// the amount of sig figs. Since this is an approximation, there is a level of randomness, this can remove
 	final static int sigFigs = 7;
 	
+	// Lines before the header starting with this are notes about the scores, such as the error of an approximation
+	final static String myNote = "#";
+	
 	@Override
 	public Map<String, Double> analyzeGraph(Graph<String, String> graph,
 			String filepath) throws IOException {
+		return analyzeVector(graph, filepath).toMap();
+	}
+	
+	@Override
+	public MeasureVector analyzeVector(Graph<String, String> graph,
+			String filepath) throws IOException {
 		// First create the writer
 		BufferedWriter bw = Utils.FileSystem.createNewFile(filepath);
 		bw.write(myHeader+"\n");
 		
-		// Run the centrality algorithm
-		BetweennessCentrality<String, String> cm = new BetweennessCentrality<String, String>(graph);
-		cm.setRemoveRankScoresOnFinalize(false); 
-		cm.evaluate();
-		
-		HashMap<String, Double> results = new HashMap<String, Double>();
+		// Run the centrality algorithm over the int adjacency of the graph
+		CompactGraph compact = CompactGraph.of(graph);
+		double[] scores = ParallelBetweenness.compute(compact);
 		
 		// Print out the results
-		double value;
-		for (String vertex : graph.getVertices()) {
-			value = Utils.HardCode.floorValue(cm.getVertexRankScore(vertex), sigFigs);
-			bw.write(vertex + "," + HardCode.dcf3.format(value) + "\n");
-			results.put(vertex, value);
-		}
+		writeScores(bw, compact, scores);
 		
 		// Close to writer
 		bw.close();
 		
-		return results;
+		return new MeasureVector(compact.getDictionary(), scores);
+	}
+	
+	/**
+	 * Floors the scores to the sig figs and writes them out in order of the vertex ids
+	 */
+	static void writeScores(BufferedWriter bw, CompactGraph compact, double[] scores) throws IOException {
+		for (int id = 0; id < scores.length; id++) {
+			scores[id] = Utils.HardCode.floorValue(scores[id], sigFigs);
+			bw.write(compact.getLabel(id) + "," + HardCode.dcf3.format(scores[id]) + "\n");
+		}
 	}
 	
 	@Override
 	public Map<String, Double> read(String filepath) throws IOException, Error {
+		return readVector(filepath).toMap();
+	}
+	
+	@Override
+	public MeasureVector readVector(String filepath) throws IOException, Error {
 		// First create the reader
 		BufferedReader br = new BufferedReader(new FileReader(filepath));
 		
 		String data;
-		if ((data = br.readLine()) == null || data.equals(myHeader) == false) {
+		while ((data = br.readLine()) != null && data.startsWith(myNote));
+		if (data == null || data.equals(myHeader) == false) {
 			br.close();
 			throw new Error("BCAnalyzer Import Doesn't Match Header: " + myHeader);
 		}
 		
-		HashMap<String, Double> result = new HashMap<String, Double>();
-		while ((data = br.readLine()) != null) {
-			// Import in "userID, bcScore"
-			data = data.replaceAll("\"", "");
-			String[] items = HardCode.separateReg.split(data);
-			if (items.length != 2) {
-				br.close();
-				throw new Error("Data Split was incorrectly formatted: " + data);
-			}
-			
-			result.put(items[0].trim(), Double.valueOf(items[1].trim()));
-		}
-
-		br.close();
-		
-		return result;
+		return readValues(br);
 	}
 
 	@Override
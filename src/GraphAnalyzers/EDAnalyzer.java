@@ -4,16 +4,15 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 
+import GraphCreation.CompactGraph;
 import Utils.HardCode;
-import edu.uci.ics.jung.algorithms.metrics.Metrics;
 import edu.uci.ics.jung.graph.Graph;
 
 /**
  * Graph Analyzer for Egocentric Density, or Local Clustering Coefficient.
+ * The coefficients are the same as JUNG's Metrics.clusteringCoefficients, but are computed by counting triangles with the ParallelClustering
  * @author MOREPOWER
  *
  */
@@ -28,29 +27,39 @@ public class EDAnalyzer extends AnalyzerDistribution {
 	@Override
 	public Map<String, Double> analyzeGraph(Graph<String, String> graph,
 			String filepath) throws IOException {
+		return analyzeVector(graph, filepath).toMap();
+	}
+	
+	@Override
+	public MeasureVector analyzeVector(Graph<String, String> graph,
+			String filepath) throws IOException {
 		// First create the writer
 		BufferedWriter bw = Utils.FileSystem.createNewFile(filepath);
 		bw.write(myHeader+"\n");
 		
-		// Run the centrality algorithm
-		
-		Map<String, Double> result = Metrics.clusteringCoefficients(graph);
+		// Run the triangle counting over the int adjacency of the graph
+		CompactGraph compact = CompactGraph.of(graph);
+		double[] coefficients = ParallelClustering.compute(compact);
 		
 		// Print out the results
-		for (Entry<String, Double> point : result.entrySet()) {
-			point.setValue(HardCode.floorValue(point.getValue(), sigFigs));
-			bw.write(point.getKey() + "," + HardCode.dcf3.format(point.getValue()) + "\n");
-			result.put(point.getKey(), point.getValue());
+		for (int id = 0; id < coefficients.length; id++) {
+			coefficients[id] = HardCode.floorValue(coefficients[id], sigFigs);
+			bw.write(compact.getLabel(id) + "," + HardCode.dcf3.format(coefficients[id]) + "\n");
 		}
 		
 		// Close to writer
 		bw.close();
 		
-		return result;
+		return new MeasureVector(compact.getDictionary(), coefficients);
 	}
 	
 	@Override
 	public Map<String, Double> read(String filepath) throws IOException, Error {
+		return readVector(filepath).toMap();
+	}
+	
+	@Override
+	public MeasureVector readVector(String filepath) throws IOException, Error {
 		// First create the reader
 		BufferedReader br = new BufferedReader(new FileReader(filepath));
 		
@@ -60,22 +69,7 @@ public class EDAnalyzer extends AnalyzerDistribution {
 			throw new Error("EDAnalyzer Import Doesn't Match Header: " + myHeader);
 		}
 		
-		HashMap<String, Double> result = new HashMap<String, Double>();
-		while ((data = br.readLine()) != null) {
-			// Import in "userID, edScore"
-			data = data.replaceAll("\"", "");
-			String[] items = HardCode.separateReg.split(data);
-			if (items.length != 2) {
-				br.close();
-				throw new Error("Data Split was incorrectly formatted: " + data);
-			}
-			
-			result.put(items[0].trim(), Double.valueOf(items[1].trim()));
-		}
-
-		br.close();
-		
-		return result;
+		return readValues(br);
 	}
 
 	@Override
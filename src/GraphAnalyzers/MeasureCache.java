@@ -0,0 +1,203 @@
+package GraphAnalyzers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.zip.CRC32;
+
+import GraphCreation.LabelDictionary;
+import Utils.HardCode;
+
+/**
+ * Binary sidecar of a measure csv, so the measures can be loaded without parsing the csv line by line.
+ * The sidecar sits next to the csv (with HardCode.pMeasureCacheFix added to the name) and is read through a MappedByteBuffer.
+ * It is only ever made from the values read out of the csv, so loading it gives exactly what reading the csv would.
+ *
+ * The layout of the file is, all little-endian:
+ *    -Header: magic, format version, analyzer version, vertex count (ints), then the length and last modified time of the csv,
+ *     the size of the label bytes and the CRC32 of everything after the header (longs)
+ *    -Labels: an int offset for each label into the UTF-8 bytes that follow, padded to 8 bytes
+ *    -Values: a double for each label, in the same order
+ *
+ * A sidecar is stale if the csv's length or modified time changed, the analyzer version changed, or the checksum doesn't match.
+ * Stale sidecars are ignored and made again from the csv
+ * @author MOREPOWER
+ *
+ */
+public class MeasureCache {
+
+	// "JGMC" and the version of the layout above
+	static final int MAGIC = 0x4A474D43;
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 48;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * @param csvPath
+	 * @return the path of the sidecar of the csv
+	 */
+	public static String sidecarPath(String csvPath) {
+		return csvPath + HardCode.pMeasureCacheFix;
+	}
+
+	/**
+	 * Loads the sidecar of the csv if it's there and up to date
+	 * @param csvPath - the measure csv the sidecar was made from
+	 * @param analyzerVersion - the version of the analyzer reading the csv
+	 * @return the measures, or null if there isn't an up to date sidecar
+	 * @throws IOException
+	 */
+	public static MeasureVector load(String csvPath, int analyzerVersion) throws IOException {
+		File csv = new File(csvPath);
+		File sidecar = new File(sidecarPath(csvPath));
+		if (!sidecar.isFile() || sidecar.length() < HEADER_BYTES || sidecar.length() > Integer.MAX_VALUE)
+			return null;
+
+		RandomAccessFile file = new RandomAccessFile(sidecar, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+			// Header
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != analyzerVersion)
+				return null;
+			int n = buffer.getInt();
+			long csvLength = buffer.getLong();
+			long csvModified = buffer.getLong();
+			long labelBytes = buffer.getLong();
+			long checksum = buffer.getLong();
+			if (csvLength != csv.length() || csvModified != csv.lastModified())
+				return null;
+			if (n < 0 || labelBytes < 0 || labelBytes > buffer.capacity())
+				return null;
+			if (checksum(buffer, HEADER_BYTES) != checksum)
+				return null;
+
+			try {
+				// Labels
+				int[] offsets = new int[n + 1];
+				buffer.asIntBuffer().get(offsets);
+				buffer.position(buffer.position() + offsets.length * 4);
+				byte[] bytes = new byte[(int)labelBytes];
+				buffer.get(bytes);
+				buffer.position(buffer.position() + padding(buffer.position()));
+				String[] labels = new String[n];
+				for (int i = 0; i < n; i++)
+					labels[i] = new String(bytes, offsets[i], offsets[i + 1] - offsets[i], UTF8);
+
+				// Values
+				double[] values = new double[n];
+				buffer.asDoubleBuffer().get(values);
+				buffer.position(buffer.position() + n * 8);
+				if (buffer.hasRemaining())
+					return null;
+
+				return new MeasureVector(new LabelDictionary(labels), values);
+			} catch (BufferUnderflowException e) {
+				return null;
+			} catch (IndexOutOfBoundsException e) {
+				return null;
+			} catch (IllegalArgumentException e) {
+				return null;
+			}
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Writes the sidecar of the csv. The file is written next to the sidecar and then moved over it,
+	 * so a partly written sidecar is never picked up
+	 * @param csvPath - the measure csv the values were read from
+	 * @param analyzerVersion - the version of the analyzer that read the csv
+	 * @param measures - the values read from the csv
+	 * @throws IOException - if the cache couldn't be written, including when it would be too large for one buffer
+	 */
+	public static void store(String csvPath, int analyzerVersion, MeasureVector measures) throws IOException {
+		File csv = new File(csvPath);
+		int n = measures.size();
+
+		byte[][] labels = new byte[n][];
+		long labelBytes = 0;
+		for (int id = 0; id < n; id++) {
+			labels[id] = measures.getLabel(id).getBytes(UTF8);
+			labelBytes += labels[id].length;
+		}
+		long labelEnd = HEADER_BYTES + (n + 1) * 4L + labelBytes;
+		long size = labelEnd + padding(labelEnd) + n * 8L;
+		if (size > Integer.MAX_VALUE)
+			throw new IOException("Measures are too large for a cache: " + csvPath);
+
+		ByteBuffer buffer = ByteBuffer.allocate((int)size).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putInt(analyzerVersion);
+		buffer.putInt(n);
+		buffer.putLong(csv.length());
+		buffer.putLong(csv.lastModified());
+		buffer.putLong(labelBytes);
+		buffer.putLong(0);
+
+		int offset = 0;
+		buffer.putInt(0);
+		for (byte[] label : labels) {
+			offset += label.length;
+			buffer.putInt(offset);
+		}
+		for (byte[] label : labels)
+			buffer.put(label);
+		buffer.position(buffer.position() + padding(buffer.position()));
+		buffer.asDoubleBuffer().put(measures.getValues(), 0, n);
+		buffer.putLong(40, checksum(buffer, HEADER_BYTES));
+
+		// Each writer gets its own temporary file, in case two threads cache the same csv
+		File target = new File(sidecarPath(csvPath));
+		File temp = File.createTempFile(target.getName(), ".tmp", target.getAbsoluteFile().getParentFile());
+		RandomAccessFile file = new RandomAccessFile(temp, "rw");
+		try {
+			file.setLength(0);
+			buffer.clear();
+			FileChannel channel = file.getChannel();
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+		} finally {
+			file.close();
+		}
+
+		if (target.exists() && !target.delete()) {
+			temp.delete();
+			return;
+		}
+		if (!temp.renameTo(target))
+			temp.delete();
+	}
+
+	/**
+	 * The CRC32 of the buffer from start to its capacity
+	 */
+	private static long checksum(ByteBuffer buffer, int start) {
+		CRC32 crc = new CRC32();
+		ByteBuffer data = buffer.duplicate();
+		data.clear();
+		data.position(start);
+		byte[] chunk = new byte[1 << 16];
+		while (data.hasRemaining()) {
+			int count = Math.min(chunk.length, data.remaining());
+			data.get(chunk, 0, count);
+			crc.update(chunk, 0, count);
+		}
+		return crc.getValue();
+	}
+
+	private static int padding(long position) {
+		return (int)((8 - (position & 7)) & 7);
+	}
+}
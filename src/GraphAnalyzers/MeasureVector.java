@@ -0,0 +1,223 @@
+package GraphAnalyzers;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import GraphCreation.LabelDictionary;
+
+/**
+ * The measure of every vertex of a graph, stored as a dense double[] indexed by the vertex ids of a LabelDictionary.
+ * Measures computed on the same CompactGraph share its dictionary, so they line up id for id without any lookups.
+ * Note: the values array is shared rather than copied, nothing should change it once the vector is made
+ * @author MOREPOWER
+ *
+ */
+public class MeasureVector {
+
+	private final LabelDictionary dictionary;
+	private final double[] values;
+	// The values from smallest up, sorted the first time they're asked for
+	private volatile double[] sortedValues;
+
+	/**
+	 * Constructor for the vector
+	 * @param dictionary - the labels of the vertices
+	 * @param values - the value of every vertex, indexed by its id in the dictionary
+	 */
+	public MeasureVector(LabelDictionary dictionary, double[] values) {
+		if (dictionary.size() != values.length)
+			throw new Error("Measure vector has " + values.length + " values for " + dictionary.size() + " labels");
+		this.dictionary = dictionary;
+		this.values = values;
+	}
+
+	/**
+	 * Copies a mapping of vertices to their measures into a vector
+	 * @param measures
+	 * @return the vector, with the vertices in the order of the map's iteration
+	 */
+	public static MeasureVector of(Map<String, Double> measures) {
+		LabelDictionary dictionary = new LabelDictionary(measures.size());
+		double[] values = new double[measures.size()];
+		for (Entry<String, Double> entry : measures.entrySet())
+			values[dictionary.intern(entry.getKey())] = entry.getValue();
+		return new MeasureVector(dictionary, values);
+	}
+
+	public int size() {
+		return values.length;
+	}
+
+	public LabelDictionary getDictionary() {
+		return dictionary;
+	}
+
+	public String getLabel(int id) {
+		return dictionary.getLabel(id);
+	}
+
+	public double getValue(int id) {
+		return values[id];
+	}
+
+	/**
+	 * @return the backing array of the values, indexed by id
+	 */
+	public double[] getValues() {
+		return values;
+	}
+
+	/**
+	 * The values sorted from smallest up. They're only sorted once and then kept, so a population vector that every sample
+	 * is compared against isn't sorted again for each sample. Threads racing to sort first each sort an equal copy, and any of them is kept
+	 * @return the sorted values, which shouldn't be changed
+	 */
+	public double[] sortedValues() {
+		double[] sorted = sortedValues;
+		if (sorted == null) {
+			sorted = Arrays.copyOf(values, values.length);
+			Arrays.sort(sorted);
+			sortedValues = sorted;
+		}
+		return sorted;
+	}
+
+	/**
+	 * Finds the id in another vector of every vertex in this one. Vectors sharing a dictionary skip the lookups
+	 * @param other
+	 * @return the id in other of every vertex, indexed by its id in this vector, or -1 where other doesn't have it
+	 */
+	public int[] mapTo(MeasureVector other) {
+		int[] ids = new int[values.length];
+		if (dictionary == other.dictionary) {
+			for (int id = 0; id < ids.length; id++)
+				ids[id] = id;
+		} else {
+			for (int id = 0; id < ids.length; id++)
+				ids[id] = other.dictionary.getId(dictionary.getLabel(id));
+		}
+		return ids;
+	}
+
+	/**
+	 * Sorts the vertex ids by their values. The order is the same as sorting the entries of a map with
+	 * MeasureComparison.entrySort (values from largest, ties by label from largest) or entrySortBackwards when reversed
+	 * @param reverse - whether to sort from the smallest value up instead
+	 * @return the ids in sorted order
+	 */
+	public int[] sortedIds(boolean reverse) {
+		int[] ids = new int[values.length];
+		for (int id = 0; id < ids.length; id++)
+			ids[id] = id;
+		mergeSort(ids, new int[ids.length], 0, ids.length, reverse);
+		return ids;
+	}
+
+	/**
+	 * Sorts only the top of the ids by their values, for when only a prefix of sortedIds is needed. The top k are selected
+	 * with a quickselect and only they are sorted, so it's linear in the size plus k log k rather than a full sort
+	 * @param k - the amount of the top that has to be in order
+	 * @param reverse - whether to sort from the smallest value up instead
+	 * @return every id, the first k the same as the first k of sortedIds and the rest after them in no particular order
+	 */
+	public int[] topSortedIds(int k, boolean reverse) {
+		int[] ids = new int[values.length];
+		for (int id = 0; id < ids.length; id++)
+			ids[id] = id;
+		k = Math.min(k, ids.length);
+		if (k <= 0)
+			return ids;
+		select(ids, k, reverse);
+		mergeSort(ids, new int[k], 0, k, reverse);
+		return ids;
+	}
+
+	/**
+	 * Quickselect, moves the k ids that come first to ids[0, k) in no particular order.
+	 * The order is total (ties go by label), so only the pivot is ever equal to the pivot
+	 */
+	private void select(int[] ids, int k, boolean reverse) {
+		int from = 0, to = ids.length;
+		while (from < k && k < to) {
+			// Median of three for the pivot
+			int a = ids[from], b = ids[(from + to) >>> 1], c = ids[to - 1];
+			int pivot;
+			if (before(a, b, reverse))
+				pivot = before(b, c, reverse) ? b : (before(a, c, reverse) ? c : a);
+			else
+				pivot = before(a, c, reverse) ? a : (before(b, c, reverse) ? c : b);
+
+			// Split into [from, j] that don't come after the pivot and [i, to) that don't come before it
+			int i = from, j = to - 1;
+			while (i <= j) {
+				while (before(ids[i], pivot, reverse))
+					i++;
+				while (before(pivot, ids[j], reverse))
+					j--;
+				if (i <= j) {
+					int temp = ids[i];
+					ids[i++] = ids[j];
+					ids[j--] = temp;
+				}
+			}
+			if (k <= j + 1)
+				to = j + 1;
+			else if (k >= i)
+				from = i;
+			else
+				return;
+		}
+	}
+
+	/**
+	 * Whether id a comes before id b, largest first unless reversed
+	 */
+	private boolean before(int a, int b, boolean reverse) {
+		int compare = Double.compare(values[a], values[b]);
+		if (compare == 0)
+			compare = dictionary.getLabel(a).compareTo(dictionary.getLabel(b));
+		return reverse ? compare < 0 : compare > 0;
+	}
+
+	/**
+	 * Sorts ids[from, to), using buffer as the space to merge into
+	 */
+	private void mergeSort(int[] ids, int[] buffer, int from, int to, boolean reverse) {
+		if (to - from < 16) {
+			// Insertion sort the small runs
+			for (int i = from + 1; i < to; i++) {
+				int id = ids[i];
+				int j = i - 1;
+				for (; j >= from && before(id, ids[j], reverse); j--)
+					ids[j + 1] = ids[j];
+				ids[j + 1] = id;
+			}
+			return;
+		}
+		int mid = (from + to) >>> 1;
+		mergeSort(ids, buffer, from, mid, reverse);
+		mergeSort(ids, buffer, mid, to, reverse);
+		if (!before(ids[mid], ids[mid - 1], reverse))
+			return;
+
+		System.arraycopy(ids, from, buffer, from, to - from);
+		for (int i = from, j = mid, k = from; k < to; k++) {
+			if (j >= to || (i < mid && !before(buffer[j], buffer[i], reverse)))
+				ids[k] = buffer[i++];
+			else
+				ids[k] = buffer[j++];
+		}
+	}
+
+	/**
+	 * @return a mapping of every vertex to its value
+	 */
+	public Map<String, Double> toMap() {
+		HashMap<String, Double> map = new HashMap<String, Double>(values.length * 2);
+		for (int id = 0; id < values.length; id++)
+			map.put(dictionary.getLabel(id), values[id]);
+		return map;
+	}
+}
@@ -5,10 +5,9 @@ import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
 
-import Utils.HardCode;
+import GraphCreation.CompactGraph;
 import edu.uci.ics.jung.graph.Graph;
 
 /**
@@ -23,30 +22,44 @@ public class OutDegreeAnalyzer extends AnalyzerDistribution {
 	@Override
 	public Map<String, Double> analyzeGraph(Graph<String, String> graph,
 			String filepath) throws IOException {
+		return analyzeVector(graph, filepath).toMap();
+	}
+	
+	@Override
+	public MeasureVector analyzeVector(Graph<String, String> graph,
+			String filepath) throws IOException {
 		// First create the writer
 		BufferedWriter writer = Utils.FileSystem.createNewFile(filepath);
 		writer.write(myHeader);
 		writer.newLine();
 		
-		// Hashmap for the degree scoring
-		HashMap<String, Double> degreeDistro = new HashMap<String, Double>(graph.getVertexCount());
+		// The degrees, indexed by the ids of the compact graph
+		CompactGraph compact = CompactGraph.of(graph);
+		double[] degreeDistro = new double[compact.getVertexCount()];
 		
-		for (String node : graph.getVertices()) {
+		for (int id = 0; id < degreeDistro.length; id++) {
+			String node = compact.getLabel(id);
 			Double degreeOut = new Double(graph.getSuccessorCount(node));
 			writer.write(node + "," + degreeOut.toString());
 			writer.newLine();
-			degreeDistro.put(node, degreeOut);
+			degreeDistro[id] = degreeOut;
 		}
 
 		// Close to writer
 		writer.close();
 		
-		return degreeDistro;
+		return new MeasureVector(compact.getDictionary(), degreeDistro);
 	}
 
 	@Override
 	public Map<String, Double> read(String filepath)
 			throws FileNotFoundException, IOException, Error {
+		return readVector(filepath).toMap();
+	}
+
+	@Override
+	public MeasureVector readVector(String filepath)
+			throws FileNotFoundException, IOException, Error {
 		// First create the reader
 		BufferedReader br = new BufferedReader(new FileReader(filepath));
 		
@@ -56,22 +69,7 @@ public class OutDegreeAnalyzer extends AnalyzerDistribution {
 			throw new Error("OutDEAnalyzer Import Doesn't Match Header: " + myHeader);
 		}
 		
-		HashMap<String, Double> result = new HashMap<String, Double>();
-		while ((data = br.readLine()) != null) {
-			// Import in "userID, bcScore"
-			data = data.replaceAll("\"", "");
-			String[] items = HardCode.separateReg.split(data);
-			if (items.length != 2) {
-				br.close();
-				throw new Error("Data Split was incorrectly formatted: " + data);
-			}
-			
-			result.put(items[0].trim(), Double.valueOf(items[1].trim()));
-		}
-
-		br.close();
-		
-		return result;
+		return readValues(br);
 	}
 
 	@Override
@@ -0,0 +1,181 @@
+package GraphAnalyzers;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import GraphCreation.CompactGraph;
+
+/**
+ * Local clustering coefficient (egocentric density) of every vertex by counting triangles over the int adjacency
+ * of a CompactGraph, run on the pool of the ParallelBetweenness.
+ * Every edge is pointed from the vertex of lower degree to the one of higher degree (ties by id), so each triangle is
+ * found exactly once by intersecting two of these forward lists, and no list is longer than about sqrt(2m).
+ *
+ * The coefficients are the same as JUNG's Metrics.clusteringCoefficients: direction is ignored, the neighbors of a vertex
+ * include itself if it has a self-loop, and a vertex with fewer than two neighbors has a coefficient of 0.
+ * @author MOREPOWER
+ *
+ */
+public class ParallelClustering {
+
+	/**
+	 * Computes the local clustering coefficient of every vertex
+	 * @param graph
+	 * @return the coefficient of every vertex, indexed by its id
+	 */
+	public static double[] compute(CompactGraph graph) {
+		final int n = graph.getVertexCount();
+
+		// The neighbors of every vertex ignoring direction, without self-loops, sorted by id
+		boolean[] selfLoop = new boolean[n];
+		int[] offsets = new int[n + 1];
+		int[] neighbors = symmetricNeighbors(graph, selfLoop, offsets);
+
+		// Only keep the neighbors that rank higher, ranking by degree and then id
+		final int[] forwardOffsets = new int[n + 1];
+		for (int u = 0; u < n; u++) {
+			int count = 0;
+			for (int p = offsets[u]; p < offsets[u + 1]; p++) {
+				if (ranksHigher(offsets, neighbors[p], u))
+					count++;
+			}
+			forwardOffsets[u + 1] = forwardOffsets[u] + count;
+		}
+		final int[] forward = new int[forwardOffsets[n]];
+		for (int u = 0, pos = 0; u < n; u++) {
+			for (int p = offsets[u]; p < offsets[u + 1]; p++) {
+				if (ranksHigher(offsets, neighbors[p], u))
+					forward[pos++] = neighbors[p];
+			}
+		}
+
+		// Count the triangles of every vertex
+		AtomicLongArray triangles = new AtomicLongArray(n);
+		if (n > 0) {
+			int blocks = Math.min(n, ParallelBetweenness.pool.getParallelism() * ParallelBetweenness.blocksPerThread);
+			ParallelBetweenness.pool.invoke(new TriangleBlocks(forwardOffsets, forward, triangles, n, blocks, 0, blocks));
+		}
+
+		double[] coefficients = new double[n];
+		for (int v = 0; v < n; v++) {
+			// A self-loop makes the vertex its own neighbor, and a neighbor of all of its neighbors
+			long size = offsets[v + 1] - offsets[v] + (selfLoop[v] ? 1 : 0);
+			if (size < 2)
+				continue;
+			double connected = triangles.get(v) + (selfLoop[v] ? size - 1 : 0);
+			coefficients[v] = connected / ((size * (size - 1)) / 2.0);
+		}
+		return coefficients;
+	}
+
+	/**
+	 * Whether w comes after u when the vertices are ordered by their degree, then their id
+	 */
+	private static boolean ranksHigher(int[] offsets, int w, int u) {
+		int degreeW = offsets[w + 1] - offsets[w], degreeU = offsets[u + 1] - offsets[u];
+		return degreeW > degreeU || (degreeW == degreeU && w > u);
+	}
+
+	/**
+	 * Merges the in and out neighbors of every vertex, dropping self-loops
+	 * @param selfLoop - filled in with whether each vertex has a self-loop
+	 * @param offsets - filled in with the offsets of the returned neighbors
+	 * @return the neighbors of every vertex, sorted by id
+	 */
+	private static int[] symmetricNeighbors(CompactGraph graph, boolean[] selfLoop, int[] offsets) {
+		int n = graph.getVertexCount();
+		int[] outOffsets = graph.getOutOffsets(), out = graph.getOutNeighbors();
+		int[] inOffsets = graph.getInOffsets(), in = graph.getInNeighbors();
+		boolean directed = graph.isDirected();
+
+		int[] neighbors = new int[directed ? outOffsets[n] + inOffsets[n] : outOffsets[n]];
+		int size = 0;
+		for (int v = 0; v < n; v++) {
+			offsets[v] = size;
+			int i = outOffsets[v], iEnd = outOffsets[v + 1];
+			int j = directed ? inOffsets[v] : 0, jEnd = directed ? inOffsets[v + 1] : 0;
+			while (i < iEnd || j < jEnd) {
+				int next;
+				if (j >= jEnd || (i < iEnd && out[i] < in[j]))
+					next = out[i++];
+				else if (i >= iEnd || in[j] < out[i])
+					next = in[j++];
+				else {
+					next = out[i++];
+					j++;
+				}
+				if (next == v)
+					selfLoop[v] = true;
+				else
+					neighbors[size++] = next;
+			}
+		}
+		offsets[n] = size;
+		return neighbors;
+	}
+
+	/**
+	 * Counts the triangles found from the vertices in blocks [from, to), splitting in half until it's down to one block
+	 */
+	private static class TriangleBlocks extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		final int[] forwardOffsets, forward;
+		final AtomicLongArray triangles;
+		final int n, blocks, from, to;
+
+		TriangleBlocks(int[] forwardOffsets, int[] forward, AtomicLongArray triangles, int n, int blocks, int from, int to) {
+			this.forwardOffsets = forwardOffsets;
+			this.forward = forward;
+			this.triangles = triangles;
+			this.n = n;
+			this.blocks = blocks;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				countBlock((int)((long)from * n / blocks), (int)((long)to * n / blocks));
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new TriangleBlocks(forwardOffsets, forward, triangles, n, blocks, from, mid),
+					new TriangleBlocks(forwardOffsets, forward, triangles, n, blocks, mid, to));
+		}
+
+		/**
+		 * Every triangle u < w < x (by rank) is found from u, by intersecting the forward lists of u and w
+		 */
+		private void countBlock(int start, int end) {
+			for (int u = start; u < end; u++) {
+				long uCount = 0;
+				for (int p = forwardOffsets[u]; p < forwardOffsets[u + 1]; p++) {
+					int w = forward[p];
+					long wCount = 0;
+					int i = forwardOffsets[u], iEnd = forwardOffsets[u + 1];
+					int j = forwardOffsets[w], jEnd = forwardOffsets[w + 1];
+					while (i < iEnd && j < jEnd) {
+						if (forward[i] < forward[j])
+							i++;
+						else if (forward[i] > forward[j])
+							j++;
+						else {
+							triangles.incrementAndGet(forward[i]);
+							wCount++;
+							i++;
+							j++;
+						}
+					}
+					if (wCount != 0) {
+						triangles.addAndGet(w, wCount);
+						uCount += wCount;
+					}
+				}
+				if (uCount != 0)
+					triangles.addAndGet(u, uCount);
+			}
+		}
+	}
+}
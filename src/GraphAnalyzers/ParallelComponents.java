@@ -0,0 +1,153 @@
+package GraphAnalyzers;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import GraphCreation.CompactGraph;
+
+/**
+ * Weakly connected components of a CompactGraph by a lock-free union-find over the vertex ids, with the edges
+ * unioned in parallel on the pool of the ParallelBetweenness. Roots are only ever linked with a compare-and-set,
+ * always from the larger id to the smaller, so every component ends up rooted at its smallest vertex id.
+ * Only the count and sizes of the components are kept, the components themselves are never made into sets.
+ * @author MOREPOWER
+ *
+ */
+public class ParallelComponents {
+
+	private final int count;
+	// The size of every component, in order of their smallest vertex id
+	private final int[] sizes;
+
+	private ParallelComponents(int count, int[] sizes) {
+		this.count = count;
+		this.sizes = sizes;
+	}
+
+	/**
+	 * Finds the weakly connected components of the graph
+	 * @param graph
+	 * @return the count and sizes of the components
+	 */
+	public static ParallelComponents compute(CompactGraph graph) {
+		int n = graph.getVertexCount();
+		int m = graph.getEdgeCount();
+		AtomicIntegerArray parent = new AtomicIntegerArray(n);
+		for (int v = 0; v < n; v++)
+			parent.set(v, v);
+
+		if (m > 0) {
+			int blocks = Math.min(m, ParallelBetweenness.pool.getParallelism() * ParallelBetweenness.blocksPerThread);
+			ParallelBetweenness.pool.invoke(new EdgeBlocks(graph, parent, m, blocks, 0, blocks));
+		}
+
+		// Count the vertices under every root
+		int[] rootSize = new int[n];
+		int count = 0;
+		for (int v = 0; v < n; v++) {
+			int root = find(parent, v);
+			if (rootSize[root]++ == 0)
+				count++;
+		}
+		int[] sizes = new int[count];
+		for (int v = 0, i = 0; v < n; v++) {
+			if (rootSize[v] != 0)
+				sizes[i++] = rootSize[v];
+		}
+		return new ParallelComponents(count, sizes);
+	}
+
+	/**
+	 * Finds the root of v, halving the path on the way
+	 */
+	static int find(AtomicIntegerArray parent, int v) {
+		while (true) {
+			int p = parent.get(v);
+			if (p == v)
+				return v;
+			int grandparent = parent.get(p);
+			if (p != grandparent)
+				parent.compareAndSet(v, p, grandparent);
+			v = grandparent;
+		}
+	}
+
+	/**
+	 * Joins the components of a and b
+	 */
+	static void union(AtomicIntegerArray parent, int a, int b) {
+		while (true) {
+			a = find(parent, a);
+			b = find(parent, b);
+			if (a == b)
+				return;
+			// Link the larger root under the smaller one, retrying if it stopped being a root
+			if (a < b) {
+				int temp = a; a = b; b = temp;
+			}
+			if (parent.compareAndSet(a, a, b))
+				return;
+		}
+	}
+
+	/**
+	 * Unions the edges in blocks [from, to), splitting in half until it's down to one block
+	 */
+	private static class EdgeBlocks extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		final CompactGraph graph;
+		final AtomicIntegerArray parent;
+		final int m, blocks, from, to;
+
+		EdgeBlocks(CompactGraph graph, AtomicIntegerArray parent, int m, int blocks, int from, int to) {
+			this.graph = graph;
+			this.parent = parent;
+			this.m = m;
+			this.blocks = blocks;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				int end = (int)((long)to * m / blocks);
+				for (int e = (int)((long)from * m / blocks); e < end; e++)
+					union(parent, graph.getEdgeSource(e), graph.getEdgeTarget(e));
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new EdgeBlocks(graph, parent, m, blocks, from, mid),
+					new EdgeBlocks(graph, parent, m, blocks, mid, to));
+		}
+	}
+
+	/**
+	 * @return the amount of weakly connected components
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * @return the size of every component, in order of their smallest vertex id
+	 */
+	public int[] getSizes() {
+		return sizes;
+	}
+
+	/**
+	 * @return the amount of components of every size, from the smallest size up
+	 */
+	public Map<Integer, Integer> getSizeHistogram() {
+		TreeMap<Integer, Integer> histogram = new TreeMap<Integer, Integer>();
+		for (int size : sizes) {
+			Integer current = histogram.get(size);
+			histogram.put(size, (current == null) ? 1 : current + 1);
+		}
+		return histogram;
+	}
+}
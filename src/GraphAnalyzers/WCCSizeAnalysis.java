@@ -2,20 +2,22 @@ package GraphAnalyzers;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
 
+import GraphCreation.CompactGraph;
 import Utils.HardCode;
-import edu.uci.ics.jung.algorithms.cluster.WeakComponentClusterer;
 import edu.uci.ics.jung.graph.Graph;
 
 /**
- * Graph Analyzer for Weakly Connected Components. Serves as a wrapper on JUNG
+ * Graph Analyzer for Weakly Connected Components. Runs the ParallelComponents union-find instead of JUNG's
+ * WeakComponentClusterer, so only the size of each component is found rather than a set of its vertices.
+ * The components are numbered in order of their first vertex in the CompactGraph
  * @author MOREPOWER
  *
  */
@@ -28,27 +30,68 @@ public class WCCSizeAnalysis extends AnalyzerDistribution {
 	// Note, this will only return the total WCC cluster count
 	public Map<String, Double> analyzeGraph(Graph<String, String> graph,
 			String filepath) throws IOException {
-		// Create the summary file
-		BufferedWriter summary = Utils.FileSystem.createNewFile(filepath);
-				
-		WeakComponentClusterer<String, String> clusters = new WeakComponentClusterer<String, String>();
-		Set<Set<String>> setx = clusters.transform(graph);
+		int[] sizes = analyzeComponents(graph, filepath).getSizes();
 		
 		// Create the holder
 		HashMap<String, Double> wccClusters = new HashMap<String, Double>();
+		for (int i = 1; i <= sizes.length; i++)
+			wccClusters.put(String.valueOf(i),  new Double(sizes[i - 1]));
+
+		return wccClusters;
+	}
+	
+	/**
+	 * Finds the components and writes their sizes out, without making a map of them
+	 * @param graph
+	 * @param filepath
+	 * @return the components found, which give their count and size histogram
+	 * @throws IOException
+	 */
+	public ParallelComponents analyzeComponents(Graph<String, String> graph,
+			String filepath) throws IOException {
+		// Create the summary file
+		BufferedWriter summary = Utils.FileSystem.createNewFile(filepath);
+				
+		ParallelComponents components = ParallelComponents.compute(CompactGraph.of(graph));
+		int[] sizes = components.getSizes();
 		
 		// Run the output
 		summary.write(myHeader + "\n");
-		int i = 0;
-		for(Set<String> ss: setx){
-			i++;
-			wccClusters.put(String.valueOf(i),  new Double(ss.size()));	
-			summary.write("component " + i + "," + ss.size());
+		for (int i = 1; i <= sizes.length; i++) {
+			summary.write("component " + i + "," + sizes[i - 1]);
 			summary.newLine();
 		}
 		summary.close();
 
-		return wccClusters;
+		return components;
+	}
+	
+	/**
+	 * Counts the components of the graph, reading the count from the filepath if it's already been written
+	 * @param graph
+	 * @param filepath
+	 * @return the amount of weakly connected components
+	 * @throws IOException
+	 * @throws Error
+	 */
+	public int countComponents(Graph<String, String> graph,
+			String filepath) throws IOException, Error {
+		if (!(new File(filepath)).isFile())
+			return analyzeComponents(graph, filepath).getCount();
+		
+		BufferedReader br = new BufferedReader(new FileReader(filepath));
+		String data = br.readLine();
+		if (data == null || !data.equals(myHeader)) {
+			br.close();
+			throw new Error("WCC Import Doesn't Match Header: " + myHeader);
+		}
+		int count = 0;
+		while ((data = br.readLine()) != null) {
+			if (!data.isEmpty())
+				count++;
+		}
+		br.close();
+		return count;
 	}
 
 	@Override
@@ -0,0 +1,434 @@
+package GraphCreation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.UndirectedSparseGraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+/**
+ * Imports and exports graphs as a binary snapshot of their CompactGraph, so a graph can be reloaded without parsing.
+ * The file is mapped a window at a time and the arrays are copied out of the windows in bulk, so snapshots past the 2GB
+ * a single MappedByteBuffer can hold are read back too. Unlike the Pajek files of the BasicGraph, the vertex and edge
+ * labels are kept exactly.
+ *
+ * The layout of the file is, all little-endian:
+ *    -Header: magic, version, edge type, vertex count, edge count, flags (ints) and the size of the label bytes (long)
+ *    -Vertex labels: an int offset for each label into the UTF-8 bytes that follow, padded to 4 bytes
+ *    -Edges: the source ids, then the target ids, in edge id order
+ *    -Adjacency: the out offsets, then the out neighbors/edges if UNDIRECTED or the in offsets/neighbors/edges if DIRECTED
+ *    -Edge labels: only if the labels aren't the "source-dest" ones, stored like the vertex labels
+ *
+ * Files that don't start with the magic number are read as the BasicGraph (Pajek) files they used to be
+ * @author MOREPOWER
+ *
+ */
+public class BinaryGraph extends ImportedGraph {
+
+	// "JGCS" and the version of the layout above
+	static final int MAGIC = 0x4A474353;
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 32;
+	static final int FLAG_EDGE_LABELS = 1;
+	// The most of the file that's mapped at once
+	static final long MAP_WINDOW = 1L << 30;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	public BinaryGraph(String path) {
+		super(path);
+	}
+
+	/**
+	 * Checks the start of the file for the magic number
+	 * @param path
+	 * @return true if the file is a binary snapshot
+	 * @throws IOException
+	 */
+	public static boolean isSnapshot(String path) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(path, "r");
+		try {
+			if (file.length() < HEADER_BYTES)
+				return false;
+			ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+			file.getChannel().read(header, 0);
+			return header.getInt(0) == MAGIC;
+		} finally {
+			file.close();
+		}
+	}
+
+	@Override
+	// Copies the snapshot into a normal, editable JUNG graph
+	public Graph<String, String> loadGraph() throws Error, IOException {
+		CompactGraph compact = loadCompactGraph();
+		Graph<String, String> graph;
+		if (compact.isDirected())
+			graph = new DirectedSparseGraph<String, String>();
+		else
+			graph = new UndirectedSparseGraph<String, String>();
+		for (int v = 0; v < compact.getVertexCount(); v++)
+			graph.addVertex(compact.getLabel(v));
+		for (int e = 0; e < compact.getEdgeCount(); e++)
+			graph.addEdge(compact.getEdgeLabel(e), compact.getLabel(compact.getEdgeSource(e)), compact.getLabel(compact.getEdgeTarget(e)));
+		return graph;
+	}
+
+	@Override
+	public CompactGraph loadCompactGraph() throws Error, IOException {
+		if (!isSnapshot(this.path))
+			return new BasicGraph(this.path).loadCompactGraph();
+
+		RandomAccessFile file = new RandomAccessFile(this.path, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			long size = channel.size();
+			ChannelReader buffer = new ChannelReader(channel, MAP_WINDOW);
+
+			// Header
+			buffer.getInt();
+			int version = buffer.getInt();
+			if (version != VERSION)
+				throw new Error("Snapshot version " + version + " is not handled, expected " + VERSION + ": " + this.path);
+			EdgeType type;
+			int typeId = buffer.getInt();
+			if (typeId == 0)
+				type = EdgeType.DIRECTED;
+			else if (typeId == 1)
+				type = EdgeType.UNDIRECTED;
+			else
+				throw new Error("Unrecognized edge type in snapshot: " + typeId);
+			int n = buffer.getInt();
+			int m = buffer.getInt();
+			int flags = buffer.getInt();
+			long labelBytes = buffer.getLong();
+			if (n < 0 || m < 0 || labelBytes < 0 || labelBytes > size)
+				throw new Error("Snapshot header is corrupt: " + this.path);
+
+			try {
+				LabelDictionary vertices = new LabelDictionary(readLabels(buffer, n, (int)labelBytes));
+				int[] edgeSource = readInts(buffer, m);
+				int[] edgeTarget = readInts(buffer, m);
+				int[] outOffsets = readInts(buffer, n + 1);
+				int[] outNeighbors, outEdges, inOffsets, inNeighbors, inEdges;
+				if (type == EdgeType.DIRECTED) {
+					// The out-adjacency of a directed CompactGraph is the edge list itself
+					outNeighbors = edgeTarget;
+					outEdges = new int[m];
+					for (int e = 0; e < m; e++)
+						outEdges[e] = e;
+					inOffsets = readInts(buffer, n + 1);
+					inNeighbors = readInts(buffer, m);
+					inEdges = readInts(buffer, m);
+				} else {
+					outNeighbors = readInts(buffer, outOffsets[n]);
+					outEdges = readInts(buffer, outOffsets[n]);
+					inOffsets = outOffsets;
+					inNeighbors = outNeighbors;
+					inEdges = outEdges;
+				}
+				String[] edgeLabels = null;
+				if ((flags & FLAG_EDGE_LABELS) != 0) {
+					long edgeLabelBytes = buffer.getLong();
+					if (edgeLabelBytes < 0 || edgeLabelBytes > size)
+						throw new Error("Snapshot edge labels are corrupt: " + this.path);
+					edgeLabels = readLabels(buffer, m, (int)edgeLabelBytes);
+				}
+				if (buffer.hasRemaining())
+					throw new Error("Snapshot has trailing data: " + this.path);
+
+				return new CompactGraph(type, vertices, edgeSource, edgeTarget, edgeLabels,
+						outOffsets, outNeighbors, outEdges, inOffsets, inNeighbors, inEdges);
+			} catch (BufferUnderflowException e) {
+				throw new Error("Snapshot is truncated: " + this.path);
+			} catch (IllegalArgumentException e) {
+				throw new Error("Snapshot is truncated: " + this.path);
+			}
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Bulk copies ints out of the file, moving its position past them
+	 */
+	private static int[] readInts(ChannelReader buffer, int count) throws IOException {
+		return buffer.getInts(count);
+	}
+
+	/**
+	 * Reads count labels stored as offsets followed by their UTF-8 bytes
+	 */
+	private static String[] readLabels(ChannelReader buffer, int count, int byteLength) throws IOException {
+		int[] offsets = readInts(buffer, count + 1);
+		byte[] bytes = buffer.getBytes(byteLength);
+		buffer.getBytes(padding(byteLength));
+		String[] labels = new String[count];
+		for (int i = 0; i < count; i++)
+			labels[i] = new String(bytes, offsets[i], offsets[i + 1] - offsets[i], UTF8);
+		return labels;
+	}
+
+	private static int padding(long byteLength) {
+		return (int)((4 - (byteLength & 3)) & 3);
+	}
+
+	/**
+	 * Exports the graph as a binary snapshot. A JUNG graph is copied into a CompactGraph first,
+	 * unless it's already the view of one
+	 * @param graph
+	 * @param path
+	 * @throws IOException
+	 */
+	public static void exportGraph(Graph<String, String> graph, String path) throws IOException {
+		exportGraph(CompactGraph.of(graph), path);
+	}
+
+	/**
+	 * Exports the CompactGraph as a binary snapshot. The file is written next to the path and then moved over it,
+	 * so a partly written snapshot is never picked up
+	 * @param graph
+	 * @param path
+	 * @throws IOException
+	 */
+	public static void exportGraph(CompactGraph graph, String path) throws IOException {
+		int n = graph.getVertexCount();
+		int m = graph.getEdgeCount();
+
+		byte[][] vertexLabels = new byte[n][];
+		long labelBytes = 0;
+		for (int v = 0; v < n; v++) {
+			vertexLabels[v] = graph.getLabel(v).getBytes(UTF8);
+			labelBytes += vertexLabels[v].length;
+		}
+
+		// Only keep the edge labels if they can't be generated again
+		byte[][] edgeLabels = null;
+		long edgeLabelBytes = 0;
+		if (graph.hasEdgeLabels()) {
+			for (int e = 0; e < m; e++) {
+				String generated = graph.getLabel(graph.getEdgeSource(e)) + "-" + graph.getLabel(graph.getEdgeTarget(e));
+				if (!generated.equals(graph.getEdgeLabel(e))) {
+					edgeLabels = new byte[m][];
+					break;
+				}
+			}
+			if (edgeLabels != null) {
+				for (int e = 0; e < m; e++) {
+					edgeLabels[e] = graph.getEdgeLabel(e).getBytes(UTF8);
+					edgeLabelBytes += edgeLabels[e].length;
+				}
+			}
+		}
+		if (labelBytes > Integer.MAX_VALUE || edgeLabelBytes > Integer.MAX_VALUE)
+			throw new Error("Labels are too large for a snapshot");
+
+		File target = new File(path);
+		File temp = new File(path + ".tmp");
+		RandomAccessFile file = new RandomAccessFile(temp, "rw");
+		try {
+			file.setLength(0);
+			ChannelWriter writer = new ChannelWriter(file.getChannel());
+
+			writer.putInt(MAGIC);
+			writer.putInt(VERSION);
+			writer.putInt(graph.isDirected() ? 0 : 1);
+			writer.putInt(n);
+			writer.putInt(m);
+			writer.putInt(edgeLabels == null ? 0 : FLAG_EDGE_LABELS);
+			writer.putLong(labelBytes);
+
+			writer.putLabels(vertexLabels);
+
+			for (int e = 0; e < m; e++)
+				writer.putInt(graph.getEdgeSource(e));
+			for (int e = 0; e < m; e++)
+				writer.putInt(graph.getEdgeTarget(e));
+
+			writer.putInts(graph.getOutOffsets(), n + 1);
+			if (graph.isDirected()) {
+				writer.putInts(graph.getInOffsets(), n + 1);
+				writer.putInts(graph.getInNeighbors(), m);
+				writer.putInts(graph.getInEdges(), m);
+			} else {
+				writer.putInts(graph.getOutNeighbors(), graph.getOutOffsets()[n]);
+				writer.putInts(graph.getOutEdges(), graph.getOutOffsets()[n]);
+			}
+
+			if (edgeLabels != null) {
+				writer.putLong(edgeLabelBytes);
+				writer.putLabels(edgeLabels);
+			}
+			writer.flush();
+			file.getChannel().force(false);
+		} finally {
+			file.close();
+		}
+
+		if (target.exists() && !target.delete())
+			throw new Error("Snapshot could not replace: " + path);
+		if (!temp.renameTo(target))
+			throw new Error("Snapshot could not be moved to: " + path);
+	}
+
+	/**
+	 * Reads little-endian values through a mapped window of the channel, mapping the next window whenever a read runs past
+	 * the end of the current one. A value is never split, since the next window starts where the read does
+	 */
+	private static class ChannelReader {
+		private final FileChannel channel;
+		private final long size;
+		private final long window;
+		private MappedByteBuffer buffer;
+		// The position in the file of the start of the window
+		private long start;
+
+		ChannelReader(FileChannel channel, long window) throws IOException {
+			this.channel = channel;
+			this.size = channel.size();
+			this.window = window;
+			map(0);
+		}
+
+		private void map(long position) throws IOException {
+			start = position;
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(window, size - position));
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		/**
+		 * Maps the next window if the current one has less than the bytes left
+		 * @throws BufferUnderflowException - if the file doesn't have the bytes left
+		 */
+		private void ensure(int bytes) throws IOException {
+			if (buffer.remaining() >= bytes)
+				return;
+			map(start + buffer.position());
+			if (buffer.remaining() < bytes)
+				throw new BufferUnderflowException();
+		}
+
+		int getInt() throws IOException {
+			ensure(4);
+			return buffer.getInt();
+		}
+
+		long getLong() throws IOException {
+			ensure(8);
+			return buffer.getLong();
+		}
+
+		int[] getInts(int count) throws IOException {
+			int[] values = new int[count];
+			int pos = 0;
+			while (pos < count) {
+				ensure(4);
+				int chunk = Math.min(count - pos, buffer.remaining() / 4);
+				buffer.asIntBuffer().get(values, pos, chunk);
+				buffer.position(buffer.position() + chunk * 4);
+				pos += chunk;
+			}
+			return values;
+		}
+
+		byte[] getBytes(int length) throws IOException {
+			byte[] values = new byte[length];
+			int pos = 0;
+			while (pos < length) {
+				ensure(1);
+				int chunk = Math.min(length - pos, buffer.remaining());
+				buffer.get(values, pos, chunk);
+				pos += chunk;
+			}
+			return values;
+		}
+
+		boolean hasRemaining() {
+			return start + buffer.position() < size;
+		}
+	}
+
+	/**
+	 * Buffers little-endian values and writes them to the channel whenever the buffer fills
+	 */
+	private static class ChannelWriter {
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+		ChannelWriter(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		void putInt(int value) throws IOException {
+			if (buffer.remaining() < 4)
+				flush();
+			buffer.putInt(value);
+		}
+
+		void putLong(long value) throws IOException {
+			if (buffer.remaining() < 8)
+				flush();
+			buffer.putLong(value);
+		}
+
+		void putInts(int[] values, int length) throws IOException {
+			int pos = 0;
+			while (pos < length) {
+				if (buffer.remaining() < 4)
+					flush();
+				int count = Math.min(length - pos, buffer.remaining() / 4);
+				buffer.asIntBuffer().put(values, pos, count);
+				buffer.position(buffer.position() + count * 4);
+				pos += count;
+			}
+		}
+
+		void putBytes(byte[] values) throws IOException {
+			int pos = 0;
+			while (pos < values.length) {
+				if (!buffer.hasRemaining())
+					flush();
+				int count = Math.min(values.length - pos, buffer.remaining());
+				buffer.put(values, pos, count);
+				pos += count;
+			}
+		}
+
+		/**
+		 * Writes the offsets of the labels, then their bytes padded to 4 bytes
+		 */
+		void putLabels(byte[][] labels) throws IOException {
+			int offset = 0;
+			putInt(0);
+			for (byte[] label : labels) {
+				offset += label.length;
+				putInt(offset);
+			}
+			for (byte[] label : labels)
+				putBytes(label);
+			for (int i = padding(offset); i > 0; i--)
+				putBytes(new byte[1]);
+		}
+
+		void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+			buffer.clear();
+		}
+	}
+
+	@Override
+	public String getInformation() {
+		return "Binary Graph located at: " + this.path + "\n";
+	}
+}
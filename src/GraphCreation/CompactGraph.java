@@ -0,0 +1,380 @@
+package GraphCreation;
+
+import java.util.Arrays;
+
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+import edu.uci.ics.jung.graph.util.Pair;
+
+/**
+ * Immutable graph that stores vertices as dense int ids and the adjacency in compressed-sparse-row (CSR) arrays.
+ * The neighbors of vertex v are outNeighbors[outOffsets[v]] through outNeighbors[outOffsets[v+1]-1], sorted by id,
+ * with the id of the matching edge at the same position of outEdges. The in-adjacency is stored the same way.
+ * For UNDIRECTED graphs the adjacency is symmetric and the in-arrays are the out-arrays.
+ *
+ * Like the JUNG SparseGraphs this is built from, parallel edges are dropped (the first one is kept).
+ * Edge labels are either kept from the graph it was copied from, or produced as "source-dest" when asked for.
+ * Use asGraph() to get a read-only Graph<String, String> view for anything that needs the JUNG interface.
+ * @author MOREPOWER
+ *
+ */
+public class CompactGraph {
+
+	protected final EdgeType edgeType;
+	protected final LabelDictionary vertices;
+	protected final int vertexCount, edgeCount;
+
+	// Endpoints of every edge, indexed by edge id, in the order they were given
+	protected final int[] edgeSource, edgeTarget;
+
+	// CSR adjacency
+	protected final int[] outOffsets, outNeighbors, outEdges;
+	protected final int[] inOffsets, inNeighbors, inEdges;
+
+	// Labels of the edges, null if they're generated from the vertex labels
+	protected final String[] edgeLabels;
+	// Reverse lookup for the edge labels, only built when it's needed
+	private volatile LabelDictionary edgeDictionary;
+
+	// The JUNG view of the graph
+	private CompactGraphAdapter adapter;
+
+	/**
+	 * Builds the graph from an edge list of vertex ids. The arrays aren't kept, so they can be reused
+	 * @param type - DIRECTED or UNDIRECTED
+	 * @param vertices - the dictionary of the vertices, ids of the edges must come from this
+	 * @param sources - the source id of every edge
+	 * @param targets - the target id of every edge
+	 * @param length - the amount of edges in the arrays that are used
+	 */
+	public CompactGraph(EdgeType type, LabelDictionary vertices, int[] sources, int[] targets, int length) {
+		this(type, vertices, sources, targets, null, length);
+	}
+
+	/**
+	 * Builds the graph from an edge list of vertex ids, keeping a label for each edge
+	 * @param type - DIRECTED or UNDIRECTED
+	 * @param vertices - the dictionary of the vertices, ids of the edges must come from this
+	 * @param sources - the source id of every edge
+	 * @param targets - the target id of every edge
+	 * @param labels - the label of every edge, or null to generate "source-dest" labels
+	 * @param length - the amount of edges in the arrays that are used
+	 */
+	public CompactGraph(EdgeType type, LabelDictionary vertices, int[] sources, int[] targets, String[] labels, int length) {
+		if (type != EdgeType.DIRECTED && type != EdgeType.UNDIRECTED)
+			throw new Error("Unrecognized Edge Type");
+		if (sources.length < length || targets.length < length || (labels != null && labels.length < length))
+			throw new Error("Edge arrays are shorter than the length given: " + length);
+
+		this.edgeType = type;
+		this.vertices = vertices;
+		this.vertexCount = vertices.size();
+		final int n = vertexCount;
+		final boolean directed = (type == EdgeType.DIRECTED);
+
+		// Bucket the edges by their (canonical) source, key = target << 32 | input position
+		int[] rowStart = new int[n + 1];
+		for (int i = 0; i < length; i++) {
+			int s = sources[i], t = targets[i];
+			if (s < 0 || s >= n || t < 0 || t >= n)
+				throw new Error("Edge " + i + " has an endpoint outside of the dictionary: " + s + "," + t);
+			rowStart[(directed ? s : Math.min(s, t)) + 1]++;
+		}
+		for (int v = 0; v < n; v++)
+			rowStart[v + 1] += rowStart[v];
+		long[] keys = new long[length];
+		int[] fill = Arrays.copyOf(rowStart, n);
+		for (int i = 0; i < length; i++) {
+			int s = sources[i], t = targets[i];
+			if (!directed && s > t) {
+				int temp = s; s = t; t = temp;
+			}
+			keys[fill[s]++] = ((long)t << 32) | i;
+		}
+		fill = null;
+
+		// Sort every row by target then input position, keeping the first of any parallel edges
+		int unique = 0;
+		int[] uniqueStart = new int[n + 1];
+		for (int v = 0; v < n; v++) {
+			uniqueStart[v] = unique;
+			Arrays.sort(keys, rowStart[v], rowStart[v + 1]);
+			int lastTarget = -1;
+			for (int k = rowStart[v]; k < rowStart[v + 1]; k++) {
+				int t = (int)(keys[k] >>> 32);
+				if (t != lastTarget) {
+					keys[unique++] = keys[k];
+					lastTarget = t;
+				}
+			}
+		}
+		uniqueStart[n] = unique;
+		rowStart = null;
+
+		// Edge ids are given in (source, target) order, by the smaller end first for UNDIRECTED edges
+		edgeCount = unique;
+		edgeSource = new int[edgeCount];
+		edgeTarget = new int[edgeCount];
+		edgeLabels = (labels == null) ? null : new String[edgeCount];
+		for (int e = 0; e < edgeCount; e++) {
+			int i = (int)keys[e];
+			edgeSource[e] = sources[i];
+			edgeTarget[e] = targets[i];
+			if (labels != null)
+				edgeLabels[e] = labels[i];
+		}
+		keys = null;
+
+		if (directed) {
+			// The out-adjacency is the edge list itself
+			outOffsets = uniqueStart;
+			outNeighbors = edgeTarget;
+			outEdges = new int[edgeCount];
+			for (int e = 0; e < edgeCount; e++)
+				outEdges[e] = e;
+
+			// Walking the edges in order leaves every in-row sorted by source
+			inOffsets = new int[n + 1];
+			for (int e = 0; e < edgeCount; e++)
+				inOffsets[edgeTarget[e] + 1]++;
+			for (int v = 0; v < n; v++)
+				inOffsets[v + 1] += inOffsets[v];
+			inNeighbors = new int[edgeCount];
+			inEdges = new int[edgeCount];
+			int[] inFill = Arrays.copyOf(inOffsets, n);
+			for (int e = 0; e < edgeCount; e++) {
+				int pos = inFill[edgeTarget[e]]++;
+				inNeighbors[pos] = edgeSource[e];
+				inEdges[pos] = e;
+			}
+		} else {
+			// Every edge shows up on both of its ends, self-loops only once
+			outOffsets = new int[n + 1];
+			for (int e = 0; e < edgeCount; e++) {
+				outOffsets[edgeSource[e] + 1]++;
+				if (edgeSource[e] != edgeTarget[e])
+					outOffsets[edgeTarget[e] + 1]++;
+			}
+			for (int v = 0; v < n; v++)
+				outOffsets[v + 1] += outOffsets[v];
+			outNeighbors = new int[outOffsets[n]];
+			outEdges = new int[outOffsets[n]];
+			// Edges are in order of their smaller end, so rows fill with the smaller neighbors first, then the larger ones
+			int[] outFill = Arrays.copyOf(outOffsets, n);
+			for (int e = 0; e < edgeCount; e++) {
+				int s = Math.min(edgeSource[e], edgeTarget[e]), t = Math.max(edgeSource[e], edgeTarget[e]);
+				int pos = outFill[s]++;
+				outNeighbors[pos] = t;
+				outEdges[pos] = e;
+				if (s != t) {
+					pos = outFill[t]++;
+					outNeighbors[pos] = s;
+					outEdges[pos] = e;
+				}
+			}
+			inOffsets = outOffsets;
+			inNeighbors = outNeighbors;
+			inEdges = outEdges;
+		}
+	}
+
+	/**
+	 * Wraps arrays that are already in the CSR layout, as when the graph is read back from a BinaryGraph snapshot.
+	 * Nothing is checked or copied, so the arrays must be exactly what the other constructor would have made
+	 */
+	CompactGraph(EdgeType type, LabelDictionary vertices, int[] edgeSource, int[] edgeTarget, String[] edgeLabels,
+			int[] outOffsets, int[] outNeighbors, int[] outEdges, int[] inOffsets, int[] inNeighbors, int[] inEdges) {
+		this.edgeType = type;
+		this.vertices = vertices;
+		this.vertexCount = vertices.size();
+		this.edgeCount = edgeSource.length;
+		this.edgeSource = edgeSource;
+		this.edgeTarget = edgeTarget;
+		this.edgeLabels = edgeLabels;
+		this.outOffsets = outOffsets;
+		this.outNeighbors = outNeighbors;
+		this.outEdges = outEdges;
+		this.inOffsets = inOffsets;
+		this.inNeighbors = inNeighbors;
+		this.inEdges = inEdges;
+	}
+
+	/**
+	 * Creates a CompactGraph with the same vertices and edges (including their labels) as a JUNG graph.
+	 * If the graph is already a view of a CompactGraph, that one is returned without copying.
+	 * @param graph - a DIRECTED or UNDIRECTED graph
+	 * @return the compact version of the graph
+	 */
+	public static CompactGraph of(Graph<String, String> graph) {
+		if (graph instanceof CompactGraphAdapter)
+			return ((CompactGraphAdapter)graph).getCompactGraph();
+
+		LabelDictionary dictionary = new LabelDictionary(graph.getVertexCount());
+		for (String vertex : graph.getVertices())
+			dictionary.intern(vertex);
+
+		int m = graph.getEdgeCount();
+		int[] sources = new int[m];
+		int[] targets = new int[m];
+		String[] labels = new String[m];
+		int i = 0;
+		for (String edge : graph.getEdges()) {
+			Pair<String> endpoints = graph.getEndpoints(edge);
+			sources[i] = dictionary.getId(endpoints.getFirst());
+			targets[i] = dictionary.getId(endpoints.getSecond());
+			labels[i] = edge;
+			i++;
+		}
+		return new CompactGraph(graph.getDefaultEdgeType(), dictionary, sources, targets, labels, i);
+	}
+
+	/**
+	 * @return a read-only JUNG view of this graph
+	 */
+	public synchronized Graph<String, String> asGraph() {
+		if (adapter == null)
+			adapter = isDirected() ? new CompactGraphAdapter.Directed(this) : new CompactGraphAdapter.Undirected(this);
+		return adapter;
+	}
+
+	public EdgeType getEdgeType() {
+		return edgeType;
+	}
+
+	public boolean isDirected() {
+		return edgeType == EdgeType.DIRECTED;
+	}
+
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+	public LabelDictionary getDictionary() {
+		return vertices;
+	}
+
+	public String getLabel(int vertex) {
+		return vertices.getLabel(vertex);
+	}
+
+	/**
+	 * @param label
+	 * @return the id of the vertex, or -1 if it isn't in the graph
+	 */
+	public int getId(String label) {
+		return vertices.getId(label);
+	}
+
+	public int outDegree(int vertex) {
+		return outOffsets[vertex + 1] - outOffsets[vertex];
+	}
+
+	public int inDegree(int vertex) {
+		return inOffsets[vertex + 1] - inOffsets[vertex];
+	}
+
+	/** The arrays below are the internal storage and must not be modified **/
+
+	public int[] getOutOffsets() {
+		return outOffsets;
+	}
+
+	public int[] getOutNeighbors() {
+		return outNeighbors;
+	}
+
+	public int[] getOutEdges() {
+		return outEdges;
+	}
+
+	public int[] getInOffsets() {
+		return inOffsets;
+	}
+
+	public int[] getInNeighbors() {
+		return inNeighbors;
+	}
+
+	public int[] getInEdges() {
+		return inEdges;
+	}
+
+	public int getEdgeSource(int edge) {
+		return edgeSource[edge];
+	}
+
+	public int getEdgeTarget(int edge) {
+		return edgeTarget[edge];
+	}
+
+	/**
+	 * Finds the edge going from source to target, either way round for UNDIRECTED graphs
+	 * @param source
+	 * @param target
+	 * @return the edge id, or -1 if there is none
+	 */
+	public int findEdge(int source, int target) {
+		int pos = Arrays.binarySearch(outNeighbors, outOffsets[source], outOffsets[source + 1], target);
+		return (pos < 0) ? -1 : outEdges[pos];
+	}
+
+	/**
+	 * @return true if the edge labels were given, false if they're generated as "source-dest"
+	 */
+	public boolean hasEdgeLabels() {
+		return edgeLabels != null;
+	}
+
+	/**
+	 * @param edge
+	 * @return the label of the edge, generated as "source-dest" if no labels were given
+	 */
+	public String getEdgeLabel(int edge) {
+		if (edgeLabels != null)
+			return edgeLabels[edge];
+		return vertices.getLabel(edgeSource[edge]) + "-" + vertices.getLabel(edgeTarget[edge]);
+	}
+
+	/**
+	 * Looks up an edge by its label
+	 * @param label
+	 * @return the edge id, or -1 if there is none
+	 */
+	public int findEdge(String label) {
+		if (label == null)
+			return -1;
+
+		if (edgeLabels != null) {
+			LabelDictionary dictionary = edgeDictionary;
+			if (dictionary == null) {
+				synchronized (this) {
+					if ((dictionary = edgeDictionary) == null) {
+						dictionary = new LabelDictionary(edgeCount);
+						for (int edge = 0; edge < edgeCount; edge++) {
+							if (dictionary.intern(edgeLabels[edge]) != edge)
+								throw new Error("Edge label is used more than once: " + edgeLabels[edge]);
+						}
+						edgeDictionary = dictionary;
+					}
+				}
+			}
+			return dictionary.getId(label);
+		}
+
+		// Generated labels: try every split on "-" since the vertex labels may contain it too
+		for (int split = label.indexOf('-'); split != -1; split = label.indexOf('-', split + 1)) {
+			int source = vertices.getId(label.substring(0, split));
+			int target = vertices.getId(label.substring(split + 1));
+			if (source == -1 || target == -1)
+				continue;
+			int edge = findEdge(source, target);
+			if (edge != -1 && edgeSource[edge] == source)
+				return edge;
+		}
+		return -1;
+	}
+}
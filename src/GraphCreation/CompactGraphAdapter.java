@@ -0,0 +1,414 @@
+package GraphCreation;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import edu.uci.ics.jung.graph.AbstractTypedGraph;
+import edu.uci.ics.jung.graph.DirectedGraph;
+import edu.uci.ics.jung.graph.UndirectedGraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+import edu.uci.ics.jung.graph.util.Pair;
+
+/**
+ * Read-only Graph<String, String> view of a CompactGraph, so it can be handed to anything written against JUNG.
+ * It behaves like the Directed/UndirectedSparseGraph it replaces, except that all of the changing functions throw
+ * an UnsupportedOperationException. Collections are views over the CSR arrays, so they cost no copying.
+ * @author MOREPOWER
+ *
+ */
+public abstract class CompactGraphAdapter extends AbstractTypedGraph<String, String> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final CompactGraph graph;
+
+	/**
+	 * Use CompactGraph.asGraph() to get the view of a graph
+	 * @param graph
+	 */
+	CompactGraphAdapter(CompactGraph graph) {
+		super(graph.getEdgeType());
+		this.graph = graph;
+	}
+
+	public CompactGraph getCompactGraph() {
+		return graph;
+	}
+
+	/**
+	 * The view of a DIRECTED graph, so JUNG algorithms that check for DirectedGraph treat it like a DirectedSparseGraph
+	 */
+	static class Directed extends CompactGraphAdapter implements DirectedGraph<String, String> {
+		private static final long serialVersionUID = 1L;
+
+		Directed(CompactGraph graph) {
+			super(graph);
+		}
+	}
+
+	/**
+	 * The view of an UNDIRECTED graph, so JUNG algorithms that check for UndirectedGraph (such as the halving of
+	 * betweenness scores) treat it like an UndirectedSparseGraph
+	 */
+	static class Undirected extends CompactGraphAdapter implements UndirectedGraph<String, String> {
+		private static final long serialVersionUID = 1L;
+
+		Undirected(CompactGraph graph) {
+			super(graph);
+		}
+	}
+
+	/**
+	 * Collection of vertex labels over a slice of an id array, or over all the ids if the array is null
+	 */
+	private class VertexCollection extends AbstractCollection<String> {
+		final int[] ids;
+		final int from, to;
+
+		VertexCollection(int[] ids, int from, int to) {
+			this.ids = ids;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public Iterator<String> iterator() {
+			return new Iterator<String>() {
+				int pos = from;
+				@Override
+				public boolean hasNext() {
+					return pos < to;
+				}
+				@Override
+				public String next() {
+					if (pos >= to)
+						throw new NoSuchElementException();
+					int id = (ids == null) ? pos : ids[pos];
+					pos++;
+					return graph.getLabel(id);
+				}
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException("CompactGraph is read-only");
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return to - from;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (ids == null)
+				return (o instanceof String) && graph.getId((String)o) != -1;
+			return super.contains(o);
+		}
+	}
+
+	/**
+	 * Collection of edge labels over a slice of an edge id array, or over all the ids if the array is null
+	 */
+	private class EdgeCollection extends AbstractCollection<String> {
+		final int[] ids;
+		final int from, to;
+
+		EdgeCollection(int[] ids, int from, int to) {
+			this.ids = ids;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public Iterator<String> iterator() {
+			return new Iterator<String>() {
+				int pos = from;
+				@Override
+				public boolean hasNext() {
+					return pos < to;
+				}
+				@Override
+				public String next() {
+					if (pos >= to)
+						throw new NoSuchElementException();
+					int id = (ids == null) ? pos : ids[pos];
+					pos++;
+					return graph.getEdgeLabel(id);
+				}
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException("CompactGraph is read-only");
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return to - from;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (ids == null)
+				return (o instanceof String) && graph.findEdge((String)o) != -1;
+			return super.contains(o);
+		}
+	}
+
+	/**
+	 * @return the id of the vertex, throwing an error like the other JUNG graphs when it isn't there
+	 */
+	private int checkedId(String vertex) {
+		int id = graph.getId(vertex);
+		if (id == -1)
+			throw new IllegalArgumentException(vertex + " is not an element of this graph");
+		return id;
+	}
+
+	/**
+	 * Merges the in and out neighbors of a directed vertex, both of which are sorted
+	 */
+	private int[] mergedNeighbors(int v) {
+		int[] out = graph.getOutNeighbors(), in = graph.getInNeighbors();
+		int i = graph.getOutOffsets()[v], iEnd = graph.getOutOffsets()[v + 1];
+		int j = graph.getInOffsets()[v], jEnd = graph.getInOffsets()[v + 1];
+		int[] merged = new int[(iEnd - i) + (jEnd - j)];
+		int size = 0;
+		while (i < iEnd || j < jEnd) {
+			int next;
+			if (j >= jEnd || (i < iEnd && out[i] < in[j]))
+				next = out[i++];
+			else if (i >= iEnd || in[j] < out[i])
+				next = in[j++];
+			else {
+				next = out[i++];
+				j++;
+			}
+			merged[size++] = next;
+		}
+		return Arrays.copyOf(merged, size);
+	}
+
+	@Override
+	public Collection<String> getVertices() {
+		return new VertexCollection(null, 0, graph.getVertexCount());
+	}
+
+	@Override
+	public Collection<String> getEdges() {
+		return new EdgeCollection(null, 0, graph.getEdgeCount());
+	}
+
+	@Override
+	public boolean containsVertex(String vertex) {
+		return graph.getId(vertex) != -1;
+	}
+
+	@Override
+	public boolean containsEdge(String edge) {
+		return graph.findEdge(edge) != -1;
+	}
+
+	@Override
+	public int getVertexCount() {
+		return graph.getVertexCount();
+	}
+
+	@Override
+	public int getEdgeCount() {
+		return graph.getEdgeCount();
+	}
+
+	@Override
+	public Collection<String> getSuccessors(String vertex) {
+		int v = graph.getId(vertex);
+		if (v == -1)
+			return null;
+		return new VertexCollection(graph.getOutNeighbors(), graph.getOutOffsets()[v], graph.getOutOffsets()[v + 1]);
+	}
+
+	@Override
+	public Collection<String> getPredecessors(String vertex) {
+		int v = graph.getId(vertex);
+		if (v == -1)
+			return null;
+		return new VertexCollection(graph.getInNeighbors(), graph.getInOffsets()[v], graph.getInOffsets()[v + 1]);
+	}
+
+	@Override
+	public Collection<String> getNeighbors(String vertex) {
+		int v = graph.getId(vertex);
+		if (v == -1)
+			return null;
+		if (!graph.isDirected())
+			return getSuccessors(vertex);
+		int[] merged = mergedNeighbors(v);
+		return new VertexCollection(merged, 0, merged.length);
+	}
+
+	@Override
+	public Collection<String> getOutEdges(String vertex) {
+		int v = graph.getId(vertex);
+		if (v == -1)
+			return null;
+		return new EdgeCollection(graph.getOutEdges(), graph.getOutOffsets()[v], graph.getOutOffsets()[v + 1]);
+	}
+
+	@Override
+	public Collection<String> getInEdges(String vertex) {
+		int v = graph.getId(vertex);
+		if (v == -1)
+			return null;
+		return new EdgeCollection(graph.getInEdges(), graph.getInOffsets()[v], graph.getInOffsets()[v + 1]);
+	}
+
+	@Override
+	public Collection<String> getIncidentEdges(String vertex) {
+		int v = graph.getId(vertex);
+		if (v == -1)
+			return null;
+		if (!graph.isDirected())
+			return getOutEdges(vertex);
+
+		// Out-edges, then the in-edges that aren't a self-loop (those were already counted)
+		int outStart = graph.getOutOffsets()[v], outEnd = graph.getOutOffsets()[v + 1];
+		int inStart = graph.getInOffsets()[v], inEnd = graph.getInOffsets()[v + 1];
+		int[] edges = new int[(outEnd - outStart) + (inEnd - inStart)];
+		int size = 0;
+		for (int p = outStart; p < outEnd; p++)
+			edges[size++] = graph.getOutEdges()[p];
+		for (int p = inStart; p < inEnd; p++) {
+			if (graph.getInNeighbors()[p] != v)
+				edges[size++] = graph.getInEdges()[p];
+		}
+		return new EdgeCollection(edges, 0, size);
+	}
+
+	@Override
+	public int getSuccessorCount(String vertex) {
+		return graph.outDegree(checkedId(vertex));
+	}
+
+	@Override
+	public int getPredecessorCount(String vertex) {
+		return graph.inDegree(checkedId(vertex));
+	}
+
+	@Override
+	public int outDegree(String vertex) {
+		return graph.outDegree(checkedId(vertex));
+	}
+
+	@Override
+	public int inDegree(String vertex) {
+		return graph.inDegree(checkedId(vertex));
+	}
+
+	@Override
+	public int getNeighborCount(String vertex) {
+		int v = checkedId(vertex);
+		return graph.isDirected() ? mergedNeighbors(v).length : graph.outDegree(v);
+	}
+
+	@Override
+	public int degree(String vertex) {
+		return getIncidentEdges(vertex).size();
+	}
+
+	@Override
+	public String getSource(String edge) {
+		if (!graph.isDirected())
+			return null;
+		int e = graph.findEdge(edge);
+		return (e == -1) ? null : graph.getLabel(graph.getEdgeSource(e));
+	}
+
+	@Override
+	public String getDest(String edge) {
+		if (!graph.isDirected())
+			return null;
+		int e = graph.findEdge(edge);
+		return (e == -1) ? null : graph.getLabel(graph.getEdgeTarget(e));
+	}
+
+	@Override
+	public boolean isSource(String vertex, String edge) {
+		String source = getSource(edge);
+		return source != null && source.equals(vertex);
+	}
+
+	@Override
+	public boolean isDest(String vertex, String edge) {
+		String dest = getDest(edge);
+		return dest != null && dest.equals(vertex);
+	}
+
+	@Override
+	public Pair<String> getEndpoints(String edge) {
+		int e = graph.findEdge(edge);
+		if (e == -1)
+			return null;
+		return new Pair<String>(graph.getLabel(graph.getEdgeSource(e)), graph.getLabel(graph.getEdgeTarget(e)));
+	}
+
+	@Override
+	public String findEdge(String v1, String v2) {
+		int source = graph.getId(v1), target = graph.getId(v2);
+		if (source == -1 || target == -1)
+			return null;
+		int e = graph.findEdge(source, target);
+		return (e == -1) ? null : graph.getEdgeLabel(e);
+	}
+
+	@Override
+	public Collection<String> findEdgeSet(String v1, String v2) {
+		int source = checkedId(v1), target = checkedId(v2);
+		ArrayList<String> edges = new ArrayList<String>(1);
+		int e = graph.findEdge(source, target);
+		if (e != -1)
+			edges.add(graph.getEdgeLabel(e));
+		return edges;
+	}
+
+	@Override
+	public boolean isSuccessor(String v1, String v2) {
+		return findEdge(v2, v1) != null;
+	}
+
+	@Override
+	public boolean isPredecessor(String v1, String v2) {
+		return findEdge(v1, v2) != null;
+	}
+
+	@Override
+	public boolean isNeighbor(String v1, String v2) {
+		return findEdge(v1, v2) != null || findEdge(v2, v1) != null;
+	}
+
+	/** The graph can't be changed **/
+
+	@Override
+	public boolean addVertex(String vertex) {
+		throw new UnsupportedOperationException("CompactGraph is read-only");
+	}
+
+	@Override
+	public boolean addEdge(String edge, Pair<? extends String> endpoints, EdgeType edgeType) {
+		throw new UnsupportedOperationException("CompactGraph is read-only");
+	}
+
+	@Override
+	public boolean removeVertex(String vertex) {
+		throw new UnsupportedOperationException("CompactGraph is read-only");
+	}
+
+	@Override
+	public boolean removeEdge(String edge) {
+		throw new UnsupportedOperationException("CompactGraph is read-only");
+	}
+}
@@ -0,0 +1,123 @@
+package GraphCreation;
+
+import java.util.Arrays;
+
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+/**
+ * Collects an edge list for the importers. Vertex labels are interned into a LabelDictionary the first time they're seen
+ * and every edge after that is only a (source, dest) pair of int ids. Edge labels ("source-dest") are only made
+ * when the edges are put into a JUNG graph.
+ * @author MOREPOWER
+ *
+ */
+public class EdgeListBuilder {
+
+	protected final LabelDictionary dictionary;
+	protected int[] sources, targets;
+	protected int size;
+
+	public EdgeListBuilder() {
+		this(1024);
+	}
+
+	/**
+	 * Constructor that sizes the builder up front
+	 * @param expectedEdges - the amount of edges expected to be added
+	 */
+	public EdgeListBuilder(int expectedEdges) {
+		dictionary = new LabelDictionary(Math.max(16, expectedEdges / 4));
+		sources = new int[Math.max(16, expectedEdges)];
+		targets = new int[sources.length];
+		size = 0;
+	}
+
+	/**
+	 * Takes over an edge list that was already built, as by the ParallelEdgeListParser
+	 * @param dictionary - the dictionary the ids come from
+	 * @param sources
+	 * @param targets
+	 * @param size - the amount of edges in the arrays
+	 */
+	EdgeListBuilder(LabelDictionary dictionary, int[] sources, int[] targets, int size) {
+		this.dictionary = dictionary;
+		this.sources = (sources.length == 0) ? new int[16] : sources;
+		this.targets = (targets.length == 0) ? new int[16] : targets;
+		this.size = size;
+	}
+
+	/**
+	 * Adds a vertex without any edges
+	 * @param label
+	 * @return the id of the vertex
+	 */
+	public int addVertex(String label) {
+		return dictionary.intern(label);
+	}
+
+	/**
+	 * Adds an edge, adding its vertices if they're new
+	 * @param source
+	 * @param dest
+	 */
+	public void addEdge(String source, String dest) {
+		addEdge(dictionary.intern(source), dictionary.intern(dest));
+	}
+
+	/**
+	 * Adds an edge between two vertex ids from getDictionary()
+	 * @param source
+	 * @param dest
+	 */
+	public void addEdge(int source, int dest) {
+		if (size == sources.length) {
+			sources = Arrays.copyOf(sources, size * 2);
+			targets = Arrays.copyOf(targets, size * 2);
+		}
+		sources[size] = source;
+		targets[size] = dest;
+		size++;
+	}
+
+	public LabelDictionary getDictionary() {
+		return dictionary;
+	}
+
+	public int getVertexCount() {
+		return dictionary.size();
+	}
+
+	/**
+	 * @return the amount of edges added, including any duplicates
+	 */
+	public int getEdgeCount() {
+		return size;
+	}
+
+	/**
+	 * Creates the CompactGraph of the edges. Duplicate edges are dropped
+	 * @param type - DIRECTED or UNDIRECTED
+	 * @return the graph
+	 */
+	public CompactGraph build(EdgeType type) {
+		return new CompactGraph(type, dictionary, sources, targets, size);
+	}
+
+	/**
+	 * Adds all of the vertices and edges to a JUNG graph, labeling the edges "source-dest".
+	 * Like before, edges that are already in the graph are skipped
+	 * @param graph
+	 * @return the graph that was passed in
+	 */
+	public Graph<String, String> addTo(Graph<String, String> graph) {
+		for (int v = 0; v < dictionary.size(); v++)
+			graph.addVertex(dictionary.getLabel(v));
+		for (int i = 0; i < size; i++) {
+			String source = dictionary.getLabel(sources[i]);
+			String dest = dictionary.getLabel(targets[i]);
+			graph.addEdge(source + "-" + dest, source, dest);
+		}
+		return graph;
+	}
+}
@@ -49,16 +49,19 @@ public class FriendsTwitterDataImporter extends ImportedGraph {
 	}
 	
 	/**
-	 * Function to load the graph from a twitter file. Note, this will add edges/vertexes if not already there in a predisposed graph
+	 * Reads the follower edges of the file into an EdgeListBuilder, so each user is only kept once
+	 * @return the edges of the file
+	 * @throws IOException
+	 * @throws Error - if the header or a line is incorrectly formatted
 	 */
-	@Override
-	public Graph<String, String> loadGraph() throws IOException, Error {
+	protected EdgeListBuilder readEdges() throws IOException, Error {
 		BufferedReader br = new BufferedReader(new FileReader(this.path));
 		String header = br.readLine();
 		if (header.equals(myHeader) == false) {
 			br.close();
 			throw new Error("Header is not correct. It's \"" + header + "\" Instead of " + myHeader);
 		}
+		EdgeListBuilder edges = new EdgeListBuilder();
 		String data;
 		while((data = br.readLine()) != null) {
 			// Import in "user, userID, follower, followerID"
@@ -68,17 +71,30 @@ public class FriendsTwitterDataImporter extends ImportedGraph {
 				br.close();
 				throw new Error("Data Split was incorrectly formatted: " + data);
 			}
-			// Clean the pulled out values
-			String source = items[0].trim();
-			String sourceID = items[1].trim();
-			String dest = items[2].trim();
-			String destID = items[3].trim();
-			
-			// Add the edges (and vertexes). Don't cover false case, duplication of edges can cause that. Undirected Graphs may be a problem
-			graph.addEdge(sourceID + "-" + destID, source, dest);
+			// Add the cleaned user and follower, the edge is only stored as the pair of ids
+			edges.addEdge(items[0].trim(), items[2].trim());
 		}
 		br.close();
-		return graph;
+		return edges;
+	}
+
+	/**
+	 * Function to load the graph from a twitter file. Note, this will add edges/vertexes if not already there in a predisposed graph
+	 */
+	@Override
+	public Graph<String, String> loadGraph() throws IOException, Error {
+		// Add the edges (and vertexes). Duplicate edges are skipped. Undirected Graphs may be a problem
+		return readEdges().addTo(graph);
+	}
+
+	/**
+	 * Builds the CompactGraph straight from the file. This only works if the graph to import into was empty
+	 */
+	@Override
+	public CompactGraph loadCompactGraph() throws IOException, Error {
+		if (graph.getVertexCount() != 0)
+			return CompactGraph.of(loadGraph());
+		return readEdges().build(graph.getDefaultEdgeType());
 	}
 	
 	@Override
@@ -44,6 +44,16 @@ public abstract class GraphLoader {
 	 */
 	public abstract Graph<String, String> loadGraph() throws Error, IOException;
 
+	/**
+	 * Function to load in the graph as a CompactGraph. By default this loads the JUNG graph and copies it,
+	 * loaders that can build the compact graph directly should override this
+	 * @return The graph in question
+	 * @throws IOException
+	 */
+	public CompactGraph loadCompactGraph() throws Error, IOException {
+		return CompactGraph.of(loadGraph());
+	}
+
 	/**
 	 * Getter for important information about the graphLoader
 	 * @return a digest of that information
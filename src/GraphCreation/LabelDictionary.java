@@ -0,0 +1,136 @@
+package GraphCreation;
+
+import java.util.Arrays;
+
+/**
+ * Dictionary that interns labels (vertex names) into dense int ids, 0 through size()-1, and back.
+ * Each label is stored once and looked up through an open-addressed table of ids, so no boxed Integers or
+ * map entries are kept per label.
+ * Note: interning is not thread-safe. Once a dictionary is finished it can be read from any number of threads
+ * @author MOREPOWER
+ *
+ */
+public class LabelDictionary {
+
+	// id -> label
+	private String[] labels;
+	private int size;
+
+	// Open-addressed hash table holding (id + 1), so that 0 marks an empty slot
+	private int[] table;
+	private int mask;
+
+	public LabelDictionary() {
+		this(16);
+	}
+
+	/**
+	 * Constructor that sizes the dictionary up front
+	 * @param expectedSize - the amount of labels expected to be interned
+	 */
+	public LabelDictionary(int expectedSize) {
+		labels = new String[Math.max(expectedSize, 16)];
+		int capacity = Integer.highestOneBit(Math.max(labels.length, 8) * 2 - 1) << 1;
+		table = new int[capacity];
+		mask = capacity - 1;
+		size = 0;
+	}
+
+	/**
+	 * Constructor that interns an array of labels, so each label gets its index as its id
+	 * @param labels - the labels, which must all be different
+	 * @throws Error - if a label shows up more than once
+	 */
+	public LabelDictionary(String[] labels) {
+		this(labels.length);
+		for (int i = 0; i < labels.length; i++) {
+			if (intern(labels[i]) != i)
+				throw new Error("Label is in the dictionary more than once: " + labels[i]);
+		}
+	}
+
+	/**
+	 * Spreads the hash so labels that differ only in the upper bits don't collide
+	 */
+	private static int hash(int h) {
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Returns the id of the label, adding it to the dictionary if it isn't there already
+	 * @param label
+	 * @return the id of the label
+	 */
+	public int intern(String label) {
+		int slot = hash(label.hashCode()) & mask;
+		int entry;
+		while ((entry = table[slot]) != 0) {
+			if (labels[entry - 1].equals(label))
+				return entry - 1;
+			slot = (slot + 1) & mask;
+		}
+
+		// The label is new
+		if (size == labels.length)
+			labels = Arrays.copyOf(labels, size * 2);
+		labels[size] = label;
+		table[slot] = ++size;
+
+		// Keep the table at most half full
+		if (size * 2 > table.length)
+			rehash(table.length * 2);
+
+		return size - 1;
+	}
+
+	/**
+	 * Looks up the label without adding it
+	 * @param label
+	 * @return the id of the label, or -1 if it isn't in the dictionary
+	 */
+	public int getId(String label) {
+		if (label == null)
+			return -1;
+		int slot = hash(label.hashCode()) & mask;
+		int entry;
+		while ((entry = table[slot]) != 0) {
+			if (labels[entry - 1].equals(label))
+				return entry - 1;
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	public boolean contains(String label) {
+		return getId(label) != -1;
+	}
+
+	/**
+	 * Getter for the label of an id
+	 * @param id - must be between 0 and size()-1
+	 * @return the label
+	 */
+	public String getLabel(int id) {
+		if (id < 0 || id >= size)
+			throw new IndexOutOfBoundsException("Label id " + id + " is not in the dictionary of size " + size);
+		return labels[id];
+	}
+
+	/**
+	 * @return the amount of labels in the dictionary
+	 */
+	public int size() {
+		return size;
+	}
+
+	private void rehash(int capacity) {
+		table = new int[capacity];
+		mask = capacity - 1;
+		for (int id = 0; id < size; id++) {
+			int slot = hash(labels[id].hashCode()) & mask;
+			while (table[slot] != 0)
+				slot = (slot + 1) & mask;
+			table[slot] = id + 1;
+		}
+	}
+}
@@ -0,0 +1,383 @@
+package GraphCreation;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parses an edge list file (one "A<split>B" edge per line) on multiple threads.
+ * The file is cut into byte ranges that end on a newline and every range is tokenized on its own thread,
+ * straight from the bytes, with its own small dictionary of the labels it has seen. Only the first sighting of a label
+ * in a range makes a String. Then the ranges are merged in file order with a count-then-fill:
+ *    -the labels of every range are interned into one LabelDictionary, giving a remapping of its local ids
+ *    -the edge counts give every range its offset into the shared edge arrays, which the ranges then fill in parallel
+ * Vertex ids, and the order of the edges, come out the same as reading the file line by line.
+ *
+ * Lines are handled like BufferedReader.readLine() followed by String.split(split) and trim(), so only
+ * literal splits are supported. Use canParse() to check for that first.
+ * @author MOREPOWER
+ *
+ */
+public class ParallelEdgeListParser {
+
+	// Ranges are aimed at this size, so there's a few per thread to balance out the work
+	static final int MIN_CHUNK = 1 << 20;
+	static final int MAX_CHUNK = 1 << 26;
+
+	// Charsets where every ASCII byte only ever means that ASCII character
+	private static final String[] byteSafeCharsets = {"UTF-8", "US-ASCII", "ISO-8859-1", "windows-1252"};
+	private static final String regexCharacters = ".$|()[]{}^?*+\\";
+
+	private final String path;
+	private final byte[] split, ignore;
+	private final Charset charset;
+	private final int threads;
+
+	/**
+	 * Constructor for the parser
+	 * @param path - location of the edge list
+	 * @param split - the literal separating the two vertices on a line
+	 * @param ignore - lines starting with this are skipped
+	 * @param threads - the amount of threads to parse with
+	 */
+	public ParallelEdgeListParser(String path, String split, String ignore, int threads) {
+		if (!canParse(split))
+			throw new Error("Split can't be parsed from bytes: " + split);
+		this.path = path;
+		this.charset = Charset.defaultCharset();
+		this.split = split.getBytes(charset);
+		this.ignore = ignore.getBytes(charset);
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Checks whether the split is a plain literal (no regex) and the file can be read as bytes in the default charset
+	 * @param split
+	 * @return true if the parser handles it the same as String.split
+	 */
+	public static boolean canParse(String split) {
+		if (split.isEmpty())
+			return false;
+		for (int i = 0; i < split.length(); i++) {
+			if (regexCharacters.indexOf(split.charAt(i)) != -1 || split.charAt(i) == '\n' || split.charAt(i) == '\r')
+				return false;
+		}
+		String name = Charset.defaultCharset().name();
+		for (String safe : byteSafeCharsets) {
+			if (safe.equalsIgnoreCase(name))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * The edges of a single byte range, with vertex ids local to the range
+	 */
+	private static class Chunk {
+		String[] labels;
+		int[] sources, targets;
+		int size;
+		// Filled in while merging
+		int[] remap;
+		int offset;
+	}
+
+	/**
+	 * Parses the file
+	 * @return the edges of the file
+	 * @throws Error - if a line doesn't split into two vertices
+	 * @throws IOException
+	 */
+	public EdgeListBuilder parse() throws Error, IOException {
+		RandomAccessFile file = new RandomAccessFile(path, "r");
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			final FileChannel channel = file.getChannel();
+			long[] bounds = chunkBounds(channel);
+
+			// Tokenize every range
+			List<Future<Chunk>> parsing = new ArrayList<Future<Chunk>>();
+			for (int c = 0; c + 1 < bounds.length; c++) {
+				final long start = bounds[c], end = bounds[c + 1];
+				parsing.add(pool.submit(new Callable<Chunk>() {
+					@Override
+					public Chunk call() throws IOException {
+						return parseChunk(channel, start, end);
+					}
+				}));
+			}
+			final List<Chunk> chunks = new ArrayList<Chunk>();
+			for (Future<Chunk> chunk : parsing)
+				chunks.add(get(chunk));
+
+			// Count: intern the labels in file order and give each range its place in the edge arrays
+			int total = 0;
+			int labelEstimate = 0;
+			for (Chunk chunk : chunks) {
+				chunk.offset = total;
+				if ((long)total + chunk.size > Integer.MAX_VALUE)
+					throw new Error("Too many edges to import: " + path);
+				total += chunk.size;
+				labelEstimate = Math.max(labelEstimate, chunk.labels.length);
+			}
+			LabelDictionary dictionary = new LabelDictionary(labelEstimate);
+			for (Chunk chunk : chunks) {
+				chunk.remap = new int[chunk.labels.length];
+				for (int i = 0; i < chunk.labels.length; i++)
+					chunk.remap[i] = dictionary.intern(chunk.labels[i]);
+				chunk.labels = null;
+			}
+
+			// Fill: copy every range into the shared arrays
+			final int[] sources = new int[total];
+			final int[] targets = new int[total];
+			List<Future<Chunk>> filling = new ArrayList<Future<Chunk>>();
+			for (final Chunk chunk : chunks) {
+				filling.add(pool.submit(new Callable<Chunk>() {
+					@Override
+					public Chunk call() {
+						for (int i = 0; i < chunk.size; i++) {
+							sources[chunk.offset + i] = chunk.remap[chunk.sources[i]];
+							targets[chunk.offset + i] = chunk.remap[chunk.targets[i]];
+						}
+						return chunk;
+					}
+				}));
+			}
+			for (Future<Chunk> chunk : filling)
+				get(chunk);
+
+			return new EdgeListBuilder(dictionary, sources, targets, total);
+		} finally {
+			pool.shutdownNow();
+			file.close();
+		}
+	}
+
+	/**
+	 * Unwraps the result of a thread, passing on its Error or IOException
+	 */
+	private static Chunk get(Future<Chunk> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			throw new Error("Edge list parsing was interrupted", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Error)
+				throw (Error)e.getCause();
+			if (e.getCause() instanceof IOException)
+				throw (IOException)e.getCause();
+			throw new Error("Edge list parsing failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Cuts the file into ranges, moving each cut forward to just past a newline
+	 * @return the starts of the ranges, followed by the size of the file
+	 */
+	private long[] chunkBounds(FileChannel channel) throws IOException {
+		long size = channel.size();
+		long chunkSize = Math.min(MAX_CHUNK, Math.max(MIN_CHUNK, size / (threads * 4L) + 1));
+		List<Long> bounds = new ArrayList<Long>();
+		bounds.add(0L);
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 12);
+		long cut = chunkSize;
+		while (cut < size) {
+			// Find the next newline at or after the cut
+			long pos = cut;
+			long found = -1;
+			while (found == -1 && pos < size) {
+				buffer.clear();
+				int read = channel.read(buffer, pos);
+				if (read <= 0)
+					break;
+				for (int i = 0; i < read; i++) {
+					if (buffer.get(i) == '\n') {
+						found = pos + i + 1;
+						break;
+					}
+				}
+				pos += read;
+			}
+			if (found == -1 || found >= size)
+				break;
+			bounds.add(found);
+			cut = found + chunkSize;
+		}
+		bounds.add(size);
+
+		long[] ret = new long[bounds.size()];
+		for (int i = 0; i < ret.length; i++)
+			ret[i] = bounds.get(i);
+		return ret;
+	}
+
+	/**
+	 * Tokenizes the lines between start and end
+	 */
+	private Chunk parseChunk(FileChannel channel, long start, long end) throws IOException {
+		int length = (int)(end - start);
+		byte[] bytes = new byte[length];
+		ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+		buffer.get(bytes);
+
+		// Count the lines first, so the edge arrays only need to be made once
+		int lines = 1;
+		for (int i = 0; i < length; i++) {
+			if (bytes[i] == '\n' || bytes[i] == '\r')
+				lines++;
+		}
+
+		Chunk chunk = new Chunk();
+		chunk.sources = new int[lines];
+		chunk.targets = new int[lines];
+		ChunkDictionary labels = new ChunkDictionary(bytes);
+
+		int lineStart = 0;
+		while (lineStart < length) {
+			// Find the end of the line, treating \n, \r\n and \r all as line breaks like readLine()
+			int lineEnd = lineStart;
+			while (lineEnd < length && bytes[lineEnd] != '\n' && bytes[lineEnd] != '\r')
+				lineEnd++;
+			int next = lineEnd + 1;
+			if (lineEnd < length && bytes[lineEnd] == '\r' && next < length && bytes[next] == '\n')
+				next++;
+
+			if (!startsWith(bytes, lineStart, lineEnd, ignore)) {
+				// Import in A"\t"B
+				int first = indexOf(bytes, lineStart, lineEnd, split);
+				int secondStart = first + split.length;
+				int second = (first == -1) ? -1 : indexOf(bytes, secondStart, lineEnd, split);
+				int secondEnd = (second == -1) ? lineEnd : second;
+				// Like String.split, anything past the second value may only be more (empty) splits
+				if (first == -1 || secondEnd == secondStart || !onlySplits(bytes, secondEnd, lineEnd))
+					throw new Error("Data Split was incorrectly formatted: " + new String(bytes, lineStart, lineEnd - lineStart, charset));
+
+				chunk.sources[chunk.size] = labels.intern(lineStart, first);
+				chunk.targets[chunk.size] = labels.intern(secondStart, secondEnd);
+				chunk.size++;
+			}
+			lineStart = next;
+		}
+
+		chunk.labels = labels.getLabels(charset);
+		return chunk;
+	}
+
+	private static boolean startsWith(byte[] bytes, int from, int to, byte[] prefix) {
+		if (to - from < prefix.length)
+			return false;
+		for (int i = 0; i < prefix.length; i++) {
+			if (bytes[from + i] != prefix[i])
+				return false;
+		}
+		return true;
+	}
+
+	private static int indexOf(byte[] bytes, int from, int to, byte[] target) {
+		for (int i = from; i + target.length <= to; i++) {
+			if (startsWith(bytes, i, to, target))
+				return i;
+		}
+		return -1;
+	}
+
+	private boolean onlySplits(byte[] bytes, int from, int to) {
+		while (from < to) {
+			if (!startsWith(bytes, from, to, split))
+				return false;
+			from += split.length;
+		}
+		return true;
+	}
+
+	/**
+	 * Open-addressed dictionary of the labels in one range. The labels are kept as trimmed (start, end) positions
+	 * in the range's bytes, and only turned into Strings once the range is done
+	 */
+	private static class ChunkDictionary {
+		private final byte[] bytes;
+		private int[] starts = new int[64], ends = new int[64];
+		private int size = 0;
+		// Holds (id + 1), 0 marks an empty slot
+		private int[] table = new int[128];
+
+		ChunkDictionary(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		/**
+		 * Trims the bytes like String.trim() and returns the local id of the label
+		 */
+		int intern(int start, int end) {
+			while (start < end && (bytes[start] & 0xff) <= ' ')
+				start++;
+			while (end > start && (bytes[end - 1] & 0xff) <= ' ')
+				end--;
+
+			int h = 0;
+			for (int i = start; i < end; i++)
+				h = 31 * h + bytes[i];
+			int mask = table.length - 1;
+			int slot = (h ^ (h >>> 16)) & mask;
+			int entry;
+			while ((entry = table[slot]) != 0) {
+				if (same(entry - 1, start, end))
+					return entry - 1;
+				slot = (slot + 1) & mask;
+			}
+
+			if (size == starts.length) {
+				starts = Arrays.copyOf(starts, size * 2);
+				ends = Arrays.copyOf(ends, size * 2);
+			}
+			starts[size] = start;
+			ends[size] = end;
+			table[slot] = ++size;
+			if (size * 2 > table.length)
+				rehash();
+			return size - 1;
+		}
+
+		private boolean same(int id, int start, int end) {
+			if (ends[id] - starts[id] != end - start)
+				return false;
+			for (int i = starts[id], j = start; j < end; i++, j++) {
+				if (bytes[i] != bytes[j])
+					return false;
+			}
+			return true;
+		}
+
+		private void rehash() {
+			table = new int[table.length * 2];
+			int mask = table.length - 1;
+			for (int id = 0; id < size; id++) {
+				int h = 0;
+				for (int i = starts[id]; i < ends[id]; i++)
+					h = 31 * h + bytes[i];
+				int slot = (h ^ (h >>> 16)) & mask;
+				while (table[slot] != 0)
+					slot = (slot + 1) & mask;
+				table[slot] = id + 1;
+			}
+		}
+
+		String[] getLabels(Charset charset) {
+			String[] labels = new String[size];
+			for (int id = 0; id < size; id++)
+				labels[id] = new String(bytes, starts[id], ends[id] - starts[id], charset);
+			return labels;
+		}
+	}
+}
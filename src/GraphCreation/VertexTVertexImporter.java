@@ -46,9 +46,26 @@ public class VertexTVertexImporter extends ImportedGraph {
 			return new UndirectedSparseGraph<String, String>();
 	}
 
-	@Override
-	public Graph<String, String> loadGraph() throws Error, IOException {
-		Graph<String, String> graph = generateGraph();
+	/**
+	 * Receives the edges of the file one at a time, in the order they're in the file
+	 */
+	public static interface EdgeHandler {
+		public void edge(String source, String target);
+	}
+	
+	public EdgeType getEdgeType() {
+		return edgeType;
+	}
+	
+	/**
+	 * Reads the file line by line and hands every edge over as it's read, so nothing of the graph has to be held
+	 * @param handler - what's done with each edge
+	 * @return the amount of edges read
+	 * @throws Error - if a line doesn't split into two vertices
+	 * @throws IOException
+	 */
+	public long streamEdges(EdgeHandler handler) throws Error, IOException {
+		long count = 0;
 		BufferedReader br = new BufferedReader(new FileReader(this.path));
 		String data;
 		while((data = br.readLine()) != null) {
@@ -59,16 +76,45 @@ public class VertexTVertexImporter extends ImportedGraph {
 					br.close();
 					throw new Error("Data Split was incorrectly formatted: " + data);
 				}
-				// Clean the pulled out values
-				String source = items[0].trim();
-				String dest = items[1].trim();
-				
-				// Add the edges (and vertexes). Don't cover false case, duplication of edges can cause that. Undirected Graphs may be a problem
-				graph.addEdge(source + "-" + dest, source, dest);
+				// Hand over the cleaned values
+				handler.edge(items[0].trim(), items[1].trim());
+				count++;
 			}
 		}
 		br.close();
-		return graph;
+		return count;
+	}
+	
+	/**
+	 * Reads the edges of the file into an EdgeListBuilder, so each vertex label is only kept once.
+	 * Literal splits are parsed on all of the processors, any other (regex) split is read line by line
+	 * @return the edges of the file
+	 * @throws Error - if a line doesn't split into two vertices
+	 * @throws IOException
+	 */
+	protected EdgeListBuilder readEdges() throws Error, IOException {
+		if (ParallelEdgeListParser.canParse(mySplit))
+			return new ParallelEdgeListParser(this.path, mySplit, myIgnore, Runtime.getRuntime().availableProcessors()).parse();
+		
+		// The edge is only stored as the pair of ids
+		final EdgeListBuilder edges = new EdgeListBuilder();
+		streamEdges(new EdgeHandler() {
+			public void edge(String source, String target) {
+				edges.addEdge(source, target);
+			}
+		});
+		return edges;
+	}
+
+	@Override
+	public Graph<String, String> loadGraph() throws Error, IOException {
+		// Add the edges (and vertexes). Duplicate edges are skipped. Undirected Graphs may be a problem
+		return readEdges().addTo(generateGraph());
+	}
+
+	@Override
+	public CompactGraph loadCompactGraph() throws Error, IOException {
+		return readEdges().build(edgeType.equals(EdgeType.DIRECTED) ? EdgeType.DIRECTED : EdgeType.UNDIRECTED);
 	}
 
 	@Override
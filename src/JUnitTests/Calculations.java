@@ -6,21 +6,41 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
 
+import org.apache.commons.math3.stat.correlation.SpearmansCorrelation;
 import org.junit.Test;
 
 import DataAnalyzers.Correlations;
 import DataAnalyzers.KolmogorovSmirnovTest;
+import GraphAnalyzers.ApproxBCAnalyzer;
+import GraphAnalyzers.ApproximateBetweenness;
 import GraphAnalyzers.BCAnalyzer;
+import GraphAnalyzers.EDAnalyzer;
 import GraphAnalyzers.InDegreeAnalyzer;
+import GraphAnalyzers.MeasureVector;
 import GraphAnalyzers.OutDegreeAnalyzer;
+import GraphAnalyzers.ParallelBetweenness;
+import GraphAnalyzers.ParallelComponents;
+import GraphAnalyzers.WCCSizeAnalysis;
 import GraphCreation.BarabasiAlbertGraphGenerator;
+import GraphCreation.CompactGraph;
+import GraphCreation.ErdosRenyiGraphGenerator;
 import GraphCreation.GraphLoader;
+import Main.MeasureComparison;
+import Main.PopulationIndex;
 import SamplingAlgorithms.RNDBFSSampler;
 import Utils.FileSystem;
 import Utils.HardCode;
+import edu.uci.ics.jung.algorithms.cluster.WeakComponentClusterer;
+import edu.uci.ics.jung.algorithms.importance.BetweennessCentrality;
+import edu.uci.ics.jung.algorithms.metrics.Metrics;
 import edu.uci.ics.jung.graph.DirectedSparseGraph;
 import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.graph.UndirectedSparseGraph;
@@ -40,6 +60,62 @@ public class Calculations {
 		assert(Correlations.spearmansCorrelation(d, d2) == 1.0);
 	}
 	
+	@Test
+	public void testSpearmansTies() {
+		// Degree-like series where most values are tied, ranked the same as averaging every tie
+		Random rnd = new Random(3);
+		for (int trial = 0; trial < 50; trial++) {
+			// The lengths vary so the reused scratch arrays are longer than the series
+			int n = 50 + rnd.nextInt(450);
+			double[] d = new double[n], d2 = new double[n];
+			for (int i = 0; i < d.length; i++) {
+				d[i] = rnd.nextInt(6);
+				d2[i] = d[i] + rnd.nextInt(3);
+			}
+			double expected = (new SpearmansCorrelation()).correlation(d, d2);
+			assertTrue(Math.abs(Correlations.spearmansCorrelation(d, d2) - expected) < 1e-12);
+		}
+		
+		// Values within the tolerance of each other are tied
+		double[] close = {1, 1.00005, 2, 3};
+		double[] apart = {1, 1, 2, 3};
+		assertTrue(Correlations.spearmansCorrelation(close, apart) == 1.0);
+	}
+	
+	@Test
+	public void testKendalls() {
+		// Tau-b counted pair by pair, on series with plenty of ties
+		Random rnd = new Random(4);
+		for (int trial = 0; trial < 50; trial++) {
+			int n = 30 + rnd.nextInt(270);
+			double[] d = new double[n], d2 = new double[n];
+			for (int i = 0; i < d.length; i++) {
+				d[i] = rnd.nextInt(8);
+				d2[i] = (trial % 2 == 0) ? rnd.nextInt(8) : d[i] - rnd.nextInt(4);
+			}
+			long concordant = 0, discordant = 0, tiedX = 0, tiedY = 0, pairs = 0;
+			for (int i = 0; i < d.length; i++) {
+				for (int j = i + 1; j < d.length; j++) {
+					double sign = Math.signum(d[i] - d[j]) * Math.signum(d2[i] - d2[j]);
+					pairs++;
+					if (d[i] == d[j])
+						tiedX++;
+					if (d2[i] == d2[j])
+						tiedY++;
+					if (sign > 0)
+						concordant++;
+					else if (sign < 0)
+						discordant++;
+				}
+			}
+			double expected = (concordant - discordant) / Math.sqrt((double)(pairs - tiedX) * (pairs - tiedY));
+			assertTrue(Math.abs(Correlations.kendallsCorrelation(d, d2) - expected) < 1e-12);
+		}
+		
+		// Degenerate series
+		assertTrue(Correlations.kendallsCorrelation(new double[]{1, 1, 1}, new double[]{1, 2, 3}) == -999);
+	}
+	
 	
 	@Test
 	public void degreeDirectedTest() throws IOException {
@@ -83,6 +159,92 @@ public class Calculations {
 		assert(ret.get("C") == 1.0);
 	}
 	
+	/**
+	 * Measure vectors have to sort like the map entries did, and read back what the analyzers wrote
+	 */
+	@Test
+	public void measureVectorTest() throws IOException, Error {
+		Map<String, Double> measures = new HashMap<String, Double>();
+		for (int i = 0; i < 500; i++)
+			measures.put("v" + i, (double)((i * 7919) % 37));
+		MeasureVector vector = MeasureVector.of(measures);
+		
+		List<Entry<String, Double>> entries = new ArrayList<Entry<String, Double>>(measures.entrySet());
+		Collections.sort(entries, MeasureComparison.entrySort);
+		int[] ids = vector.sortedIds(false);
+		for (int i = 0; i < ids.length; i++)
+			assertTrue(vector.getLabel(ids[i]).equals(entries.get(i).getKey()));
+		Collections.sort(entries, MeasureComparison.entrySortBackwards);
+		ids = vector.sortedIds(true);
+		for (int i = 0; i < ids.length; i++)
+			assertTrue(vector.getLabel(ids[i]).equals(entries.get(i).getKey()));
+		assertTrue(vector.toMap().equals(measures));
+		
+		// Only sorting the top gives the same top, with every id still there
+		for (boolean reverse : new boolean[]{false, true}) {
+			for (int k : new int[]{0, 1, 25, 200, 499, 500}) {
+				int[] sorted = vector.sortedIds(reverse), top = vector.topSortedIds(k, reverse);
+				for (int i = 0; i < k; i++)
+					assertTrue(top[i] == sorted[i]);
+				Arrays.sort(top);
+				for (int id = 0; id < top.length; id++)
+					assertTrue(top[id] == id);
+			}
+		}
+		assertTrue(MeasureComparison.sortedPrefix(500, new double[]{0.05, 0.4, 1.0}, new double[]{0.1}) == 200);
+		
+		Graph<String, String> graph = (new BarabasiAlbertGraphGenerator(50, 10, 200, EdgeType.DIRECTED)).loadGraph();
+		String path = FileSystem.findOpenPath("ed").toString();
+		MeasureVector ed = (new EDAnalyzer()).analyzeVector(graph, path);
+		// The file only keeps 5 decimals
+		MeasureVector read = (new EDAnalyzer()).readVector(path);
+		assertTrue(read.size() == ed.size());
+		int[] readToEd = read.mapTo(ed);
+		for (int id = 0; id < read.size(); id++)
+			assertTrue(Math.abs(read.getValue(id) - ed.getValue(readToEd[id])) < 0.00001);
+		path = FileSystem.findOpenPath("in").toString();
+		MeasureVector in = (new InDegreeAnalyzer()).analyzeVector(graph, path);
+		assertTrue((new InDegreeAnalyzer()).read(path).equals(in.toMap()));
+		int[] edToIn = ed.mapTo(in);
+		for (int id = 0; id < ed.size(); id++)
+			assertTrue(ed.getLabel(id).equals(in.getLabel(edToIn[id])));
+	}
+	
+	/**
+	 * The population index has to give the same order and comparisons as sorting the population each time
+	 */
+	@Test
+	public void populationIndexTest() {
+		Map<String, Double> measures = new HashMap<String, Double>(), sampled = new HashMap<String, Double>();
+		for (int i = 0; i < 500; i++) {
+			measures.put("v" + i, (double)((i * 7919) % 37));
+			if (i % 3 == 0)
+				sampled.put("v" + i, (double)((i * 104729) % 11));
+		}
+		MeasureVector population = MeasureVector.of(measures), sample = MeasureVector.of(sampled);
+		for (boolean reverse : new boolean[]{false, true}) {
+			PopulationIndex index = new PopulationIndex(population, reverse);
+			assertTrue(Arrays.equals(index.getSortedIds(), population.sortedIds(reverse)));
+			for (int rank = 0; rank < index.size(); rank++) {
+				assertTrue(index.getRank(index.getSortedIds()[rank]) == rank);
+				assertTrue(index.inTop(index.getSortedIds()[rank], rank + 1) && !index.inTop(index.getSortedIds()[rank], rank));
+			}
+			
+			// The top of the population for P/R is the prefix of the sorted ids
+			int[] sampleSorted = sample.sortedIds(reverse);
+			int[] sampleToPopulation = sample.mapTo(population);
+			int popSize = (int)Math.ceil(population.size() * 0.1);
+			Set<Integer> top = new HashSet<Integer>();
+			for (int i = 0; i < popSize; i++)
+				top.add(population.sortedIds(reverse)[i]);
+			int common = 0;
+			for (int id : sampleSorted)
+				common += top.contains(sampleToPopulation[id]) ? 1 : 0;
+			String pr = MeasureComparison.PRCompare(index, sample, sampleSorted).get(0).getCSV();
+			assertTrue(pr.contains(MeasureComparison.PR(common, popSize, sampleSorted.length).getCSV()));
+		}
+	}
+	
 	@Test
 	public void roundingTest() {
 		double arg[] = {1.12345};
@@ -105,6 +267,172 @@ public class Calculations {
 		assertTrue(KolmogorovSmirnovTest.runSmirnov(redwell, whitney) == 0.2204113924050633);
 	}
 	
+	@Test
+	public void KSPValueTest() {
+		// Large enough that the exact test used to fail, with most values tied
+		Random rnd = new Random(5);
+		double[] population = new double[200000], same = new double[5000], shifted = new double[5000];
+		for (int i = 0; i < population.length; i++)
+			population[i] = rnd.nextInt(50);
+		for (int i = 0; i < same.length; i++) {
+			same[i] = rnd.nextInt(50);
+			shifted[i] = rnd.nextInt(50) + 5;
+		}
+		Arrays.sort(population);
+		Arrays.sort(same);
+		Arrays.sort(shifted);
+		
+		double d = KolmogorovSmirnovTest.statistic(population, same);
+		assertTrue(d < 0.03 && KolmogorovSmirnovTest.pValue(d, population.length, same.length) > 0.01);
+		d = KolmogorovSmirnovTest.statistic(population, shifted);
+		assertTrue(Math.abs(d - 0.1) < 0.02 && KolmogorovSmirnovTest.pValue(d, population.length, shifted.length) < 1e-10);
+		assertTrue(KolmogorovSmirnovTest.pValue(0, population.length, same.length) == 1);
+		
+		// The vector's sorted values are only sorted once
+		MeasureVector vector = MeasureVector.of(Collections.singletonMap("a", 1.0));
+		assertTrue(vector.sortedValues() == vector.sortedValues());
+	}
+	
+	/**
+	 * The parallel Brandes has to give JUNG's scores, on the graph and on its compact view
+	 */
+	@Test
+	public void BCTestJUNG() throws IOException, Error {
+		// Erdos Renyi graphs are undirected and (at this probability) not always connected
+		GraphLoader[] loaders = {
+				new BarabasiAlbertGraphGenerator(100, 10, 150, EdgeType.DIRECTED),
+				new BarabasiAlbertGraphGenerator(100, 10, 150, EdgeType.UNDIRECTED),
+				new ErdosRenyiGraphGenerator(0.01, 200)
+		};
+		for (GraphLoader gL : loaders) {
+			Graph<String, String> population = gL.loadGraph();
+			CompactGraph compact = CompactGraph.of(population);
+			double[] scores = ParallelBetweenness.compute(compact);
+			
+			for (Graph<String, String> graph : Arrays.<Graph<String, String>>asList(population, compact.asGraph())) {
+				BetweennessCentrality<String, String> cm = new BetweennessCentrality<String, String>(graph);
+				cm.setRemoveRankScoresOnFinalize(false);
+				cm.evaluate();
+				for (String vertex : population.getVertices()) {
+					double expected = cm.getVertexRankScore(vertex);
+					assertTrue(Math.abs(scores[compact.getId(vertex)] - expected) <= 1e-9 * Math.max(1, expected));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * The approximate BC has to stay within its reported error, and be readable as a normal BC file
+	 */
+	@Test
+	public void BCTestApproximate() throws IOException, Error {
+		for (EdgeType type : new EdgeType[]{EdgeType.DIRECTED, EdgeType.UNDIRECTED}) {
+			Graph<String, String> population = (new BarabasiAlbertGraphGenerator(100, 10, 200, type)).loadGraph();
+			double[] exact = ParallelBetweenness.compute(CompactGraph.of(population));
+			
+			String path = FileSystem.findOpenPath("bc").toString();
+			Map<String, Double> approximate = (new ApproxBCAnalyzer(0.02, 0.1, 1)).analyzeGraph(population, path);
+			double bound = 0.02 * population.getVertexCount() * (population.getVertexCount() - 1);
+			for (String vertex : population.getVertices())
+				assertTrue(Math.abs(approximate.get(vertex) - exact[CompactGraph.of(population).getId(vertex)]) <= bound);
+			
+			// The file only keeps 5 decimals
+			Map<String, Double> read = (new BCAnalyzer()).read(path);
+			assertTrue(read.keySet().equals(approximate.keySet()));
+			for (String vertex : read.keySet())
+				assertTrue(Math.abs(read.get(vertex) - approximate.get(vertex)) < 0.00001);
+		}
+	}
+	
+	/**
+	 * A DIRECTED cycle with a hub pointing at it is close ignoring direction, but its shortest paths go around the cycle
+	 */
+	@Test
+	public void vertexDiameterBoundTest() {
+		Graph<String, String> directed = new DirectedSparseGraph<String, String>();
+		Graph<String, String> undirected = new UndirectedSparseGraph<String, String>();
+		for (int i = 0; i < 10; i++) {
+			for (Graph<String, String> graph : Arrays.<Graph<String, String>>asList(directed, undirected)) {
+				graph.addEdge("c" + i, "" + i, "" + ((i + 1) % 10));
+				graph.addEdge("h" + i, "hub", "" + i);
+			}
+		}
+		// The path from 1 to 0 has every vertex of the cycle
+		assertTrue(ApproximateBetweenness.boundVertexDiameter(CompactGraph.of(directed)) == 11);
+		// Every vertex is at most 2 away from 0 through the hub
+		assertTrue(ApproximateBetweenness.boundVertexDiameter(CompactGraph.of(undirected)) == 5);
+	}
+	
+	/**
+	 * The triangle counting has to give JUNG's clustering coefficients, including for self-loops and both directions of an edge
+	 */
+	@Test
+	public void EDTestJUNG() throws IOException, Error {
+		DirectedSparseGraph<String, String> loops = new DirectedSparseGraph<String, String>();
+		loops.addEdge("e1", "A", "B");
+		loops.addEdge("e2", "B", "A");
+		loops.addEdge("e3", "B", "C");
+		loops.addEdge("e4", "C", "A");
+		loops.addEdge("e5", "A", "A");
+		loops.addEdge("e6", "C", "D");
+		loops.addEdge("e7", "D", "D");
+		loops.addVertex("E");
+		
+		List<Graph<String, String>> graphs = new ArrayList<Graph<String, String>>();
+		graphs.add(loops);
+		graphs.add((new BarabasiAlbertGraphGenerator(50, 10, 200, EdgeType.DIRECTED)).loadGraph());
+		graphs.add((new BarabasiAlbertGraphGenerator(50, 10, 200, EdgeType.UNDIRECTED)).loadGraph());
+		for (Graph<String, String> graph : graphs) {
+			Map<String, Double> expected = Metrics.clusteringCoefficients(graph);
+			Map<String, Double> ed = (new EDAnalyzer()).analyzeGraph(graph, FileSystem.findOpenPath("ed").toString());
+			assertTrue(ed.keySet().equals(expected.keySet()));
+			for (String vertex : expected.keySet())
+				assertTrue(ed.get(vertex) == HardCode.floorValue(expected.get(vertex), 7));
+		}
+	}
+	
+	@Test
+	public void WCCTestJUNG() throws IOException, Error {
+		DirectedSparseGraph<String, String> pieces = new DirectedSparseGraph<String, String>();
+		pieces.addEdge("e1", "A", "B");
+		pieces.addEdge("e2", "C", "B");
+		pieces.addEdge("e3", "D", "D");
+		pieces.addEdge("e4", "E", "F");
+		pieces.addEdge("e5", "G", "F");
+		pieces.addEdge("e6", "G", "A");
+		pieces.addVertex("H");
+		
+		List<Graph<String, String>> graphs = new ArrayList<Graph<String, String>>();
+		graphs.add(pieces);
+		graphs.add((new BarabasiAlbertGraphGenerator(50, 10, 200, EdgeType.DIRECTED)).loadGraph());
+		graphs.add((new ErdosRenyiGraphGenerator(0.002, 500)).loadGraph());
+		graphs.add((new ErdosRenyiGraphGenerator(0.02, 500)).loadGraph());
+		for (Graph<String, String> graph : graphs) {
+			List<Double> expected = new ArrayList<Double>();
+			for (Set<String> component : (new WeakComponentClusterer<String, String>()).transform(graph))
+				expected.add((double)component.size());
+			List<Double> sizes = new ArrayList<Double>((new WCCSizeAnalysis()).analyzeGraph(graph, FileSystem.findOpenPath("wcc").toString()).values());
+			Collections.sort(expected);
+			Collections.sort(sizes);
+			assertTrue(sizes.equals(expected));
+			
+			// The count has to match whether it's found or read back
+			String path = FileSystem.findOpenPath("wcc").toString();
+			ParallelComponents components = ParallelComponents.compute(CompactGraph.of(graph));
+			assertTrue(components.getCount() == expected.size());
+			
+			// The histogram counts every component once, under its size
+			Map<Integer, Integer> histogram = new HashMap<Integer, Integer>();
+			for (double size : expected) {
+				Integer current = histogram.get((int)size);
+				histogram.put((int)size, (current == null) ? 1 : current + 1);
+			}
+			assertTrue(components.getSizeHistogram().equals(histogram));
+			assertTrue((new WCCSizeAnalysis()).countComponents(graph, path) == expected.size());
+			assertTrue((new WCCSizeAnalysis()).countComponents(graph, path) == expected.size());
+		}
+	}
+	
 	@Test
 	public void BCTestUndirected() throws IOException, Error {
 		Graph<String, String> population;
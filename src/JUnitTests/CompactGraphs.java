@@ -0,0 +1,136 @@
+package JUnitTests;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.Test;
+
+import GraphAnalyzers.BCAnalyzer;
+import GraphCreation.BarabasiAlbertGraphGenerator;
+import GraphCreation.BasicGraph;
+import GraphCreation.CompactGraph;
+import GraphCreation.GraphLoader;
+import GraphCreation.LabelDictionary;
+import GraphCreation.VertexTVertexImporter;
+import Utils.FileSystem;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+/**
+ * Tests that the CompactGraph and its JUNG view act the same as the SparseGraphs they replace
+ * @author MOREPOWER
+ *
+ */
+public class CompactGraphs {
+
+	/**
+	 * Checks every vertex has the same neighborhoods in both graphs
+	 */
+	private static void checkNeighborhoods(Graph<String, String> compact, Graph<String, String> population) {
+		JUnitUtils.checkGraphs(compact, population);
+		for (String vertex : population.getVertices()) {
+			assertTrue(compact.containsVertex(vertex));
+			assertTrue(new HashSet<String>(compact.getSuccessors(vertex)).equals(new HashSet<String>(population.getSuccessors(vertex))));
+			assertTrue(new HashSet<String>(compact.getPredecessors(vertex)).equals(new HashSet<String>(population.getPredecessors(vertex))));
+			assertTrue(new HashSet<String>(compact.getNeighbors(vertex)).equals(new HashSet<String>(population.getNeighbors(vertex))));
+			assertTrue(new HashSet<String>(compact.getIncidentEdges(vertex)).equals(new HashSet<String>(population.getIncidentEdges(vertex))));
+			assertTrue(compact.degree(vertex) == population.degree(vertex));
+		}
+		for (String edge : population.getEdges()) {
+			assertTrue(compact.containsEdge(edge));
+			assertTrue(compact.getEndpoints(edge).equals(population.getEndpoints(edge)));
+		}
+	}
+
+	@Test
+	public void testDIRECTED() throws IOException, Error {
+		GraphLoader gL = new BarabasiAlbertGraphGenerator(40, 20, 200, EdgeType.DIRECTED);
+		Graph<String, String> population = gL.loadGraph();
+		Graph<String, String> compact = CompactGraph.of(population).asGraph();
+
+		checkNeighborhoods(compact, population);
+		// Getting the compact graph of a view shouldn't copy it
+		assertTrue(CompactGraph.of(compact) == CompactGraph.of(compact));
+	}
+
+	@Test
+	public void testUNDIRECTED() throws IOException, Error {
+		GraphLoader gL = new BarabasiAlbertGraphGenerator(40, 20, 200, EdgeType.UNDIRECTED);
+		Graph<String, String> population = gL.loadGraph();
+		Graph<String, String> compact = CompactGraph.of(population).asGraph();
+
+		checkNeighborhoods(compact, population);
+	}
+
+	/**
+	 * Parallel edges are dropped and edge labels are made from the vertex labels
+	 */
+	@Test
+	public void testEdgeList() {
+		LabelDictionary dictionary = new LabelDictionary();
+		int a = dictionary.intern("a"), b = dictionary.intern("b-1"), c = dictionary.intern("c");
+		assertTrue(dictionary.intern("b-1") == b);
+		int[] sources = {a, b, a, c};
+		int[] targets = {b, c, b, c};
+
+		CompactGraph directed = new CompactGraph(EdgeType.DIRECTED, dictionary, sources, targets, 4);
+		assertTrue(directed.getEdgeCount() == 3);
+		assertTrue(directed.outDegree(a) == 1 && directed.inDegree(b) == 1);
+		assertTrue(directed.findEdge(b, a) == -1);
+		assertTrue(directed.findEdge("b-1-c") == directed.findEdge(b, c));
+		assertTrue(directed.asGraph().findEdge("c", "c").equals("c-c"));
+
+		CompactGraph undirected = new CompactGraph(EdgeType.UNDIRECTED, dictionary, targets, sources, 4);
+		assertTrue(undirected.getEdgeCount() == 3);
+		assertTrue(undirected.findEdge(b, a) == undirected.findEdge(a, b));
+		assertTrue(undirected.asGraph().getNeighborCount("b-1") == 2);
+		assertTrue(undirected.asGraph().getNeighborCount("c") == 2);
+	}
+
+	/**
+	 * The JUNG algorithms and exporting have to work the same on the view
+	 */
+	@Test
+	public void testJUNGCompatibility() throws IOException, Error {
+		GraphLoader gL = new BarabasiAlbertGraphGenerator(100, 10, 100, EdgeType.DIRECTED);
+		Graph<String, String> population = gL.loadGraph();
+		Graph<String, String> compact = CompactGraph.of(population).asGraph();
+
+		Map<String, Double> a1 = (new BCAnalyzer()).analyzeGraph(population, FileSystem.findOpenPath("bc").toString());
+		Map<String, Double> a2 = (new BCAnalyzer()).analyzeGraph(compact, FileSystem.findOpenPath("bc").toString());
+		assertTrue(a1.keySet().equals(a2.keySet()));
+		// The vertex order is different, so the sums can differ in the last of the floored digits
+		for (String vertex : a1.keySet())
+			assertTrue(Math.abs(a1.get(vertex) - a2.get(vertex)) < 0.000001);
+
+		File openFile = FileSystem.findOpenPath("export");
+		BasicGraph.exportGraph(compact, openFile.toString());
+		Graph<String, String> imported = (new BasicGraph(openFile.toString())).loadCompactGraph().asGraph();
+		assertTrue(imported.getVertexCount() == population.getVertexCount());
+		assertTrue(imported.getEdgeCount() == population.getEdgeCount());
+	}
+
+	/**
+	 * The importers build the CompactGraph straight from their edge list, it has to match the JUNG graph they load
+	 */
+	@Test
+	public void testImporter() throws IOException, Error {
+		File openFile = FileSystem.findOpenPath("vertTvert");
+		FileWriter writer = new FileWriter(openFile);
+		writer.write("# comment\n1\t2\n2\t3\n1\t2\n3 \t 1\n4\t4\n");
+		writer.close();
+
+		for (EdgeType type : new EdgeType[]{EdgeType.DIRECTED, EdgeType.UNDIRECTED}) {
+			VertexTVertexImporter importer = new VertexTVertexImporter(openFile.toString(), type, "\t");
+			Graph<String, String> population = importer.loadGraph();
+			Graph<String, String> compact = importer.loadCompactGraph().asGraph();
+			assertTrue(population.getVertexCount() == 4 && population.getEdgeCount() == 4);
+			checkNeighborhoods(compact, population);
+		}
+	}
+}
@@ -1,19 +1,32 @@
 package JUnitTests;
 
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+import java.util.HashSet;
 
 import org.junit.Test;
 
+import GraphAnalyzers.BCAnalyzer;
+import GraphAnalyzers.MeasureCache;
+import GraphAnalyzers.MeasureVector;
 import GraphCreation.BarabasiAlbertGraphGenerator;
 import GraphCreation.BasicGraph;
+import GraphCreation.BinaryGraph;
+import GraphCreation.CompactGraph;
 import GraphCreation.GraphLoader;
+import GraphCreation.VertexTVertexImporter;
 import Utils.FileSystem;
 import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.graph.util.EdgeType;
 
 /**
- * Tests the import/export functionality of the BasicGraph
+ * Tests the import/export functionality of the BasicGraph and BinaryGraph
  * @author MOREPOWER
  *
  */
@@ -59,4 +72,135 @@ public class ExportImportGraphs {
 		JUnitUtils.checkGraphs(imported, population);
 	}
 	
+	/**
+	 * Export both types of graph as binary snapshots, the vertex and edge labels have to come back exactly
+	 * @throws Error 
+	 * @throws IOException 
+	 */
+	@Test
+	public void testBinary() throws IOException, Error {
+		for (EdgeType type : new EdgeType[]{EdgeType.DIRECTED, EdgeType.UNDIRECTED}) {
+			Graph<String, String> population = (new BarabasiAlbertGraphGenerator(40, 20, 200, type)).loadGraph();
+			
+			File openFile = FileSystem.findOpenPath("export");
+			BinaryGraph.exportGraph(population, openFile.toString());
+			assertTrue(BinaryGraph.isSnapshot(openFile.toString()));
+			
+			Graph<String, String> imported = (new BinaryGraph(openFile.toString())).loadCompactGraph().asGraph();
+			JUnitUtils.checkGraphs(imported, population);
+			assertTrue(new HashSet<String>(imported.getVertices()).equals(new HashSet<String>(population.getVertices())));
+			assertTrue(new HashSet<String>(imported.getEdges()).equals(new HashSet<String>(population.getEdges())));
+			for (String edge : population.getEdges())
+				assertTrue(imported.getEndpoints(edge).equals(population.getEndpoints(edge)));
+			
+			// Graphs with "source-dest" edge labels don't store them, but still load them the same
+			CompactGraph labeled = (new BinaryGraph(openFile.toString())).loadCompactGraph();
+			int[] sources = new int[labeled.getEdgeCount()], targets = new int[labeled.getEdgeCount()];
+			for (int e = 0; e < labeled.getEdgeCount(); e++) {
+				sources[e] = labeled.getEdgeSource(e);
+				targets[e] = labeled.getEdgeTarget(e);
+			}
+			CompactGraph generated = new CompactGraph(type, labeled.getDictionary(), sources, targets, sources.length);
+			File generatedFile = FileSystem.findOpenPath("export");
+			BinaryGraph.exportGraph(generated, generatedFile.toString());
+			Graph<String, String> reloaded = (new BinaryGraph(generatedFile.toString())).loadGraph();
+			assertTrue(generatedFile.length() < openFile.length());
+			assertTrue(reloaded.findEdge(generated.getLabel(generated.getEdgeSource(0)), generated.getLabel(generated.getEdgeTarget(0)))
+					.equals(generated.getLabel(generated.getEdgeSource(0)) + "-" + generated.getLabel(generated.getEdgeTarget(0))));
+			
+			// Old Pajek files are still read
+			File pajekFile = FileSystem.findOpenPath("export");
+			BasicGraph.exportGraph(population, pajekFile.toString());
+			assertTrue(BinaryGraph.isSnapshot(pajekFile.toString()) == false);
+			JUnitUtils.checkGraphs((new BinaryGraph(pajekFile.toString())).loadGraph(), population);
+		}
+	}
+	
+	/**
+	 * The parallel parser has to give the same ids and edges as reading the file line by line (which a regex split does)
+	 * @throws Error 
+	 * @throws IOException 
+	 */
+	@Test
+	public void testParallelImport() throws IOException, Error {
+		File openFile = FileSystem.findOpenPath("vertTvert");
+		BufferedWriter writer = new BufferedWriter(new FileWriter(openFile));
+		Random random = new Random(1);
+		writer.write("# comment line\n");
+		// Big enough to be cut into a few ranges, with windows line endings and padding mixed in
+		for (int i = 0; i < 300000; i++) {
+			writer.write((i % 7 == 0 ? " " : "") + "n" + random.nextInt(20000) + "\t" + "n" + random.nextInt(20000));
+			writer.write(i % 3 == 0 ? "\r\n" : (i % 5 == 0 ? "\t\n" : "\n"));
+		}
+		writer.write("#end\nlast\tline");
+		writer.close();
+		
+		CompactGraph parallel = (new VertexTVertexImporter(openFile.toString(), EdgeType.DIRECTED, "\t")).loadCompactGraph();
+		CompactGraph sequential = (new VertexTVertexImporter(openFile.toString(), EdgeType.DIRECTED, "[\t]")).loadCompactGraph();
+		assertTrue(parallel.getVertexCount() == sequential.getVertexCount());
+		assertTrue(parallel.getEdgeCount() == sequential.getEdgeCount());
+		for (int v = 0; v < sequential.getVertexCount(); v++)
+			assertTrue(parallel.getLabel(v).equals(sequential.getLabel(v)));
+		for (int e = 0; e < sequential.getEdgeCount(); e++) {
+			assertTrue(parallel.getEdgeSource(e) == sequential.getEdgeSource(e));
+			assertTrue(parallel.getEdgeTarget(e) == sequential.getEdgeTarget(e));
+		}
+		assertTrue(parallel.getId("last") != -1);
+		
+		// Lines that don't split into two vertices are still an error
+		writer = new BufferedWriter(new FileWriter(openFile, true));
+		writer.write("\na\tb\tc\n");
+		writer.close();
+		try {
+			(new VertexTVertexImporter(openFile.toString(), EdgeType.DIRECTED, "\t")).loadCompactGraph();
+			assertTrue(false);
+		} catch (Error e) {
+			assertTrue(e.getMessage().startsWith("Data Split was incorrectly formatted"));
+		}
+	}
+	
+	/**
+	 * The measure cache has to give what reading the csv does, and be made again once it's stale
+	 * @throws Error 
+	 * @throws IOException 
+	 */
+	@Test
+	public void testMeasureCache() throws IOException, Error {
+		Graph<String, String> population = (new BarabasiAlbertGraphGenerator(40, 20, 200, EdgeType.DIRECTED)).loadGraph();
+		String path = FileSystem.findOpenPath("bc").toString();
+		BCAnalyzer analyzer = new BCAnalyzer();
+		analyzer.analyzeVector(population, path);
+		assertTrue(MeasureCache.load(path, analyzer.getVersion()) == null);
+		
+		// The first read caches the csv
+		MeasureVector read = analyzer.readCached(path);
+		assertTrue(read.toMap().equals(analyzer.read(path)));
+		MeasureVector cached = MeasureCache.load(path, analyzer.getVersion());
+		assertTrue(cached != null && cached.toMap().equals(read.toMap()));
+		assertTrue(analyzer.computeOrProcessVector(population, path).toMap().equals(read.toMap()));
+		assertTrue(MeasureCache.load(path, analyzer.getVersion() + 1) == null);
+		
+		// A corrupt cache is ignored
+		RandomAccessFile sidecar = new RandomAccessFile(MeasureCache.sidecarPath(path), "rw");
+		long length = sidecar.length();
+		sidecar.seek(length - 1);
+		int last = sidecar.read();
+		sidecar.seek(length - 1);
+		sidecar.write(last ^ 1);
+		assertTrue(sidecar.length() == length);
+		sidecar.close();
+		assertTrue(MeasureCache.load(path, analyzer.getVersion()) == null);
+		assertTrue(analyzer.readCached(path).toMap().equals(read.toMap()));
+		
+		// So is the cache of a csv that changed
+		BufferedWriter writer = new BufferedWriter(new FileWriter(path, true));
+		writer.write("extra,1.5\n");
+		writer.close();
+		assertTrue(MeasureCache.load(path, analyzer.getVersion()) == null);
+		MeasureVector changed = analyzer.readCached(path);
+		assertTrue(changed.size() == read.size() + 1);
+		assertTrue(changed.getValue(changed.getDictionary().getId("extra")) == 1.5);
+		assertTrue(MeasureCache.load(path, analyzer.getVersion()).toMap().equals(changed.toMap()));
+	}
+	
 }
\ No newline at end of file
@@ -2,25 +2,49 @@ package JUnitTests;
 
 import static org.junit.Assert.assertTrue;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.Test;
 
 import GraphAnalyzers.BCAnalyzer;
 import GraphCreation.BarabasiAlbertGraphGenerator;
+import GraphCreation.CompactGraph;
 import GraphCreation.GraphLoader;
+import GraphCreation.VertexTVertexImporter;
 import SamplingAlgorithms.RNDBFSSampler;
 import SamplingAlgorithms.RNDBFSSingleSampler;
+import SamplingAlgorithms.IndexedIntSet;
+import SamplingAlgorithms.IntQueue;
 import SamplingAlgorithms.RNDForestFirePaperSampler;
+import SamplingAlgorithms.RNDMultiWalkSampler;
+import SamplingAlgorithms.RNDWalkMetroHastingsSampler;
+import SamplingAlgorithms.RNDWalkSampler;
+import SamplingAlgorithms.SampleCheckpoints;
 import SamplingAlgorithms.SampleMethod;
+import SamplingAlgorithms.SampleView;
+import SamplingAlgorithms.SamplingState;
+import SamplingAlgorithms.StreamPIESSampler;
+import SamplingAlgorithms.TargetedSampleMethod;
+import SamplingAlgorithms.ViewSampleMethod;
+import Utils.CSV_Builder;
 import Utils.FileSystem;
+import Utils.SplitMix64;
 import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.UndirectedSparseGraph;
 import edu.uci.ics.jung.graph.util.EdgeType;
+import edu.uci.ics.jung.graph.util.Pair;
 
 /**
  * A series of tests to test graph analyzers
@@ -155,6 +179,433 @@ public class SampleGraphs {
 		JUnitUtils.checkGraphs(sample, sample2);
 	}
 	
+	/**
+	 * A partial sample has to hold every edge of the population between its vertexes, and no others
+	 * @throws Error 
+	 * @throws IOException 
+	 */
+	@Test
+	public void TestInducedEdges() throws IOException, Error {
+		for (EdgeType type : new EdgeType[]{EdgeType.DIRECTED, EdgeType.UNDIRECTED}) {
+			Graph<String, String> population = (new BarabasiAlbertGraphGenerator(200, 10, 50, type)).loadGraph();
+			for (RNDBFSSampler sampler : new RNDBFSSampler[]{new RNDBFSSampler(0.3, 0.4, 7, type), new RNDBFSSingleSampler(0.3, 0.4, 7, type)}) {
+				sampler.sampleGraph(population);
+				Graph<String, String> sample = sampler.getGraph();
+				
+				int induced = 0;
+				for (String edge : population.getEdges()) {
+					Pair<String> endPoints = population.getEndpoints(edge);
+					if (sample.containsVertex(endPoints.getFirst()) && sample.containsVertex(endPoints.getSecond())) {
+						induced++;
+						assertTrue(sample.containsEdge(edge));
+						assertTrue(sample.getEndpoints(edge).equals(endPoints));
+					}
+				}
+				assertTrue(sample.getEdgeCount() == induced);
+			}
+		}
+	}
+	
+	@Test
+	public void TestGrowingSample() throws IOException, Error {
+		for (EdgeType type : new EdgeType[]{EdgeType.DIRECTED, EdgeType.UNDIRECTED}) {
+			Graph<String, String> population = (new BarabasiAlbertGraphGenerator(200, 10, 50, type)).loadGraph();
+			TargetedSampleMethod[] samplers = new TargetedSampleMethod[]{
+					new RNDBFSSampler(0.1, 0.5, 3, type), new RNDBFSSingleSampler(0.1, 0.5, 3, type),
+					new RNDWalkSampler(0.1, 0.5, 3, type), new RNDWalkMetroHastingsSampler(0.1, 0.5, 3, type),
+					new RNDForestFirePaperSampler(0.1, 0.5, 3, type, 0.7, 0.2)};
+			for (TargetedSampleMethod sampler : samplers) {
+				// The sample keeps growing from where it was as alpha is raised
+				int previous = 0;
+				for (double alpha : new double[]{0.1, 0.2, 0.5, 1.0}) {
+					sampler.changeAlpha(alpha);
+					sampler.sampleGraph(population);
+					Graph<String, String> sample = sampler.getGraph();
+					assertTrue(sample.getVertexCount() >= Math.ceil(population.getVertexCount() * alpha));
+					assertTrue(sample.getVertexCount() >= previous);
+					previous = sample.getVertexCount();
+					for (String vertex : sample.getVertices())
+						assertTrue(population.containsVertex(vertex));
+				}
+			}
+			
+			// The same seed samples the same vertices from the graph and its compact view
+			RNDBFSSampler sparse = new RNDBFSSampler(0.3, 0.5, 11, type);
+			RNDBFSSampler compact = new RNDBFSSampler(0.3, 0.5, 11, type);
+			sparse.sampleGraph(population);
+			compact.sampleGraph(CompactGraph.of(population).asGraph());
+			assertTrue(new HashSet<String>(sparse.getGraph().getVertices()).equals(new HashSet<String>(compact.getGraph().getVertices())));
+		}
+	}
+	
+	@Test
+	public void TestSampleView() throws IOException, Error {
+		for (EdgeType type : new EdgeType[]{EdgeType.DIRECTED, EdgeType.UNDIRECTED}) {
+			Graph<String, String> population = (new BarabasiAlbertGraphGenerator(200, 10, 50, type)).loadGraph();
+			ViewSampleMethod[] samplers = new ViewSampleMethod[]{
+					new RNDBFSSampler(0.1, 0.5, 5, type), new RNDBFSSingleSampler(0.1, 0.5, 5, type),
+					new RNDWalkSampler(0.1, 0.5, 5, type), new RNDForestFirePaperSampler(0.1, 0.5, 5, type, 0.7, 0.2)};
+			for (ViewSampleMethod sampler : samplers) {
+				sampler.sampleGraph(population);
+				// Asked for part way through, the graph has to be kept up to date from here on
+				Graph<String, String> sample = sampler.getGraph();
+				sampler.changeAlpha(0.4);
+				sampler.sampleGraph(population);
+				
+				SampleView view = sampler.getSampleView();
+				assertTrue(view.getVertexCount() == sample.getVertexCount());
+				assertTrue(view.getEdgeCount() == sample.getEdgeCount());
+				JUnitUtils.checkGraphs(view.toGraph(), sample);
+				JUnitUtils.checkGraphs(view.toCompactGraph().asGraph(), sample);
+				for (String edge : sample.getEdges())
+					assertTrue(sample.getEndpoints(edge).equals(population.getEndpoints(edge)));
+			}
+		}
+	}
+	
+	@Test
+	public void TestSampleCheckpoints() throws IOException, Error {
+		for (EdgeType type : new EdgeType[]{EdgeType.DIRECTED, EdgeType.UNDIRECTED}) {
+			Graph<String, String> population = (new BarabasiAlbertGraphGenerator(200, 10, 50, type)).loadGraph();
+			for (int method = 0; method < 5; method++) {
+				ViewSampleMethod sampler = makeViewSampler(method, type);
+				File file = FileSystem.findOpenPath("checkpoints");
+				SampleCheckpoints checkpoints = new SampleCheckpoints(file.getPath());
+				
+				sampler.sampleGraph(population);
+				SampleView first = sampler.getSampleView();
+				Graph<String, String> firstGraph = first.toGraph();
+				checkpoints.append(0.1, null, first, sampler.getContinuation());
+				sampler.changeAlpha(0.3);
+				String secondStats = sampler.sampleGraph(population).getCSV();
+				SampleView second = sampler.getSampleView();
+				checkpoints.append(0.3, first, second, sampler.getContinuation());
+				
+				// The earlier view is still the prefix it was taken as
+				JUnitUtils.checkGraphs(first.toGraph(), firstGraph);
+				JUnitUtils.checkGraphs(first.toCompactGraph().asGraph(), firstGraph);
+				assertTrue(second.getVertexCount() > first.getVertexCount());
+				for (int k = 0; k < second.getVertexCount(); k++)
+					assertTrue(first.containsVertex(second.getVertex(k)) == (k < first.getVertexCount()));
+				for (int k = 0; !second.isInduced() && k < second.getEdgeCount(); k++)
+					assertTrue(first.containsEdge(second.getEdge(k)) == (k < first.getEdgeCount()));
+				
+				// A checkpoint cut off part way is dropped
+				long complete = file.length();
+				sampler.changeAlpha(0.5);
+				sampler.sampleGraph(population);
+				checkpoints.append(0.5, second, sampler.getSampleView(), sampler.getContinuation());
+				RandomAccessFile cut = new RandomAccessFile(file, "rw");
+				cut.setLength(complete + 20);
+				cut.close();
+				
+				List<SampleCheckpoints.Checkpoint> loaded = checkpoints.load(CompactGraph.of(population));
+				assertTrue(loaded.size() == 2 && file.length() == complete);
+				assertTrue(loaded.get(0).alpha == 0.1 && loaded.get(1).alpha == 0.3);
+				
+				// Read back into a new sampler they're the same samples
+				ViewSampleMethod resumed = makeViewSampler(method, type);
+				restore(resumed, population, loaded.get(0));
+				JUnitUtils.checkGraphs(resumed.getSampleView().toGraph(), firstGraph);
+				restore(resumed, population, loaded.get(1));
+				JUnitUtils.checkGraphs(resumed.getSampleView().toGraph(), second.toGraph());
+				
+				// Carried on from the first checkpoint, the next alpha is the same as the run that never stopped
+				ViewSampleMethod carried = makeViewSampler(method, type);
+				restore(carried, population, loaded.get(0));
+				carried.changeAlpha(0.3);
+				assertTrue(carried.sampleGraph(population).getCSV().equals(secondStats));
+				assertSameView(carried.getSampleView(), second);
+				file.delete();
+			}
+		}
+	}
+	
+	@Test
+	public void TestReproducibleSeeds() throws IOException, Error {
+		// A fork only depends on the seed and key, not how much of the stream was drawn first
+		SplitMix64 stream = new SplitMix64(42);
+		long first = stream.fork(7).nextLong();
+		for (int i = 0; i < 100; i++)
+			stream.nextInt(10);
+		assertTrue(stream.fork(7).nextLong() == first);
+		assertTrue(stream.fork(8).nextLong() != first);
+		assertTrue(SplitMix64.derive(42, 7) == stream.fork(7).getSeed());
+		
+		for (EdgeType type : new EdgeType[]{EdgeType.DIRECTED, EdgeType.UNDIRECTED}) {
+			Graph<String, String> population = (new BarabasiAlbertGraphGenerator(200, 10, 50, type)).loadGraph();
+			for (int method = 0; method < 5; method++) {
+				long seed = SplitMix64.derive(1234, method);
+				ViewSampleMethod[] samplers = new ViewSampleMethod[]{
+						makeViewSampler(method, type, seed), makeViewSampler(method, type, seed), makeViewSampler(method, type, seed + 1)};
+				// The second sampler is stopped after every alpha and resumed from its checkpoints by a new one
+				File file = FileSystem.findOpenPath("checkpoints");
+				SampleCheckpoints checkpoints = new SampleCheckpoints(file.getPath());
+				SampleView previous = null;
+				for (double alpha : new double[]{0.1, 0.3, 0.6}) {
+					if (previous != null) {
+						samplers[1] = makeViewSampler(method, type, seed);
+						for (SampleCheckpoints.Checkpoint checkpoint : checkpoints.load(CompactGraph.of(population)))
+							restore(samplers[1], population, checkpoint);
+					}
+					String[] stats = new String[samplers.length];
+					for (int s = 0; s < samplers.length; s++) {
+						samplers[s].changeAlpha(alpha);
+						stats[s] = samplers[s].sampleGraph(population).getCSV();
+					}
+					checkpoints.append(alpha, previous, samplers[1].getSampleView(), samplers[1].getContinuation());
+					previous = samplers[1].getSampleView();
+					
+					// The same seed takes the same sample in the same order, resumed or not, another seed doesn't
+					SampleView a = samplers[0].getSampleView(), b = samplers[1].getSampleView(), c = samplers[2].getSampleView();
+					assertTrue(stats[0].equals(stats[1]));
+					assertSameView(a, b);
+					boolean differs = a.getVertexCount() != c.getVertexCount();
+					for (int i = 0; i < a.getVertexCount(); i++) {
+						assertTrue(a.getVertex(i) == b.getVertex(i));
+						differs |= i < c.getVertexCount() && a.getVertex(i) != c.getVertex(i);
+					}
+					assertTrue(differs);
+					JUnitUtils.checkGraphs(a.toGraph(), b.toGraph());
+				}
+				file.delete();
+			}
+		}
+	}
+	
+	@Test
+	public void TestFrontier() throws IOException, Error {
+		IndexedIntSet set = new IndexedIntSet(10);
+		assertTrue(set.add(3) && set.add(7) && set.add(5) && !set.add(7));
+		assertTrue(set.remove(3) && !set.remove(3) && set.size() == 2);
+		assertTrue(set.contains(7) && set.contains(5) && !set.contains(3));
+		
+		// The frontier kept by the walk is every unsampled out-neighbor of its sample
+		for (EdgeType type : new EdgeType[]{EdgeType.DIRECTED, EdgeType.UNDIRECTED}) {
+			Graph<String, String> population = (new BarabasiAlbertGraphGenerator(200, 10, 50, type)).loadGraph();
+			RNDWalkSampler sampler = new RNDWalkSampler(0.05, 0.9, 9, type);
+			for (double alpha : new double[]{0.05, 0.2, 0.5}) {
+				sampler.changeAlpha(alpha);
+				sampler.sampleGraph(population);
+				SampleView view = sampler.getSampleView();
+				CompactGraph parent = view.getParent();
+				Set<Integer> expected = new HashSet<Integer>();
+				for (int k = 0; k < view.getVertexCount(); k++) {
+					int v = view.getVertex(k);
+					for (int i = parent.getOutOffsets()[v]; i < parent.getOutOffsets()[v + 1]; i++) {
+						if (!view.containsVertex(parent.getOutNeighbors()[i]))
+							expected.add(parent.getOutNeighbors()[i]);
+					}
+				}
+				// Kept as the vertices are added, and made after they were
+				SamplingState kept = new SamplingState(type, false);
+				kept.trackFrontier();
+				kept.attach(population);
+				SamplingState made = new SamplingState(type, false);
+				made.attach(population);
+				for (int k = 0; k < view.getVertexCount(); k++) {
+					kept.addSampled(view.getVertex(k));
+					made.addSampled(view.getVertex(k));
+				}
+				made.trackFrontier();
+				for (SamplingState state : new SamplingState[]{kept, made}) {
+					assertTrue(state.frontierSize() == expected.size());
+					for (int id : expected)
+						assertTrue(state.inFrontier(id));
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void TestMultiWalk() throws IOException, Error {
+		for (EdgeType type : new EdgeType[]{EdgeType.DIRECTED, EdgeType.UNDIRECTED}) {
+			Graph<String, String> population = (new BarabasiAlbertGraphGenerator(200, 10, 50, type)).loadGraph();
+			for (double threshold : new double[]{0.0, 0.5, 1.0}) {
+				RNDMultiWalkSampler sampler = new RNDMultiWalkSampler(0.1, threshold, 21, type, 4);
+				Graph<String, String> sample = sampler.getGraph();
+				SampleView earlier = null;
+				for (double alpha : new double[]{0.1, 0.3, 0.6, 1.0}) {
+					sampler.changeAlpha(alpha);
+					String stats = sampler.sampleGraph(population).getCSV();
+					// Real alpha, threshold, the amount of walkers, then what each added and their thresholds
+					assertTrue(stats.split(",").length == 5 && stats.split(",")[3].split(";").length == 4);
+					
+					// Exactly the target, grown from the last alpha
+					SampleView view = sampler.getSampleView();
+					assertTrue(view.getVertexCount() == (int)Math.ceil(population.getVertexCount() * alpha));
+					for (int k = 0; earlier != null && k < earlier.getVertexCount(); k++)
+						assertTrue(view.getVertex(k) == earlier.getVertex(k));
+					earlier = view;
+					
+					// Every edge is between sampled vertices and walked in the parent
+					JUnitUtils.checkGraphs(view.toGraph(), sample);
+					for (String edge : sample.getEdges()) {
+						assertTrue(sample.getEndpoints(edge).equals(population.getEndpoints(edge)));
+						assertTrue(view.containsVertex(view.getParent().getId(sample.getEndpoints(edge).getFirst())));
+					}
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void TestStreamSample() throws IOException, Error {
+		for (EdgeType type : new EdgeType[]{EdgeType.DIRECTED, EdgeType.UNDIRECTED}) {
+			Graph<String, String> population = (new BarabasiAlbertGraphGenerator(200, 10, 50, type)).loadGraph();
+			File file = FileSystem.findOpenPath("stream");
+			BufferedWriter output = new BufferedWriter(new FileWriter(file));
+			for (String edge : population.getEdges()) {
+				output.write(population.getEndpoints(edge).getFirst() + "\t" + population.getEndpoints(edge).getSecond());
+				output.newLine();
+			}
+			output.close();
+			
+			// Counts the passes over the file
+			final int[] passes = {0};
+			VertexTVertexImporter source = new VertexTVertexImporter(file.getPath(), type, "\t") {
+				@Override
+				public long streamEdges(EdgeHandler handler) throws Error, IOException {
+					passes[0]++;
+					return super.streamEdges(handler);
+				}
+			};
+			StreamPIESSampler sampler = new StreamPIESSampler(0.1, 8, source, population.getVertexCount());
+			for (double alpha : new double[]{0.1, 0.3, 0.6}) {
+				sampler.changeAlpha(alpha);
+				sampler.sampleGraph(null);
+				assertTrue(passes[0] == 1 && sampler.getStreamedEdgeCount() == population.getEdgeCount());
+				passes[0] = 0;
+				
+				// Exactly the target, and every edge is one of the file's between sampled vertices
+				Graph<String, String> sample = sampler.getGraph();
+				assertTrue(sample.getVertexCount() == (int)Math.ceil(population.getVertexCount() * alpha));
+				assertTrue(sample.getEdgeCount() > 0);
+				for (String edge : sample.getEdges()) {
+					Pair<String> ends = sample.getEndpoints(edge);
+					assertTrue(population.findEdge(ends.getFirst(), ends.getSecond()) != null);
+				}
+			}
+			file.delete();
+		}
+	}
+	
+	@Test
+	public void TestStreamEvictionCost() throws IOException, Error {
+		// A star with a path through its leaves, so the hub is in the sample next to most of it while the leaves come and go
+		int leaves = 20000;
+		File file = FileSystem.findOpenPath("stream");
+		BufferedWriter output = new BufferedWriter(new FileWriter(file));
+		for (int i = 0; i < leaves; i++) {
+			output.write("hub\t" + i);
+			output.newLine();
+			output.write(i + "\t" + (i + 1));
+			output.newLine();
+		}
+		output.close();
+		
+		final long[] work = {0};
+		StreamPIESSampler sampler = new StreamPIESSampler(0.05, 2, new VertexTVertexImporter(file.getPath(), EdgeType.UNDIRECTED, "\t"), leaves + 2) {
+			@Override
+			public CSV_Builder sampleGraph(Graph<String, String> parent) {
+				CSV_Builder stats = super.sampleGraph(parent);
+				work[0] = evictionWork;
+				return stats;
+			}
+		};
+		sampler.sampleGraph(null);
+		assertTrue(sampler.getGraph().containsVertex("hub"));
+		// Every edge is only gone through when one of its ends leaves, not every time a neighbor of the hub does
+		assertTrue(work[0] > 0 && work[0] <= 2 * sampler.getStreamedEdgeCount());
+		file.delete();
+	}
+	
+	@Test
+	public void TestBurnCounts() {
+		// The burn count is geometric with mean p/(1-p), and never more than there are neighbors
+		RNDForestFirePaperSampler sampler = new RNDForestFirePaperSampler(0.1, 0.5, 1, EdgeType.DIRECTED, 0.7, 0.2);
+		Random rndGen = new SplitMix64(3);
+		for (double p : new double[]{0.2, 0.5, 0.8}) {
+			long total = 0;
+			for (int i = 0; i < 200000; i++)
+				total += sampler.getNodesAllowed(p, 1000, rndGen);
+			assertTrue(Math.abs(total / 200000.0 - p / (1 - p)) < 0.05);
+		}
+		for (int i = 0; i < 1000; i++)
+			assertTrue(sampler.getNodesAllowed(0.9, 3, rndGen) <= 3);
+		assertTrue(sampler.getNodesAllowed(0, 5, rndGen) == 0 && sampler.getNodesAllowed(1, 5, rndGen) == 5);
+	}
+	
+	@Test
+	public void TestMetroHastingsStep() {
+		// On a star the Metropolis-Hastings walk spends as long at the center as at each leaf
+		Graph<String, String> star = new UndirectedSparseGraph<String, String>();
+		int leaves = 5;
+		for (int i = 0; i < leaves; i++)
+			star.addEdge("e" + i, "center", "leaf" + i);
+		final CompactGraph parent = CompactGraph.of(star);
+		final Random rndGen = new SplitMix64(17);
+		final int[] visits = new int[parent.getVertexCount()];
+		new RNDWalkMetroHastingsSampler(0, 1, 0, EdgeType.UNDIRECTED) {
+			{
+				int at = parent.getId("center");
+				for (int step = 0; step < 600000; step++) {
+					at = pickNextWalk(at, parent, rndGen);
+					visits[at]++;
+				}
+			}
+		};
+		for (int visit : visits)
+			assertTrue(Math.abs(visit / 600000.0 - 1.0 / (leaves + 1)) < 0.01);
+	}
+	
+	private static void restore(ViewSampleMethod sampler, Graph<String, String> population, SampleCheckpoints.Checkpoint checkpoint) {
+		sampler.restoreSample(population, checkpoint.vertices, checkpoint.edges, checkpoint.continuation);
+	}
+	
+	/**
+	 * The views have to hold the same vertices and edges, in the same order
+	 */
+	private static void assertSameView(SampleView a, SampleView b) {
+		assertTrue(a.getVertexCount() == b.getVertexCount() && a.getEdgeCount() == b.getEdgeCount());
+		for (int k = 0; k < a.getVertexCount(); k++)
+			assertTrue(a.getVertex(k) == b.getVertex(k));
+		for (int k = 0; !a.isInduced() && k < a.getEdgeCount(); k++)
+			assertTrue(a.getEdge(k) == b.getEdge(k));
+	}
+	
+	private static ViewSampleMethod makeViewSampler(int method, EdgeType type) {
+		return makeViewSampler(method, type, 5);
+	}
+	
+	private static ViewSampleMethod makeViewSampler(int method, EdgeType type, long seed) {
+		switch (method) {
+		case 0: return new RNDBFSSampler(0.1, 0.5, seed, type);
+		case 1: return new RNDWalkSampler(0.1, 0.5, seed, type);
+		case 2: return new RNDForestFirePaperSampler(0.1, 0.5, seed, type, 0.7, 0.2);
+		case 3: return new RNDWalkMetroHastingsSampler(0.1, 0.5, seed, type);
+		default: return new RNDBFSSingleSampler(0.1, 0.5, seed, type);
+		}
+	}
+	
+	@Test
+	public void TestIntQueue() {
+		IntQueue queue = new IntQueue(4);
+		int next = 0, expected = 0;
+		// Wrap the ring around a few times while it grows
+		for (int round = 1; round <= 50; round++) {
+			for (int i = 0; i < round; i++)
+				queue.add(next++);
+			for (int i = 0; i < round / 2; i++)
+				assertTrue(queue.poll() == expected++);
+			assertTrue(queue.size() == next - expected);
+			assertTrue(queue.get(0) == expected);
+		}
+		while (!queue.isEmpty())
+			assertTrue(queue.poll() == expected++);
+		assertTrue(expected == next);
+	}
+	
 	@Test
 	public void TestUndirectedGraph() throws IOException, Error {
 		Graph<String, String> population;
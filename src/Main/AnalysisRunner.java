@@ -1,20 +1,21 @@
 package Main;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Random;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -25,23 +26,34 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import GraphAnalyzers.AnalyzerDistribution;
+import GraphAnalyzers.ApproxBCAnalyzer;
 import GraphAnalyzers.BCAnalyzer;
 import GraphAnalyzers.EDAnalyzer;
 import GraphAnalyzers.InDegreeAnalyzer;
+import GraphAnalyzers.MeasureVector;
 import GraphAnalyzers.OutDegreeAnalyzer;
 import GraphAnalyzers.WCCSizeAnalysis;
 import GraphCreation.BasicGraph;
+import GraphCreation.BinaryGraph;
+import GraphCreation.CompactGraph;
 import GraphCreation.GeneratedGraph;
+import GraphCreation.VertexTVertexImporter;
 import SamplingAlgorithms.RNDBFSSingleSampler;
 import SamplingAlgorithms.RNDForestFirePaperSampler;
+import SamplingAlgorithms.RNDMultiWalkSampler;
 import SamplingAlgorithms.RNDWalkMetroHastingsSampler;
 import SamplingAlgorithms.RNDWalkSampler;
+import SamplingAlgorithms.StreamPIESSampler;
 import SamplingAlgorithms.TargetedSampleMethod;
+import SamplingAlgorithms.SampleCheckpoints;
+import SamplingAlgorithms.SampleView;
+import SamplingAlgorithms.ViewSampleMethod;
 import Utils.ArgumentReader;
 import Utils.CSV_Builder;
 import Utils.CSV_Builder_Objects.CSV_Percent;
 import Utils.HardCode;
 import Utils.JobTracker;
+import Utils.SplitMix64;
 import edu.uci.ics.jung.graph.Graph;
 
 /**
@@ -53,6 +65,8 @@ import edu.uci.ics.jung.graph.Graph;
 public class AnalysisRunner {
 	
 	static final int replicaLength = 10;
+	// The amount of walks the multi-walker runs at once for each of its replicas
+	static final int walkerCount = 4;
 	
 	static final String csv_header = "\"Parent Node Count\","
 						+ "\"Parent Edge Count\","
@@ -78,14 +92,24 @@ public class AnalysisRunner {
 						+ "\"Spearmans\","
 						+ "\"Pearsons\","
 						+ "\"Error\","
+						+ "\"Kendalls\","
 //						+ "\"KL\","
 						+ "\"Population P/R Alpha\","
 						+ "\"Sample P/R Alpha\","
 						+ "\"Precision\","
 						+ "\"Recall\","
 						+ "\"KS Statistic\","
+						+ "\"KS P-Value\","
 					;
 	
+	// The multi-walker also reports its walkers, what each added and their own thresholds
+	static final String csv_header_MW = csv_header.replace("\"Real BFS:RND\",", 
+			"\"Real BFS:RND\",\"Walkers\",\"Walker Added (#)\",\"Walker Real BFS:RND\",");
+	
+	// The streamed samples report their share of the file's edges, and are split by edge type rather than a threshold
+	static final String csv_header_Stream = csv_header.replace("\"Real BFS:RND\",", "\"Sample Edge Share\",")
+			.replace("\"BFS:RND\",", "\"Edge Type\",");
+	
 	static final String csv_header_FF = 
 			"\"Parent Node Count\","
 			+ "\"Parent Edge Count\","
@@ -113,12 +137,14 @@ public class AnalysisRunner {
 			+ "\"Spearmans\","
 			+ "\"Pearsons\","
 			+ "\"Error\","
+			+ "\"Kendalls\","
 //			+ "\"KL\","
 			+ "\"Population P/R Alpha\","
 			+ "\"Sample P/R Alpha\","
 			+ "\"Precision\","
 			+ "\"Recall\","
 			+ "\"KS Statistic\","
+			+ "\"KS P-Value\","
 		;
 	
 	// Probability needed for the Forest Fire
@@ -142,6 +168,37 @@ public class AnalysisRunner {
 	
 	static volatile ExecutorService threadPool;
 	
+	// Whether the graphs are also exported as Pajek files next to their binary snapshots
+	static volatile boolean exportPajek = false;
+	
+	// The seed every sampler's stream is derived from, kept in the output folder so a run can be repeated or resumed. A resumed
+	// sampler takes the same samples as one that wasn't stopped since its checkpoints hold its state too, except for the
+	// multi-walk, whose walkers don't interleave the same way twice
+	static volatile long runSeed;
+	
+	/**
+	 * The seed of a replica's sampler, its own stream of the run seed. Each alpha is forked from it by the sampler
+	 * @param testName - the sampling method, and anything else that sets the samples apart
+	 * @param threshold
+	 * @param replica
+	 * @return the seed of the sampler
+	 */
+	static long sampleSeed(String testName, double threshold, int replica) {
+		return SplitMix64.derive(runSeed, SplitMix64.key(testName), SplitMix64.key(threshold), replica);
+	}
+	
+	/**
+	 * Exports the graph as a binary snapshot, and as a Pajek file if that was asked for
+	 * @param graph
+	 * @param folder - the folder the data files are written into
+	 * @throws IOException
+	 */
+	public static void exportGraph(Graph<String, String> graph, String folder) throws IOException {
+		BinaryGraph.exportGraph(graph, folder + HardCode.pDataFix);
+		if (exportPajek)
+			BasicGraph.exportGraph(graph, folder + HardCode.pPajekFix);
+	}
+	
 	/**
 	 * Convenience function to stop all the executor services if there's an error
 	 */
@@ -178,7 +235,7 @@ public class AnalysisRunner {
 		
 		// Get the WCC of this graph so that we better understand it's density
 		tracker.startTracking("WCC calculation of " + jobName);
-		Integer WCC = (new WCCSizeAnalysis()).computeOrProcess(graph, outputDir + HardCode.pWccPostfix).keySet().size();
+		Integer WCC = (new WCCSizeAnalysis()).countComponents(graph, outputDir + HardCode.pWccPostfix);
 		tracker.endTracking("WCC calculation of " + jobName);
 		return new CSV_Builder(WCC);
 	}
@@ -186,23 +243,33 @@ public class AnalysisRunner {
 	/**
 	 * The different holders for the population data -- to be shared among threads
 	 */
-	// Volatile is needed since they aren't pulled from a function
-	static volatile ConcurrentHashMap<String, Double> populationBC;
-	static volatile ConcurrentHashMap<String, Double> populationInDegree;
-	static volatile ConcurrentHashMap<String, Double> populationOutDegree;
-	static volatile ConcurrentHashMap<String, Double> populationED;
+	// Volatile is needed since they aren't pulled from a function. The vectors are only ever read, so the threads share them
+	static volatile MeasureVector populationBC;
+	static volatile MeasureVector populationInDegree;
+	static volatile MeasureVector populationOutDegree;
+	static volatile MeasureVector populationED;
+	// The sorted orders and ranks of the populations, made once when they're posted and shared by every comparison
+	static volatile PopulationIndex populationBCIndex;
+	static volatile PopulationIndex populationInDegreeIndex;
+	static volatile PopulationIndex populationOutDegreeIndex;
+	static volatile PopulationIndex populationEDIndex;
 
 	
 	private static Lock popSetLock = new ReentrantLock();
 	private static Condition popWait = popSetLock.newCondition();
 	
-	public static void setPop(Map<String, Double> popBC, Map<String, Double> popInDegree, Map<String, Double> popOutDegree, Map<String, Double> popED) {
+	public static void setPop(MeasureVector popBC, MeasureVector popInDegree, MeasureVector popOutDegree, MeasureVector popED) {
 		popSetLock.lock();
 		System.out.println("Population Values Posted");
-		populationBC = new ConcurrentHashMap<String, Double>(popBC);
-		populationInDegree = new ConcurrentHashMap<String, Double>(popInDegree);
-		populationOutDegree = new ConcurrentHashMap<String, Double>(popOutDegree);
-		populationED = new ConcurrentHashMap<String, Double>(popED);
+		populationBC = popBC;
+		populationInDegree = popInDegree;
+		populationOutDegree = popOutDegree;
+		populationED = popED;
+		// ED is better when it's small, so its top is sorted backwards
+		populationBCIndex = new PopulationIndex(popBC, false);
+		populationInDegreeIndex = new PopulationIndex(popInDegree, false);
+		populationOutDegreeIndex = new PopulationIndex(popOutDegree, false);
+		populationEDIndex = new PopulationIndex(popED, true);
 		popWait.signalAll();
 		popSetLock.unlock();
 	}
@@ -242,6 +309,18 @@ public class AnalysisRunner {
 			this.ID = ID;
 		}
 
+		/**
+		 * The sampling statistics of a sample that was imported rather than sampled, one "Imported" for each of the method's columns
+		 */
+		private CSV_Builder importedStats() {
+			// Real Alpha, Real Threshold, and the multi-walker's Walkers, Walker Added, Walker Real Threshold
+			int columns = (sampleMethod instanceof RNDMultiWalkSampler) ? 5 : 2;
+			CSV_Builder stats = new CSV_Builder("Imported");
+			for (int i = 1; i < columns; i++)
+				stats = new CSV_Builder("Imported", stats);
+			return stats;
+		}
+
 		@Override
 		// Link: ID <-- alpha(%), vert(#), edge(#) <-- Iterations, real alpha, real threshold, WCC, Duration, Measure
 		// Added at the end: [KS, KS adj]
@@ -249,6 +328,23 @@ public class AnalysisRunner {
 			// Use the ID to consolidate everything together
 			CSV_Builder cID = new CSV_Builder(this.ID);
 			
+			// A sample kept as a view of the parent grows through every alpha, so each alpha is a checkpoint of the one sample
+			// rather than a graph of its own. Finished checkpoints are read back into the sampler, along with the state it
+			// carries between alphas, so it carries on from them as if the run had never stopped
+			ViewSampleMethod viewMethod = null;
+			SampleCheckpoints checkpoints = null;
+			SampleView lastView = null;
+			Map<Double, SampleView> restored = new HashMap<Double, SampleView>();
+			if (sampleMethod instanceof ViewSampleMethod) {
+				viewMethod = (ViewSampleMethod)sampleMethod;
+				checkpoints = new SampleCheckpoints(sampleDir + HardCode.pSampleOrderFix);
+				for (SampleCheckpoints.Checkpoint checkpoint : checkpoints.load(CompactGraph.of(parentGraph))) {
+					viewMethod.restoreSample(parentGraph, checkpoint.vertices, checkpoint.edges, checkpoint.continuation);
+					lastView = viewMethod.getSampleView();
+					restored.put(checkpoint.alpha, lastView);
+				}
+			}
+			
 			for (double alpha : alphaArea) {
 				// Record it's own job stuff in here!
 				JobTracker sampleTracker = new JobTracker();
@@ -264,21 +360,37 @@ public class AnalysisRunner {
 				Graph<String, String> sample;
 				// All of the options should be the same Iterations, Real Alpha, Real Threshold
 				CSV_Builder cSamplingStats;
-				if ((new File(aFolder + HardCode.pDataFix)).isFile()) {
+				if (restored.containsKey(alpha)) {
+					// The checkpoint of this alpha was read back in
+					sample = restored.get(alpha).toCompactGraph().asGraph();
+					cSamplingStats = importedStats();
+				} else if ((new File(aFolder + HardCode.pDataFix)).isFile()) {
 					// Load the already finished graph
-					sample = (new BasicGraph(aFolder + HardCode.pDataFix)).loadGraph();
-					cSamplingStats = new CSV_Builder("Imported", 
-							new CSV_Builder("Imported")
-					);
+					sample = (new BinaryGraph(aFolder + HardCode.pDataFix)).loadCompactGraph().asGraph();
+					cSamplingStats = importedStats();
 				} else {
 					// First we need to actually generate the sample graph
 					sampleTracker.startTracking("Initial sampling of " + sampleName + "-a" + Utils.HardCode.dcf.format(alpha*10000));
 					cSamplingStats = sampleMethod.sampleGraph(parentGraph);
-					sample = sampleMethod.getGraph();
-					sampleTracker.endTracking("Initial sampling of " + sampleName + "-a" + Utils.HardCode.dcf.format(alpha*10000));
-
-					// Output the graph since it hasn't been exported yet
-					BasicGraph.exportGraph(sample, aFolder + HardCode.pDataFix);
+					// Made compact once, so all of the analyzers share its vertex ids. Samples kept as views of the parent
+					// are built straight from it, without a graph copy
+					if (viewMethod != null) {
+						SampleView view = viewMethod.getSampleView();
+						sample = view.toCompactGraph().asGraph();
+						sampleTracker.endTracking("Initial sampling of " + sampleName + "-a" + Utils.HardCode.dcf.format(alpha*10000));
+						
+						// Only what was sampled since the last alpha is written out
+						checkpoints.append(alpha, lastView, view, viewMethod.getContinuation());
+						lastView = view;
+						if (exportPajek)
+							BasicGraph.exportGraph(sample, aFolder + HardCode.pPajekFix);
+					} else {
+						sample = CompactGraph.of(sampleMethod.getGraph()).asGraph();
+						sampleTracker.endTracking("Initial sampling of " + sampleName + "-a" + Utils.HardCode.dcf.format(alpha*10000));
+						
+						// Output the graph since it hasn't been exported yet
+						exportGraph(sample, aFolder);
+					}
 				}
 				
 				/** Now begin the analysis **/
@@ -296,16 +408,16 @@ public class AnalysisRunner {
 				analyzers.put(HardCode.pEDPostfix, (new EDAnalyzer()));
 			
 				// A grouping for all of the sample outputs
-				HashMap<String, Double> bcVal = null;
-				HashMap<String, Double> edVal = null;
-				HashMap<String, Double> ideVal = null;
-				HashMap<String, Double> odeVal = null;
+				MeasureVector bcVal = null;
+				MeasureVector edVal = null;
+				MeasureVector ideVal = null;
+				MeasureVector odeVal = null;
 				
 				// Run all of the analyzers
 				for (Entry<String, AnalyzerDistribution> analyzer : analyzers.entrySet()) {
 					// Find and process the analyzer of the graph
 					sampleTracker.startTracking(analyzer.getValue().getName() + " of " + sampleName + "-a" + Utils.HardCode.dcf.format(alpha*10000));
-					HashMap<String, Double> sampleValue = new HashMap<String, Double>(analyzer.getValue().computeOrProcess(sample, aFolder + analyzer.getKey()));
+					MeasureVector sampleValue = analyzer.getValue().computeOrProcessVector(sample, aFolder + analyzer.getKey());
 					sampleTracker.endTracking(analyzer.getValue().getName() + " of " + sampleName + "-a" + Utils.HardCode.dcf.format(alpha*10000));
 
 					// Generate the CSV_Builder to link
@@ -316,23 +428,23 @@ public class AnalysisRunner {
 					if (analyzer.getValue() instanceof BCAnalyzer) {
 						bcVal = sampleValue;
 						
-						cDur.LinkToEnd(MeasureComparison.compare(populationBC, sampleValue)); // [correlation, PR]
+						cDur.LinkToEnd(MeasureComparison.compare(populationBCIndex, sampleValue)); // [correlation, PR]
 						cDur.LinkToEnd(MeasureComparison.KSCompare(populationBC, sampleValue)); // [KS]
 					} else if (analyzer.getValue() instanceof InDegreeAnalyzer) {
 						ideVal = sampleValue;
 
-						cDur.LinkToEnd(MeasureComparison.compare(populationInDegree, sampleValue)); // [correlation, PR]
+						cDur.LinkToEnd(MeasureComparison.compare(populationInDegreeIndex, sampleValue)); // [correlation, PR]
 						cDur.LinkToEnd(MeasureComparison.KSCompare(populationInDegree, sampleValue)); // [KS]
 					} else if (analyzer.getValue() instanceof OutDegreeAnalyzer) {
 						odeVal = sampleValue;
 
-						cDur.LinkToEnd(MeasureComparison.compare(populationOutDegree, sampleValue)); // [correlation, PR]
+						cDur.LinkToEnd(MeasureComparison.compare(populationOutDegreeIndex, sampleValue)); // [correlation, PR]
 						cDur.LinkToEnd(MeasureComparison.KSCompare(populationOutDegree, sampleValue)); // [KS]
 					} else {
 						// THIS HAS BEEN SORTED BACKWARDS
 						edVal = sampleValue;
 
-						cDur.LinkToEnd(MeasureComparison.compare(populationED, sampleValue, true)); // [correlation, PR]
+						cDur.LinkToEnd(MeasureComparison.compare(populationEDIndex, sampleValue)); // [correlation, PR]
 						cDur.LinkToEnd(MeasureComparison.KSCompare(populationED, sampleValue)); // [KS]
 					}
 					
@@ -342,27 +454,23 @@ public class AnalysisRunner {
 				
 				// Now try to cross-correlate the samples (with correlation and P/R)
 				// Does the top 10% of a sample predict the top 10% of another sample?
-				ArrayList<Entry<String, Double>> bcList = new ArrayList<Entry<String, Double>>(bcVal.entrySet());
-				ArrayList<Entry<String, Double>> edList = new ArrayList<Entry<String, Double>>(edVal.entrySet());
-				ArrayList<Entry<String, Double>> ideList = new ArrayList<Entry<String, Double>>(ideVal.entrySet());
-				ArrayList<Entry<String, Double>> odeList = new ArrayList<Entry<String, Double>>(odeVal.entrySet());
+				double[] topPercentages = {0.1, 0.2, 0.5};
 				
-				Collections.sort(bcList, MeasureComparison.entrySort);
-				Collections.sort(ideList, MeasureComparison.entrySort);
-				Collections.sort(odeList, MeasureComparison.entrySort);
+				// Only the tops being compared are sorted
+				int[] bcList = bcVal.topSortedIds(MeasureComparison.sortedPrefix(bcVal.size(), topPercentages), false);
+				int[] ideList = ideVal.topSortedIds(MeasureComparison.sortedPrefix(ideVal.size(), topPercentages), false);
+				int[] odeList = odeVal.topSortedIds(MeasureComparison.sortedPrefix(odeVal.size(), topPercentages), false);
 				// This has been reversed since ED is better when it's small
-				Collections.sort(edList, MeasureComparison.entrySortBackwards);
-				
-				double[] topPercentages = {0.1, 0.2, 0.5};
+				int[] edList = edVal.topSortedIds(MeasureComparison.sortedPrefix(edVal.size(), topPercentages), true);
 				
 				// Returns: percent, precision, recall
 				List<CSV_Builder> crossCorrelations = new LinkedList<CSV_Builder>();
-				crossCorrelations.add(new CSV_Builder("BC-ED", MeasureComparison.PRCompare(bcList, edList, topPercentages)));
-				crossCorrelations.add(new CSV_Builder("BC-InDegree", MeasureComparison.PRCompare(bcList, ideList, topPercentages)));
-				crossCorrelations.add(new CSV_Builder("ED-InDegree", MeasureComparison.PRCompare(edList, ideList, topPercentages)));
-				crossCorrelations.add(new CSV_Builder("OutDegree-BC", MeasureComparison.PRCompare(odeList, bcList, topPercentages)));
-				crossCorrelations.add(new CSV_Builder("OutDegree-ED", MeasureComparison.PRCompare(odeList, edList, topPercentages)));
-				crossCorrelations.add(new CSV_Builder("OutDegree-InDegree", MeasureComparison.PRCompare(odeList, ideList, topPercentages)));
+				crossCorrelations.add(new CSV_Builder("BC-ED", MeasureComparison.PRCompare(bcVal, bcList, edVal, edList, topPercentages)));
+				crossCorrelations.add(new CSV_Builder("BC-InDegree", MeasureComparison.PRCompare(bcVal, bcList, ideVal, ideList, topPercentages)));
+				crossCorrelations.add(new CSV_Builder("ED-InDegree", MeasureComparison.PRCompare(edVal, edList, ideVal, ideList, topPercentages)));
+				crossCorrelations.add(new CSV_Builder("OutDegree-BC", MeasureComparison.PRCompare(odeVal, odeList, bcVal, bcList, topPercentages)));
+				crossCorrelations.add(new CSV_Builder("OutDegree-ED", MeasureComparison.PRCompare(odeVal, odeList, edVal, edList, topPercentages)));
+				crossCorrelations.add(new CSV_Builder("OutDegree-InDegree", MeasureComparison.PRCompare(odeVal, odeList, ideVal, ideList, topPercentages)));
 				
 				// Write out the respective job times
 				BufferedWriter jobOutput = new BufferedWriter(new FileWriter(Utils.FileSystem.findOpenPath(aFolder + HardCode.pSummaryPostfix)));
@@ -404,6 +512,7 @@ public class AnalysisRunner {
 		
 		// Read in the arguments
 		ArgumentReader loader = ArgumentReader.read(args);
+		exportPajek = loader.myExportPajek;
 		
 		// This may be inefficient, but it's easier to keep track of
 		JobTracker mainTracker = new JobTracker();
@@ -412,24 +521,46 @@ public class AnalysisRunner {
 		// Make the overall output folder
 		Utils.FileSystem.createFolder(loader.myOutput);
 		
+		// Use the seed asked for, or the one the output was started with, or a new one. It's written out so the run can be repeated
+		File seedFile = new File(loader.myOutput + HardCode.pSeedFix);
+		if (loader.mySeed != null) {
+			runSeed = loader.mySeed;
+		} else if (seedFile.isFile()) {
+			BufferedReader seedInput = new BufferedReader(new FileReader(seedFile));
+			runSeed = Long.valueOf(seedInput.readLine().trim());
+			seedInput.close();
+		} else {
+			runSeed = (new Random()).nextLong();
+		}
+		BufferedWriter seedOutput = new BufferedWriter(new FileWriter(seedFile));
+		seedOutput.write(Long.toString(runSeed));
+		seedOutput.newLine();
+		seedOutput.close();
+		
 		// Redirect the output, including errors
 		System.setOut(new PrintStream(new FileOutputStream(new File(loader.myOutput + "/Console.txt"))));
 		System.setErr(new PrintStream(new FileOutputStream(new File(loader.myOutput + "/Err.txt"))));
 
-		// Import in the overall graph
+		// A streamed graph is never loaded, only its samples are
+		if (loader.myStreamSource != null) {
+			runStream(loader, mainTracker);
+			return;
+		}
+
+		// Import in the overall graph. It's held as a CompactGraph and shared through its read-only JUNG view
 		StringBuilder summary = new StringBuilder();
 		Graph<String, String> graph;
 		if (loader.myGraphLoader instanceof GeneratedGraph) {
 			if ((new File(loader.myOutput + HardCode.pDataFix)).isFile() == false) {
-				graph = loader.myGraphLoader.loadGraph();
+				graph = loader.myGraphLoader.loadCompactGraph().asGraph();
 				mainTracker.startTracking("Export Generated Graph");
-				BasicGraph.exportGraph(graph, loader.myOutput + HardCode.pDataFix);
+				exportGraph(graph, loader.myOutput);
 				mainTracker.endTracking("Export Generated Graph");
 			} else {
-				graph = (new BasicGraph(loader.myOutput + HardCode.pDataFix)).loadGraph();
+				graph = (new BinaryGraph(loader.myOutput + HardCode.pDataFix)).loadCompactGraph().asGraph();
 			}
 		} else {
-			graph = loader.myGraphLoader.loadGraph();
+			graph = loader.myGraphLoader.loadCompactGraph().asGraph();
 		}
 		summary.append(loader.myGraphLoader.getInformation());
 
@@ -455,45 +586,39 @@ public class AnalysisRunner {
 		}
 		
 		/** Now generate/load the results **/
-		ConcurrentHashMap<String, Double> popBC, popInDegree, popOutDegree, popED;
-		// BC
+		MeasureVector popBC, popInDegree, popOutDegree, popED;
+		// BC, which can be approximated for graphs that are too large
+		AnalyzerDistribution popBCAnalyzer = (loader.myApproxBCEpsilon > 0) ? 
+				new ApproxBCAnalyzer(loader.myApproxBCEpsilon, loader.myApproxBCDelta, SplitMix64.derive(runSeed, SplitMix64.key("population"))) : new BCAnalyzer();
 		if ((new File(sPopBC)).exists()) {
-			popBC = new ConcurrentHashMap<String, Double>(
-					(new BCAnalyzer()).read(sPopBC));
+			popBC = popBCAnalyzer.readCached(sPopBC);
 		} else {
 			mainTracker.startTracking("Pop BC Calculation");
-			popBC = new ConcurrentHashMap<String, Double>(
-					(new BCAnalyzer()).analyzeGraph(graph, sPopBC));
+			popBC = popBCAnalyzer.analyzeVector(graph, sPopBC);
 			mainTracker.endTracking("Pop BC Calculation");
 		}
 		// InDegree
 		if ((new File(sPopInDegree)).exists()) {
-			popInDegree = new ConcurrentHashMap<String, Double>(
-					(new InDegreeAnalyzer()).read(sPopInDegree));
+			popInDegree = (new InDegreeAnalyzer()).readCached(sPopInDegree);
 		} else {
 			mainTracker.startTracking("Pop Degree Calculation");
-			popInDegree = new ConcurrentHashMap<String, Double>(
-					(new InDegreeAnalyzer()).analyzeGraph(graph, sPopInDegree));
+			popInDegree = (new InDegreeAnalyzer()).analyzeVector(graph, sPopInDegree);
 			mainTracker.endTracking("Pop Degree Calculation");
 		}
 		// OutDegree
 		if ((new File(sPopOutDegree)).exists()) {
-			popOutDegree = new ConcurrentHashMap<String, Double>(
-					(new OutDegreeAnalyzer()).read(sPopOutDegree));
+			popOutDegree = (new OutDegreeAnalyzer()).readCached(sPopOutDegree);
 		} else {
 			mainTracker.startTracking("Pop Degree Calculation");
-			popOutDegree = new ConcurrentHashMap<String, Double>(
-					(new OutDegreeAnalyzer()).analyzeGraph(graph, sPopOutDegree));
+			popOutDegree = (new OutDegreeAnalyzer()).analyzeVector(graph, sPopOutDegree);
 			mainTracker.endTracking("Pop Degree Calculation");
 		}
 		// Ego-centric Density
 		if ((new File(sPopED)).exists()) {
-			popED = new ConcurrentHashMap<String, Double>(
-					(new EDAnalyzer()).read(sPopED));
+			popED = (new EDAnalyzer()).readCached(sPopED);
 		} else {
 			mainTracker.startTracking("Pop Egocentric Density Calculation");
-			popED = new ConcurrentHashMap<String, Double>(
-					(new EDAnalyzer()).analyzeGraph(graph, sPopED));
+			popED = (new EDAnalyzer()).analyzeVector(graph, sPopED);
 			mainTracker.endTracking("Pop Egocentric Density Calculation");
 		}
 		// Generic Information - checks now to see if already existent
@@ -532,7 +657,7 @@ public class AnalysisRunner {
 				Utils.FileSystem.createFolder(sampleDir);
 				
 				// Create the shell of the sample
-				TargetedSampleMethod sampleMethod = new RNDBFSSingleSampler(0.00, threshold, graph.getDefaultEdgeType());
+				TargetedSampleMethod sampleMethod = new RNDBFSSingleSampler(0.00, threshold, sampleSeed(testName, threshold, replica), graph.getDefaultEdgeType());
 				
 				// Run the sample threads
 				// Link: ID <-- alpha(%), vert(#), edge(#) <-- Iterations, real alpha, real threshold, WCC, Duration, Measure
@@ -593,7 +718,7 @@ public class AnalysisRunner {
 				Utils.FileSystem.createFolder(sampleDir);
 				
 				// Create the shell of the sample
-				TargetedSampleMethod sampleMethod = new RNDBFSSingleSampler(0.00, threshold, graph.getDefaultEdgeType());
+				TargetedSampleMethod sampleMethod = new RNDBFSSingleSampler(0.00, threshold, sampleSeed(testName, threshold, replica), graph.getDefaultEdgeType());
 				
 				// Run the sample threads
 				// Link: ID <-- alpha(%), vert(#), edge(#) <-- Iterations, real alpha, real threshold, WCC, Duration, Measure
@@ -651,7 +776,7 @@ public class AnalysisRunner {
 				Utils.FileSystem.createFolder(sampleDir);
 				
 				// Create the shell of the sample
-				TargetedSampleMethod sampleMethod = new RNDBFSSingleSampler(0.00, threshold, graph.getDefaultEdgeType());
+				TargetedSampleMethod sampleMethod = new RNDBFSSingleSampler(0.00, threshold, sampleSeed(testName, threshold, replica), graph.getDefaultEdgeType());
 				
 				// Run the sample threads
 				// Link: ID <-- alpha(%), vert(#), edge(#) <-- Iterations, real alpha, real threshold, WCC, Duration, Measure
@@ -711,7 +836,7 @@ public class AnalysisRunner {
 				Utils.FileSystem.createFolder(sampleDir);
 				
 				// Create the shell of the sample
-				TargetedSampleMethod sampleMethod = new RNDWalkSampler(0.00, threshold, graph.getDefaultEdgeType());
+				TargetedSampleMethod sampleMethod = new RNDWalkSampler(0.00, threshold, sampleSeed(testName, threshold, replica), graph.getDefaultEdgeType());
 				
 				// Run the sample threads
 				// Link: ID <-- alpha(%), vert(#), edge(#) <-- Iterations, real alpha, real threshold, WCC, Duration, Measure
@@ -772,7 +897,7 @@ public class AnalysisRunner {
 				Utils.FileSystem.createFolder(sampleDir);
 				
 				// Create the shell of the sample
-				TargetedSampleMethod sampleMethod = new RNDWalkMetroHastingsSampler(0.00, threshold, graph.getDefaultEdgeType());
+				TargetedSampleMethod sampleMethod = new RNDWalkMetroHastingsSampler(0.00, threshold, sampleSeed(testName, threshold, replica), graph.getDefaultEdgeType());
 				
 				// Run the sample threads
 				// Link: ID <-- alpha(%), vert(#), edge(#) <-- Iterations, real alpha, real threshold, WCC, Duration, Measure
@@ -808,10 +933,67 @@ public class AnalysisRunner {
 		csvOutput.close();
 		
 
+		/** Random Multi-Walker Sampling! **/
+		// Begin the sampling!
+		testName = "MultiWalk";
+		test = new CSV_Builder(testName);
+		mFolder = sampleOverallDir + testName;
+		Utils.FileSystem.createFolder(mFolder);
+		for (double threshold : thresholdArea2) {
+			String tFolder = mFolder + "/thresh" + HardCode.dcf.format(threshold*10000);
+			Utils.FileSystem.createFolder(tFolder);
+			
+			// Create an array to hold the different threads
+			ArrayList<Callable<CSV_Builder>> tasks = new ArrayList<Callable<CSV_Builder>>();
+			
+			CSV_Builder input = new CSV_Builder(new CSV_Percent(threshold));
+			
+			// Run the analysis
+			for (int replica = 0; replica < replicaLength; replica++) {
+				// Uniquely name this version and create its folder
+				String sampleName = "sample" + replica;
+				String sampleDir = tFolder + "/" + sampleName;
+				Utils.FileSystem.createFolder(sampleDir);
+				
+				// Create the shell of the sample
+				TargetedSampleMethod sampleMethod = new RNDMultiWalkSampler(0.00, threshold, sampleSeed(testName, threshold, replica), graph.getDefaultEdgeType(), walkerCount);
+				
+				// Run the sample threads
+				// Link: ID <-- alpha(%), vert(#), edge(#) <-- Iterations, real alpha, real threshold, WCC, Duration, Measure
+				tasks.add(new SampleThreadRunner(sampleDir, sampleName, sampleMethod, graph, replica));
+
+				if (tasks.size() >= maxThreads) {
+					// threshold(%) <-- replica ID, alpha (%), sample nodes, sample edges, Iterations, Real Alpha, Real Threshold, WCC, BC Duration, corrSize(%), corrSize(#), Spearmans, Pearsons, Error, Kendalls			
+					runThreads(input, tasks, loader.myTimeOut, loader.myTimeOutUnit, tFolder);
+					test.LinkTo(input);
+					tasks.clear();
+					input = new CSV_Builder(new CSV_Percent(threshold));
+				}
+			}
+			
+			// threshold(%) <-- replica ID, alpha (%), sample nodes, sample edges, Iterations, Real Alpha, Real Threshold, WCC, BC Duration, corrSize(%), corrSize(#), Spearmans, Pearsons, Error, Kendalls			
+			runThreads(input, tasks, loader.myTimeOut, loader.myTimeOutUnit, tFolder);
+			test.LinkTo(input);
+			tasks.clear();
+		}
+		// Lastly add the sample type used and the overall graph information
+		mainData = new CSV_Builder(graph.getVertexCount(), // parent node count
+				new CSV_Builder(graph.getEdgeCount(), // parent edge count
+						test)); // sample method type
+		
+		// Results array: threshold, maxSample(#), ID, alpha(%), vert(#), edge(#) <-- Iterations, real alpha, real threshold, WCC, Duration, Measure
+		// Link: sampleType
+
+		// Output the statistics on the correlations
+		csvOutput = Utils.FileSystem.createWriter(Utils.FileSystem.findOpenPath(loader.myOutput + HardCode.pAnalysisFolder + "/" + testName + HardCode.pCorrPostfix));
+		csvOutput.write(csv_header_MW);
+		csvOutput.newLine();
+		mainData.writeCSV(csvOutput);
+		csvOutput.close();
+		
+
 		/** Random Forest Sampling **/
 		// Begin the sampling!
-		/*
-		 * TODO: THIS DOESN'T HAVE THE THREAD LIMITER
 		testName = "ForestFire";
 		test = new CSV_Builder(testName);
 		mFolder = sampleOverallDir + testName;
@@ -828,6 +1010,8 @@ public class AnalysisRunner {
 				String fpFolder = tFolder + "/FP" + HardCode.dcf.format(forwardProb[i]*10000);
 				Utils.FileSystem.createFolder(fpFolder);
 				
+				CSV_Builder input = new CSV_Builder(new CSV_Percent(threshold));
+				
 				// Run the analysis
 				for (int replica = 0; replica < replicaLength; replica++) {
 					// Uniquely name this version and create its folder
@@ -836,33 +1020,29 @@ public class AnalysisRunner {
 					Utils.FileSystem.createFolder(sampleDir);
 					
 					// Create the shell of the sample
-					TargetedSampleMethod sampleMethod = new RNDForestFirePaperSampler(0.00, threshold, graph.getDefaultEdgeType(), forwardProb[i], backProb[i]);
+					TargetedSampleMethod sampleMethod = new RNDForestFirePaperSampler(0.00, threshold, sampleSeed(testName + "/FP" + forwardProb[i], threshold, replica), 
+							graph.getDefaultEdgeType(), forwardProb[i], backProb[i]);
 					
 					// Run the sample threads
 					// Link: ID <-- alpha(%), vert(#), edge(#) <-- Iterations, real alpha, real threshold, WCC, Duration, Measure
 					tasks.add(new SampleThreadRunner(sampleDir, sampleName, sampleMethod, graph, replica));
+					
+					if (tasks.size() >= maxThreads) {
+						// threshold(%) <-- replica ID, alpha (%), sample nodes, sample edges, Iterations, Real Alpha, Real Threshold, WCC, BC Duration, corrSize(%), corrSize(#), Spearmans, Pearsons, Error, Kendalls
+						runThreads(input, tasks, loader.myTimeOut, loader.myTimeOutUnit, fpFolder);
+						// Create a csv-section for this, and link it to the test it's on
+						test.LinkTo(new CSV_Builder(new CSV_Percent(forwardProb[i]), new CSV_Builder(new CSV_Percent(backProb[i]), input)));
+						tasks.clear();
+						input = new CSV_Builder(new CSV_Percent(threshold));
+					}
 				}
 				
-				CSV_Builder input = new CSV_Builder(new CSV_Percent(threshold));
 				// threshold(%) <-- replica ID, alpha (%), sample nodes, sample edges, Iterations, Real Alpha, Real Threshold, WCC, BC Duration, corrSize(%), corrSize(#), Spearmans, Pearsons, Error, Kendalls
-				for (Future<CSV_Builder> retVal : threadPool.invokeAll(tasks, loader.myTimeOut, loader.myTimeOutUnit)) {
-					try {
-						input.LinkTo(retVal.get());
-					} catch (ExecutionException e) {
-						e.printStackTrace();
-						System.err.println("culprit is one of: " + tFolder);
-					} catch (InterruptedException e) {
-						e.printStackTrace();
-						System.err.println("the iteration probably took too long: " + tFolder);						
-					}
+				if (!tasks.isEmpty()) {
+					runThreads(input, tasks, loader.myTimeOut, loader.myTimeOutUnit, fpFolder);
+					test.LinkTo(new CSV_Builder(new CSV_Percent(forwardProb[i]), new CSV_Builder(new CSV_Percent(backProb[i]), input)));
+					tasks.clear();
 				}
-				
-				// Create a csv-section for this
-				CSV_Builder run = new CSV_Builder(new CSV_Percent(forwardProb[i]), new CSV_Builder(new CSV_Percent(backProb[i]), input));
-				
-				// Link the input to the test it's on
-				test.LinkTo(run);
-				tasks.clear();	
 			}
 		}
 
@@ -880,7 +1060,6 @@ public class AnalysisRunner {
 		csvOutput.newLine();
 		mainData.writeCSV(csvOutput);
 		csvOutput.close();
-		*/
 
 		// Stop all the threads
 		stopAllThreads();
@@ -894,6 +1073,101 @@ public class AnalysisRunner {
 		jobOutput.close();
 	}
 	
+	/**
+	 * Samples the edge file of --stream in one pass per sample, without loading the graph. The population measures can't be
+	 * computed without the graph, so they're read from --pop, and the parent's vertex count the samples are sized by comes from them
+	 * @param loader
+	 * @param mainTracker
+	 * @throws Exception
+	 */
+	private static void runStream(ArgumentReader loader, JobTracker mainTracker) throws Exception {
+		if (loader.myPopPath == null)
+			throw new Error("Streaming a graph needs the population measures of --pop");
+		VertexTVertexImporter source = loader.myStreamSource;
+		
+		// Read in the finished population analysis
+		MeasureVector popBC = (new BCAnalyzer()).readCached(loader.myPopPath + HardCode.pBcPostfix);
+		MeasureVector popInDegree = (new InDegreeAnalyzer()).readCached(loader.myPopPath + HardCode.pDegreeInPostfix);
+		MeasureVector popOutDegree = (new OutDegreeAnalyzer()).readCached(loader.myPopPath + HardCode.pDegreeOutPostfix);
+		MeasureVector popED = (new EDAnalyzer()).readCached(loader.myPopPath + HardCode.pEDPostfix);
+		AnalysisRunner.setPop(popBC, popInDegree, popOutDegree, popED);
+		int parentVertexCount = popInDegree.size();
+		
+		// Set the folder to store the analysis results
+		Utils.FileSystem.createFolder(loader.myOutput + HardCode.pAnalysisFolder);
+		String sampleOverallDir = loader.myOutput + HardCode.pSamplesFolder;
+		Utils.FileSystem.createFolder(sampleOverallDir);
+		
+		String testName = "Stream";
+		CSV_Builder test = new CSV_Builder(testName);
+		String mFolder = sampleOverallDir + testName;
+		Utils.FileSystem.createFolder(mFolder);
+		
+		// Create an array to hold the different threads
+		ArrayList<Callable<CSV_Builder>> tasks = new ArrayList<Callable<CSV_Builder>>();
+		List<StreamPIESSampler> samplers = new ArrayList<StreamPIESSampler>();
+		
+		CSV_Builder input = new CSV_Builder(source.getEdgeType().toString());
+		
+		// Run the analysis
+		for (int replica = 0; replica < replicaLength; replica++) {
+			// Uniquely name this version and create its folder
+			String sampleName = "sample" + replica;
+			String sampleDir = mFolder + "/" + sampleName;
+			Utils.FileSystem.createFolder(sampleDir);
+			
+			// Create the shell of the sample, there's no parent graph to give it
+			StreamPIESSampler sampleMethod = new StreamPIESSampler(0.00, sampleSeed(testName, 0.0, replica), source, parentVertexCount);
+			samplers.add(sampleMethod);
+			tasks.add(new SampleThreadRunner(sampleDir, sampleName, sampleMethod, null, replica));
+			
+			if (tasks.size() >= maxThreads) {
+				runThreads(input, tasks, loader.myTimeOut, loader.myTimeOutUnit, mFolder);
+				test.LinkTo(input);
+				tasks.clear();
+				input = new CSV_Builder(source.getEdgeType().toString());
+			}
+		}
+		if (!tasks.isEmpty()) {
+			runThreads(input, tasks, loader.myTimeOut, loader.myTimeOutUnit, mFolder);
+			test.LinkTo(input);
+			tasks.clear();
+		}
+		
+		// The file's edges were counted by the passes, unless every sample was imported
+		long parentEdgeCount = 0;
+		for (StreamPIESSampler sampler : samplers)
+			parentEdgeCount = Math.max(parentEdgeCount, sampler.getStreamedEdgeCount());
+		if (parentEdgeCount == 0) {
+			parentEdgeCount = source.streamEdges(new VertexTVertexImporter.EdgeHandler() {
+				public void edge(String source, String target) {}
+			});
+		}
+		
+		// Lastly add the sample type used and the overall graph information
+		CSV_Builder mainData = new CSV_Builder(parentVertexCount, // parent node count
+				new CSV_Builder(parentEdgeCount, // parent edge count
+						test)); // sample method type
+
+		// Output the statistics on the correlations
+		BufferedWriter csvOutput = Utils.FileSystem.createWriter(Utils.FileSystem.findOpenPath(loader.myOutput + HardCode.pAnalysisFolder + "/" + testName + HardCode.pCorrPostfix));
+		csvOutput.write(csv_header_Stream);
+		csvOutput.newLine();
+		mainData.writeCSV(csvOutput);
+		csvOutput.close();
+		
+		// Stop all the threads
+		stopAllThreads();
+		
+		// End the tracking over the entire job
+		mainTracker.endTracking("overall job");
+		
+		// Write out the respective job times
+		BufferedWriter jobOutput = Utils.FileSystem.createWriter(Utils.FileSystem.findOpenPath(loader.myOutput + HardCode.pSummaryPostfix));
+		mainTracker.writeJobTimes(jobOutput);
+		jobOutput.close();
+	}
+	
 	/**
 	 * Wraps the threadPool invoke method
 	 * @param input
@@ -2,22 +2,20 @@ package Main;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 
 import DataAnalyzers.Correlations;
 import DataAnalyzers.KolmogorovSmirnovTest;
 import DataAnalyzers.PrecisionRecallF;
+import GraphAnalyzers.MeasureVector;
 import Utils.CSV_Builder;
 import Utils.CSV_Builder_Objects;
 
 /**
- * Class that integrates the correlation classes with the process of analyzing data
+ * Class that integrates the correlation classes with the process of analyzing data.
+ * The measures are compared as MeasureVectors, sorting their vertex ids rather than boxed map entries
  * @author MOREPOWER
  *
  */
@@ -62,58 +60,49 @@ public class MeasureComparison {
 	
 	/**
 	 * Main comparing function that compares the population to the sample. First, all values are pulled and sorted;
-	 * then, spearmans, pearsons, error, precision, and recall are computed.
-	 * @param population - the mapping of the population values
-	 * @param sample - the mapping of the sample values
+	 * then, spearmans, pearsons, error, kendalls, precision, and recall are computed.
+	 * @param population - the population values
+	 * @param sample - the sample values
 	 * @returns a CSV_Builder storing: 
-	 *   Correlation: [alpha, spearmans, pearsons, error]
+	 *   Correlation: [alpha, spearmans, pearsons, error, kendalls]
 	 *   P/R: [pop-alpha, sam-alpha, precision, recall]
 	 */
-	public static List<CSV_Builder> compare(Map<String, Double> population, Map<String, Double> sample) {
-		
-		// Pull the hashmaps into a sortable structure
-		ArrayList<Entry<String, Double>> populationValues = new ArrayList<Entry<String, Double>>(population.entrySet());
-		ArrayList<Entry<String, Double>> sampleValues = new ArrayList<Entry<String, Double>>(sample.entrySet());
-		// Sort the sample and population
-		Collections.sort(populationValues, entrySort);
-		Collections.sort(sampleValues, entrySort);
-		
-		// Run the analyses
-		List<CSV_Builder> cCorr = correlationCompare(population, sampleValues);
-		for (CSV_Builder csv : cCorr) {
-			if (!csv.LinkToEnd(PRCompare(populationValues, sampleValues)))
-				throw new Error("PR Compare CSV Adding Failed");
-		}
-		
-		return cCorr;
+	public static List<CSV_Builder> compare(MeasureVector population, MeasureVector sample) {
+		return compare(population, sample, false);
 	}
 
 	
 	 /* Main comparing function that compares the population to the sample. First, all values are pulled and sorted;
-	 * then, spearmans, pearsons, error, precision, and recall are computed.
-	 * @param population - the mapping of the population values
-	 * @param sample - the mapping of the sample values
+	 * then, spearmans, pearsons, error, kendalls, precision, and recall are computed.
+	 * @param population - the population values
+	 * @param sample - the sample values
+	 * @param reverseSort - whether the smallest values are the top instead of the largest
 	 * @returns a CSV_Builder storing: 
-	 *   Correlation: [alpha, spearmans, pearsons, error]
+	 *   Correlation: [alpha, spearmans, pearsons, error, kendalls]
 	 *   P/R: [pop-alpha, sam-alpha, precision, recall]
 	 */
-	public static List<CSV_Builder> compare(Map<String, Double> population, Map<String, Double> sample, boolean reverseSort) {
+	public static List<CSV_Builder> compare(MeasureVector population, MeasureVector sample, boolean reverseSort) {
+		return compare(new PopulationIndex(population, reverseSort), sample);
+	}
+	
+	/**
+	 * Main comparing function that compares the population to the sample, with the population already sorted by its index.
+	 * Only the sample is sorted, in the same direction as the population's
+	 * @param population - the index of the population values
+	 * @param sample - the sample values
+	 * @returns a CSV_Builder storing: 
+	 *   Correlation: [alpha, spearmans, pearsons, error, kendalls]
+	 *   P/R: [pop-alpha, sam-alpha, precision, recall]
+	 */
+	public static List<CSV_Builder> compare(PopulationIndex population, MeasureVector sample) {
+		
+		// Sort the top of the sample's ids the slices need, in the order of entrySort (or entrySortBackwards)
+		int[] sampleSorted = sample.topSortedIds(sortedPrefix(sample.size(), correlationSampleSizes, PRSampleSizes), population.isReverse());
 		
-		// Pull the hashmaps into a sortable structure
-		ArrayList<Entry<String, Double>> populationValues = new ArrayList<Entry<String, Double>>(population.entrySet());
-		ArrayList<Entry<String, Double>> sampleValues = new ArrayList<Entry<String, Double>>(sample.entrySet());
-		// Sort the sample and population
-		if (!reverseSort) {
-			Collections.sort(populationValues, entrySort);
-			Collections.sort(sampleValues, entrySort);
-		} else {
-			Collections.sort(populationValues, entrySortBackwards);
-			Collections.sort(sampleValues, entrySortBackwards);
-		}
 		// Run the analyses
-		List<CSV_Builder> cCorr = correlationCompare(population, sampleValues);
+		List<CSV_Builder> cCorr = correlationCompare(population.getPopulation(), sample, sampleSorted);
 		for (CSV_Builder csv : cCorr) {
-			if (!csv.LinkToEnd(PRCompare(populationValues, sampleValues)))
+			if (!csv.LinkToEnd(PRCompare(population, sample, sampleSorted)))
 				throw new Error("PR Compare CSV Adding Failed");
 		}
 		
@@ -122,38 +111,57 @@ public class MeasureComparison {
 
 	
 	/**
-	 * Computes the Precision, Recall for the two sorted arrays for all permutations of the tested sample sizes
-	 * @param populationSorted
-	 * @param sampleSorted
+	 * The amount of the top of a sorted list that has to be in order for the slices taken of it. Every slice is either
+	 * within that top or the whole list, and the whole list's order doesn't matter
+	 * @param size - the size of the list
+	 * @param sliceSizes - the percentages of the list that are taken from the top
+	 * @return the size of the top to sort
+	 */
+	public static int sortedPrefix(int size, double[]... sliceSizes) {
+		int prefix = 0;
+		for (double[] sizes : sliceSizes) {
+			for (double sliceSize : sizes) {
+				int slice = (int)Math.ceil(size*sliceSize);
+				if (slice < size)
+					prefix = Math.max(prefix, slice);
+			}
+		}
+		return prefix;
+	}
+	
+	/**
+	 * Computes the Precision, Recall for the population's index and the sorted sample for all permutations of the tested sample sizes
+	 * @param population - the index of the population, the top of which is found from its ranks
+	 * @param sample
+	 * @param sampleSorted - the ids of the sample, sorted as far as sortedPrefix of the PRSampleSizes
 	 * @return a list of CSVs of composition: [pop-alpha, sam-alpha, Precision, Recall]
 	 */
-	public static List<CSV_Builder> PRCompare(ArrayList<Entry<String, Double>> populationSorted, ArrayList<Entry<String, Double>> sampleSorted) {
+	public static List<CSV_Builder> PRCompare(PopulationIndex population, MeasureVector sample, int[] sampleSorted) {
 		
 		List<CSV_Builder> csvs = new ArrayList<CSV_Builder>(2);
+		int[] sampleToPopulation = sample.mapTo(population.getPopulation());
 		
 		for (double popAlpha : PRPopulationSizes) {
-			// Obtain the sample of the population
-			int popSize = (int)Math.ceil(populationSorted.size()*popAlpha);
-			HashSet<String> populationSample = new HashSet<String>(popSize);
-			for (int i = 0; i < popSize; i++) {
-				populationSample.add(populationSorted.get(i).getKey());
-			}
+			// The sample of the population is every id ranked under its size
+			int popSize = (int)Math.ceil(population.size()*popAlpha);
 
 			// Create a CSV_Builder to contain all the data
 			CSV_Builder cPopSize = new CSV_Builder(new CSV_Builder_Objects.CSV_Percent(popAlpha));
 
 			// Obtain the samples of the samples
 			for (double sampleAlpha : PRSampleSizes) {
-				// Sampling part
-				int sampleSize = (int)Math.ceil(sampleSorted.size()*sampleAlpha);
-				HashSet<String> sampleSample = new HashSet<String>(popSize);
+				// Sampling part, counting the ones also in the sample of the population
+				int sampleSize = (int)Math.ceil(sampleSorted.length*sampleAlpha);
+				int common = 0;
 				for (int i = 0; i < sampleSize; i++) {
-					sampleSample.add(sampleSorted.get(i).getKey());
+					int id = sampleToPopulation[sampleSorted[i]];
+					if (id != -1 && population.inTop(id, popSize))
+						common++;
 				}
 				
 				// Now look for all the cross-sections
 				cPopSize.LinkTo(new CSV_Builder(new CSV_Builder_Objects.CSV_Double(sampleAlpha),
-						PR(populationSample, sampleSample)));
+						PR(common, popSize, sampleSize)));
 			}
 			
 			csvs.add(cPopSize);
@@ -165,39 +173,51 @@ public class MeasureComparison {
 	
 	/**
 	 * Computes the Precision, Recall for the two distributions. It does this taking the top % when % is identified through length
-	 * @param populationSorted
-	 * @param sampleSorted
+	 * @param reference
+	 * @param referenceSorted - the ids of the reference, sorted as far as sortedPrefix of the lengths
+	 * @param test
+	 * @param testSorted - the ids of the test, sorted as far as sortedPrefix of the lengths
 	 * @param lengths - a list of lengths for the PR function to compare the top %s of
 	 * @return a list of CSVs of composition: [popAlpha, sampleAlpha, Precision, Recall]
 	 */
-	public static List<CSV_Builder> PRCompare(ArrayList<Entry<String, Double>> populationSorted, ArrayList<Entry<String, Double>> sampleSorted, double[] lengths) {
+	public static List<CSV_Builder> PRCompare(MeasureVector reference, int[] referenceSorted, MeasureVector test, int[] testSorted, double[] lengths) {
 		
 		List<CSV_Builder> csvs = new ArrayList<CSV_Builder>(lengths.length);
 		Arrays.sort(lengths);
+		int[] testToReference = test.mapTo(reference);
 		
-		// Define the two hashsets
-		HashSet<String> populationSample = new HashSet<String>();
-		HashSet<String> sampleSample = new HashSet<String>();
+		// Which of the reference ids are in the top of each, with the count in both
+		boolean[] inReference = new boolean[reference.size()];
+		boolean[] inTest = new boolean[reference.size()];
+		int common = 0;
 		
-		// Overall counters for the hash-sets
+		// Overall counters for the tops
 		int popCounter = 0, samCounter = 0;
 		
-		// Loop through the lengths and run the analysis as the hashsets build to each size
+		// Loop through the lengths and run the analysis as the tops build to each size
 		for (double length : lengths) {
-			int popSize = (int)Math.ceil(populationSorted.size()*length);
-			int samSize = (int)Math.ceil(sampleSorted.size()*length);
+			int popSize = (int)Math.ceil(referenceSorted.length*length);
+			int samSize = (int)Math.ceil(testSorted.length*length);
 			// Obtain the sample of the population
 			for (; popCounter < popSize; popCounter++) {
-				populationSample.add(populationSorted.get(popCounter).getKey());
+				int id = referenceSorted[popCounter];
+				inReference[id] = true;
+				if (inTest[id])
+					common++;
 			}
 			for (; samCounter < samSize; samCounter++) {
-				sampleSample.add(sampleSorted.get(samCounter).getKey());
+				int id = testToReference[testSorted[samCounter]];
+				if (id == -1)
+					continue;
+				inTest[id] = true;
+				if (inReference[id])
+					common++;
 			}
 			
 			// Create a CSV_Builder to contain all the data (starting with the percentage of the top compared)
 			CSV_Builder cCorrSize = new CSV_Builder(new CSV_Builder_Objects.CSV_Percent(length));
 			// Now calculate all the cross-sections
-			cCorrSize.LinkTo(PR(populationSample, sampleSample));
+			cCorrSize.LinkTo(PR(common, popSize, samSize));
 			// Add the csvs to a loop to eventually return 
 			csvs.add(cCorrSize);
 		}
@@ -206,48 +226,55 @@ public class MeasureComparison {
 	}
 	
 	/**
-	 * Calculate the precision and recall for a two sets. HashSets are recommended
-	 * @param population
-	 * @param sample
+	 * Calculate the precision and recall for two sets from the amount they have in common
+	 * @param common - the amount in both sets
+	 * @param referenceSize
+	 * @param testSize
 	 * @return a CSV Builder of composition: [Precision, Recall]
 	 */
-	public static CSV_Builder PR(Set<String> reference, Set<String> test) {
-		return new CSV_Builder(new CSV_Builder_Objects.CSV_Double(PrecisionRecallF.Precision(reference, test)), 
-					new CSV_Builder(new CSV_Builder_Objects.CSV_Double(PrecisionRecallF.Recall(reference, test)))
+	public static CSV_Builder PR(int common, int referenceSize, int testSize) {
+		return new CSV_Builder(new CSV_Builder_Objects.CSV_Double(PrecisionRecallF.Precision(common, testSize)), 
+					new CSV_Builder(new CSV_Builder_Objects.CSV_Double(PrecisionRecallF.Recall(common, referenceSize)))
 				);
 	}
 	
 	
 	/**
-	 * Wrapper function for currently formatting the sample and population maps into arrays and running them on 
+	 * Wrapper function for currently formatting the sample and population values into arrays and running them on 
 	 * the hardcoded alpha values. It does this by drawing the top _% of the sample and finding those values in
-	 * the population sample. It places these two distributions in arrays and runs spearmans, pearsons, and the 
-	 * average error.
+	 * the population sample. It places these two distributions in arrays and runs spearmans, pearsons, the 
+	 * average error, and kendalls.
 	 * 
 	 * @param population 
-	 * @param sampleSorted
-	 * @return List of CSV: [sampleAlpha, spearmans, pearsons, error]
+	 * @param sample
+	 * @param sampleSorted - the ids of the sample, sorted as far as sortedPrefix of the correlationSampleSizes
+	 * @return List of CSV: [sampleAlpha, spearmans, pearsons, error, kendalls]
 	 */
-	public static List<CSV_Builder> correlationCompare(Map<String, Double> population, ArrayList<Entry<String, Double>> sampleSorted) {
+	public static List<CSV_Builder> correlationCompare(MeasureVector population, MeasureVector sample, int[] sampleSorted) {
 		
 		// What would also be useful in saying a smaller amount of the sample is also well represented
 		// The bottom may not have enough connections, but it makes sense that the top BC will have had their friends pulled
 		
+		int[] sampleToPopulation = sample.mapTo(population);
 		ArrayList<CSV_Builder> csvs = new ArrayList<CSV_Builder>(correlationSampleSizes.length);
 		for (double sliceSize : correlationSampleSizes) {
-			int corrSize = (int)Math.ceil(sampleSorted.size()*sliceSize);
+			int corrSize = (int)Math.ceil(sampleSorted.length*sliceSize);
 			// Populate the sample and population values
 			double[] sampleValues = new double[corrSize];
 			double[] popValues = new double[corrSize];
 			for (int i = 0; i < corrSize; i++) {
-				sampleValues[i] = sampleSorted.get(i).getValue();
-				popValues[i] = population.get(sampleSorted.get(i).getKey());
+				int popID = sampleToPopulation[sampleSorted[i]];
+				if (popID == -1)
+					throw new Error("Sample vertex isn't in the population: " + sample.getLabel(sampleSorted[i]));
+				sampleValues[i] = sample.getValue(sampleSorted[i]);
+				popValues[i] = population.getValue(popID);
 			}
 			// Add the results to a CSV
 			csvs.add(new CSV_Builder(new CSV_Builder_Objects.CSV_Percent(sliceSize),
 					new CSV_Builder(new CSV_Builder_Objects.CSV_Double(Correlations.spearmansCorrelation(popValues, sampleValues)),
 							new CSV_Builder(new CSV_Builder_Objects.CSV_Double(Correlations.pearsonsCorrelation(popValues, sampleValues)),
-									new CSV_Builder(new CSV_Builder_Objects.CSV_Double(Correlations.errorCalculation(popValues, sampleValues))
+									new CSV_Builder(new CSV_Builder_Objects.CSV_Double(Correlations.errorCalculation(popValues, sampleValues)),
+											new CSV_Builder(new CSV_Builder_Objects.CSV_Double(Correlations.kendallsCorrelation(popValues, sampleValues)))
 									)
 					)))
 			);
@@ -257,26 +284,18 @@ public class MeasureComparison {
 	}
 	
 	/**
-	 * Wrapper class for running the KS-Test on a population and sample map
+	 * Wrapper class for running the KS-Test on a population and sample
 	 * @param population
 	 * @param sample
-	 * @return a CSV_Builder with the KS-Test D statistic
+	 * @return a CSV_Builder with the KS-Test D statistic, then its p-value
 	 */
-	public static CSV_Builder KSCompare(Map<String, Double> population, Map<String, Double> sample) {
-		double[] pop = new double[population.size()];
-		double[] sam = new double[sample.size()];
-		
-		int counter = 0;
-		for (Entry<String, Double> entry : population.entrySet()) {
-			pop[counter] = entry.getValue();
-			counter++;
-		}
-		counter = 0;
-		for (Entry<String, Double> entry : sample.entrySet()) {
-			sam[counter] = entry.getValue();
-			counter++;
-		}
+	public static CSV_Builder KSCompare(MeasureVector population, MeasureVector sample) {
+		// The population's sorted values are kept by the vector, so only the sample is sorted for each comparison
+		double[] pop = population.sortedValues();
+		double[] sam = sample.sortedValues();
 		
-		return new CSV_Builder(new CSV_Builder_Objects.CSV_Double(KolmogorovSmirnovTest.runSmirnov(pop, sam)));
+		double d = KolmogorovSmirnovTest.statistic(pop, sam);
+		return new CSV_Builder(new CSV_Builder_Objects.CSV_Double(d),
+				new CSV_Builder(new CSV_Builder_Objects.CSV_Double(KolmogorovSmirnovTest.pValue(d, pop.length, sam.length))));
 	}
 }
\ No newline at end of file
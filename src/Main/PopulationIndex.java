@@ -0,0 +1,74 @@
+package Main;
+
+import GraphAnalyzers.MeasureVector;
+
+/**
+ * The sorted order of a population measure, made once when the population is posted and then shared by every sample's
+ * comparisons, since the population doesn't change during a run:
+ *   -sortedIds: the population's ids in the order of entrySort (entrySortBackwards when reversed)
+ *   -ranks: the place of every id in that order, so the top k of the population is every id with a rank under k
+ * The sorted values for the KS-Test are also sorted up front. Only read once made, so the sample threads share it
+ * @author MOREPOWER
+ *
+ */
+public class PopulationIndex {
+
+	private final MeasureVector population;
+	private final boolean reverse;
+	private final int[] sortedIds;
+	private final int[] ranks;
+
+	/**
+	 * Constructor for the index
+	 * @param population - the population's measure
+	 * @param reverse - whether the smallest values are the top instead of the largest
+	 */
+	public PopulationIndex(MeasureVector population, boolean reverse) {
+		this.population = population;
+		this.reverse = reverse;
+		sortedIds = population.sortedIds(reverse);
+		ranks = new int[sortedIds.length];
+		for (int rank = 0; rank < sortedIds.length; rank++)
+			ranks[sortedIds[rank]] = rank;
+		population.sortedValues();
+	}
+
+	public MeasureVector getPopulation() {
+		return population;
+	}
+
+	/**
+	 * @return whether the smallest values are the top
+	 */
+	public boolean isReverse() {
+		return reverse;
+	}
+
+	/**
+	 * @return the ids from the top down, which shouldn't be changed
+	 */
+	public int[] getSortedIds() {
+		return sortedIds;
+	}
+
+	/**
+	 * @param id
+	 * @return the place of the id from the top, 0 being the top
+	 */
+	public int getRank(int id) {
+		return ranks[id];
+	}
+
+	/**
+	 * @param id
+	 * @param size - the amount of the top
+	 * @return whether the id is in the top size ids
+	 */
+	public boolean inTop(int id, int size) {
+		return ranks[id] < size;
+	}
+
+	public int size() {
+		return sortedIds.length;
+	}
+}
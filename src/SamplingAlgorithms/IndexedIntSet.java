@@ -0,0 +1,88 @@
+package SamplingAlgorithms;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A set of ints in [0, capacity), kept as a dense list of its members with the position of every member indexed.
+ * Adding, removing, checking and picking a random member are all constant time: a removal moves the last member into the gap
+ * @author MOREPOWER
+ *
+ */
+public class IndexedIntSet {
+
+	private final int[] members;
+	// The position of every value in members, -1 if it isn't in the set
+	private final int[] positions;
+	private int size;
+
+	/**
+	 * Constructor for an empty set
+	 * @param capacity - one more than the largest value that can be held
+	 */
+	public IndexedIntSet(int capacity) {
+		members = new int[capacity];
+		positions = new int[capacity];
+		Arrays.fill(positions, -1);
+		size = 0;
+	}
+
+	public boolean contains(int value) {
+		return positions[value] != -1;
+	}
+
+	/**
+	 * @param value
+	 * @return false if it was already in the set
+	 */
+	public boolean add(int value) {
+		if (positions[value] != -1)
+			return false;
+		positions[value] = size;
+		members[size++] = value;
+		return true;
+	}
+
+	/**
+	 * @param value
+	 * @return false if it wasn't in the set
+	 */
+	public boolean remove(int value) {
+		int position = positions[value];
+		if (position == -1)
+			return false;
+		int last = members[--size];
+		members[position] = last;
+		positions[last] = position;
+		positions[value] = -1;
+		return true;
+	}
+
+	/**
+	 * @param index - a position in [0, size), the order changes as members are removed
+	 * @return the member at the position
+	 */
+	public int get(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index " + index + " is not in the set of " + size);
+		return members[index];
+	}
+
+	/**
+	 * @param rndGen
+	 * @return a member picked uniformly
+	 */
+	public int random(Random rndGen) {
+		if (size == 0)
+			throw new Error("Can't pick from an empty set");
+		return members[rndGen.nextInt(size)];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+}
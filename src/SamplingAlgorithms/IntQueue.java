@@ -0,0 +1,94 @@
+package SamplingAlgorithms;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * First-in first-out queue of ints held in a ring buffer, which doubles whenever it fills.
+ * Used by the samplers to queue vertex ids without boxing them
+ * @author MOREPOWER
+ *
+ */
+public class IntQueue {
+
+	private int[] items;
+	// Position of the first item and the amount of items
+	private int head, size;
+
+	public IntQueue() {
+		this(16);
+	}
+
+	public IntQueue(int capacity) {
+		items = new int[Integer.highestOneBit(Math.max(capacity, 2) * 2 - 1)];
+		head = 0;
+		size = 0;
+	}
+
+	public void add(int value) {
+		if (size == items.length) {
+			// Unroll the ring into a buffer twice the size
+			int[] grown = new int[items.length * 2];
+			int tail = items.length - head;
+			System.arraycopy(items, head, grown, 0, tail);
+			System.arraycopy(items, 0, grown, tail, head);
+			items = grown;
+			head = 0;
+		}
+		items[(head + size) & (items.length - 1)] = value;
+		size++;
+	}
+
+	/**
+	 * Removes the first item
+	 * @return the first item
+	 * @throws NoSuchElementException - if the queue is empty
+	 */
+	public int poll() {
+		if (size == 0)
+			throw new NoSuchElementException("Queue is empty");
+		int value = items[head];
+		head = (head + 1) & (items.length - 1);
+		size--;
+		return value;
+	}
+
+	/**
+	 * Getter for an item without removing it
+	 * @param index - the position from the front of the queue, 0 being the first
+	 * @return the item
+	 */
+	public int get(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index " + index + " is not in the queue of size " + size);
+		return items[(head + index) & (items.length - 1)];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		head = 0;
+		size = 0;
+	}
+
+	/**
+	 * @return the items from first to last
+	 */
+	public int[] toArray() {
+		int[] values = new int[size];
+		for (int i = 0; i < size; i++)
+			values[i] = get(i);
+		return values;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+}
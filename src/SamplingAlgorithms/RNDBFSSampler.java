@@ -1,19 +1,13 @@
 package SamplingAlgorithms;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Random;
 
+import GraphCreation.CompactGraph;
 import Utils.CSV_Builder;
+import Utils.SplitMix64;
 import Utils.CSV_Builder_Objects.CSV_Percent;
-import edu.uci.ics.jung.graph.DirectedSparseGraph;
 import edu.uci.ics.jung.graph.Graph;
-import edu.uci.ics.jung.graph.UndirectedSparseGraph;
 import edu.uci.ics.jung.graph.util.EdgeType;
-import edu.uci.ics.jung.graph.util.Pair;
 
 /**
  * Sampling method that can mix properties of a random sampling and a BFS. This is done by a 
@@ -22,44 +16,37 @@ import edu.uci.ics.jung.graph.util.Pair;
  *   BFS is done by selecting all possible out-links of all nodes in the sample; pulling a random sample if an island is discovered.
  * Directionality is taken into account: only out-links will be added for RND and BFS
  * The function adds nodes in a step-wise queue procedure, so not all neighbors or queued nodes are guaranteed to be added if the sample fills its proportion before the step is over.
+ * The sample membership and the queue are tracked in a SamplingState over the parent's vertex ids. The sample is induced,
+ * so it holds every edge between its vertices
  * @author MOREPOWER
  *
  */
-public class RNDBFSSampler implements TargetedSampleMethod {
+public class RNDBFSSampler implements ViewSampleMethod {
 	// Alpha is the percentage of the overall graph's vertexes it will fulfill
 	// Threshold is the chance of doing a sampling method vs the other
 	protected double alpha, bfs_rnd;
-	protected int seed;
+	protected long seed;
 	
-	// As a SparseGraph, this can support both Directed and Undirected edges
-	protected Graph<String, String> sampledGraph;
-	protected LinkedList<String> addingQueue;
+	// The sample and what's queued to be added to it, by vertex id. This supports both Directed and Undirected edges
+	protected SamplingState state;
 	
 	// Count of how many random vs bfs samples were used
 	protected int randomSample;
 	protected int bfsSample;
 	
-	public RNDBFSSampler(double alpha, double bfs_rnd, int seed, EdgeType type) {
+	public RNDBFSSampler(double alpha, double bfs_rnd, long seed, EdgeType type) {
 		this.alpha = alpha;
 		this.bfs_rnd = bfs_rnd;
 		this.seed = seed; 
 		
 		// Variables needed for the tracking of the growing sample
-		if (type.equals(EdgeType.DIRECTED)) {
-			sampledGraph = new DirectedSparseGraph<String, String>();	
-		} else if (type.equals(EdgeType.UNDIRECTED)) {
-			sampledGraph = new UndirectedSparseGraph<String, String>();
-		} else {
-			throw new Error("Unrecognized Edge Type");
-		}
-		
-		addingQueue = new LinkedList<String>();
+		state = new SamplingState(type, true);
 		randomSample = 0;
 		bfsSample = 0;
 	}
 	
 	public RNDBFSSampler(double alpha, double bfs_rnd, EdgeType type) {
-		this(alpha, bfs_rnd, (new Random()).nextInt(), type);
+		this(alpha, bfs_rnd, (new Random()).nextLong(), type);
 	}
 	
 	public void changeAlpha(double alpha) {
@@ -67,12 +54,39 @@ public class RNDBFSSampler implements TargetedSampleMethod {
 	}
 	
 	public Graph<String, String> getGraph() {
-		return sampledGraph;
+		return state.getGraph();
+	}
+	
+	public SampleView getSampleView() {
+		return state.getView();
+	}
+	
+	/**
+	 * The queue still to be added, then the counts of random and BFS steps
+	 */
+	public SampleCheckpoints.Continuation getContinuation() {
+		return new SampleCheckpoints.Continuation(new int[][]{state.getQueue()}, new long[]{randomSample, bfsSample});
+	}
+	
+	public void restoreSample(Graph<String, String> parent, int[] vertices, int[] edges, SampleCheckpoints.Continuation continuation) {
+		continuation.expect(1, getContinuationValues());
+		state.attach(parent);
+		state.restore(vertices, edges);
+		state.setQueue(continuation.vertexLists[0]);
+		randomSample = (int)continuation.values[0];
+		bfsSample = (int)continuation.values[1];
+	}
+	
+	/**
+	 * @return the amount of values in the continuation, subclasses add theirs after these
+	 */
+	protected int getContinuationValues() {
+		return 2;
 	}
 	
 	protected int sampleMinVertexes;
 	protected boolean continueSampling() {
-		return (sampledGraph.getVertexCount() < sampleMinVertexes);
+		return (state.getSampledCount() < sampleMinVertexes);
 	}
 	
 	public CSV_Builder sampleGraph(Graph<String, String> parentGraph) {
@@ -82,47 +96,47 @@ public class RNDBFSSampler implements TargetedSampleMethod {
 		// Set the sample minimum to begin the loop
 		sampleMinVertexes = (int)Math.ceil((double)parentGraph.getVertexCount() * alpha);
 		
-		Random rndGen = new Random(seed);
+		state.attach(parentGraph);
+		// Every alpha gets its own stream of the sampler's seed
+		Random rndGen = new SplitMix64(seed).fork(SplitMix64.key(alpha));
 		
-		// A list to hold the set of Strings that is possibly selected
-		// ArrayList probably has one of the quickest shuffles and I'm unsure about the Collection's randomness
-		ArrayList<String> vertices = new ArrayList<String>(parentGraph.getVertices());
-		Collections.shuffle(vertices, rndGen);
-		// Iterator to easily run through the values
-		Iterator<String> mainVGetter = vertices.iterator();
-		/** Note, the above classes will be used for Random Sampling **/
+		// The vertex ids in a random order, shuffled the same as a list of the vertices would be
+		int[] vertices = state.shuffledVertices(rndGen);
+		// Position of the next vertex to try
+		int mainVGetter = 0;
+		/** Note, the above array will be used for Random Sampling **/
 		
-		String current_vertex;
+		int current_vertex;
 		while (continueSampling()) {
-			current_vertex = null;
+			current_vertex = -1;
 			
 			// After a step is complete, add another
-			if (addingQueue.isEmpty()) {
+			if (state.isQueueEmpty()) {
 				
 				// Select Random Sampling
 				if (rndGen.nextDouble() > bfs_rnd) {
 					// Random Sampling Setup
-					while (mainVGetter.hasNext() && (sampledGraph.getVertices().contains(current_vertex = mainVGetter.next())
-							|| addingQueue.contains(current_vertex)))
+					while (mainVGetter < vertices.length && (state.isSampled(current_vertex = vertices[mainVGetter++])
+							|| state.isQueued(current_vertex)))
 						continue;
-					if (current_vertex != null){
+					if (current_vertex != -1){
 						setupRND(current_vertex, parentGraph);
 						randomSample++;
 					} else {
-						if (!mainVGetter.hasNext())
+						if (mainVGetter >= vertices.length)
 							break;
 					}
 				} else {					
 					if (setupBFS(parentGraph) == false) {
 						// Random Sampling Setup
-						while (mainVGetter.hasNext() && (sampledGraph.getVertices().contains(current_vertex = mainVGetter.next())
-								|| addingQueue.contains(current_vertex)))
+						while (mainVGetter < vertices.length && (state.isSampled(current_vertex = vertices[mainVGetter++])
+								|| state.isQueued(current_vertex)))
 							continue;
-						if (current_vertex != null){
+						if (current_vertex != -1){
 							setupRND(current_vertex, parentGraph);
 							randomSample++;
 						} else {
-							if (!mainVGetter.hasNext())
+							if (mainVGetter >= vertices.length)
 								break;
 						}
 					} else {
@@ -131,14 +145,14 @@ public class RNDBFSSampler implements TargetedSampleMethod {
 				}
 			} else {
 				// Pull nodes off of the queue
-				addNode(addingQueue.pollFirst(), parentGraph);
+				addNode(state.poll(), parentGraph);
 			}
 		}
 	
 		/**
 		 * Return the actual alpha, then actual threshold
 		 */
-		double actualAlpha = (double)sampledGraph.getVertexCount() / (double)parentGraph.getVertexCount();
+		double actualAlpha = (double)state.getSampledCount() / (double)parentGraph.getVertexCount();
 		if (randomSample + bfsSample == 0)
 			throw new Error("Random and Thresh can't be 0 at this point");
 		double actualThreshold = (double)bfsSample / (double)(randomSample + bfsSample);
@@ -156,17 +170,22 @@ public class RNDBFSSampler implements TargetedSampleMethod {
 	 * @return
 	 */
 	protected boolean setupBFS(Graph<String, String> parentGraph) {
-		if (!addingQueue.isEmpty())
+		if (!state.isQueueEmpty())
 			throw new Error("Adding Queue must be empty before additional steps are taken");
 		
-		// Add all of the possible neighbors
-		for (String vertex : sampledGraph.getVertices()) {
-			addingQueue.addAll(parentGraph.getSuccessors(vertex));
+		// Add all of the possible neighbors that aren't in the graph yet
+		CompactGraph parent = state.getParent();
+		int[] offsets = parent.getOutOffsets();
+		int[] neighbors = parent.getOutNeighbors();
+		for (int k = 0; k < state.getSampledCount(); k++) {
+			int v = state.getSampled(k);
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				if (!state.isSampled(neighbors[i]))
+					state.enqueue(neighbors[i]);
+			}
 		}
-		// Remove all of the neighbors that are currently in the graph
-		addingQueue.removeAll(sampledGraph.getVertices());
 		
-		return (addingQueue.size() > 0);
+		return !state.isQueueEmpty();
 	}
 	
 	/**
@@ -175,56 +194,29 @@ public class RNDBFSSampler implements TargetedSampleMethod {
 	 * @param parentGraph
 	 * @return
 	 */
-	protected boolean setupRND(String current_vertex, Graph<String, String> parentGraph) {
+	protected boolean setupRND(int current_vertex, Graph<String, String> parentGraph) {
 		// Add the selected vertex
-		addingQueue.add(current_vertex);
+		state.enqueue(current_vertex);
 		
 		// Add the vertexes neighbors and make their neighbors neighbors new possibilities
-		for (String neighbor : parentGraph.getSuccessors(current_vertex)) {
-			if (!(sampledGraph.getVertices().contains(neighbor) || addingQueue.contains(neighbor))) {
-				addingQueue.add(neighbor);
-			}
+		CompactGraph parent = state.getParent();
+		int[] offsets = parent.getOutOffsets();
+		int[] neighbors = parent.getOutNeighbors();
+		for (int i = offsets[current_vertex]; i < offsets[current_vertex + 1]; i++) {
+			if (!state.isSampled(neighbors[i]))
+				state.enqueue(neighbors[i]);
 		}
 		
 		return true;
 	}
 	
 	/**
-	 * Adds the node to the sampleGraph
-	 * Just adds the current_vertex and places all the neighbors in the neighbors possible
+	 * Adds the node to the sample, the edges to the rest of the sample come with it
 	 * @param current_vertex
 	 * @param parentGraph
-	 * @return
+	 * @return false if it was already added
 	 */
-	protected boolean addNode(String current_vertex, Graph<String, String> parentGraph) {
-		// Check to see if it was already added
-		if (sampledGraph.containsVertex(current_vertex))
-			return false;
-		
-		// Add the selected vertex
-		sampledGraph.addVertex(current_vertex);
-		addAllEdges(current_vertex, parentGraph);
-	
-		return true;
-	}
-	
-	protected void addAllEdges(String current_vertex, Graph<String, String> parentGraph) {
-		Collection<String> allNodes = sampledGraph.getVertices();
-		for (String vert : allNodes) {
-			Collection<String> edges = parentGraph.findEdgeSet(vert, current_vertex);
-			edges.addAll(parentGraph.findEdgeSet(current_vertex, vert));
-			for (String edge : edges) {
-				if (!sampledGraph.containsEdge(edge)) {
-					Pair<String> endPoints = parentGraph.getEndpoints(edge);
-					// Check to see if the undirected counterpart is already added
-					String revEdge = sampledGraph.findEdge(endPoints.getSecond(), endPoints.getFirst());
-					if (revEdge != null && EdgeType.UNDIRECTED == sampledGraph.getEdgeType(revEdge)) {
-						System.out.println("Duplicate edge...");
-					} else {
-						sampledGraph.addEdge(edge, endPoints.getFirst(), endPoints.getSecond(), parentGraph.getEdgeType(edge));
-					}
-				}
-			}
-		}
+	protected boolean addNode(int current_vertex, Graph<String, String> parentGraph) {
+		return state.addSampled(current_vertex);
 	}
 }
\ No newline at end of file
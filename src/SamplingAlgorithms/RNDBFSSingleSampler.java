@@ -1,9 +1,8 @@
 package SamplingAlgorithms;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.Arrays;
 
+import GraphCreation.CompactGraph;
 import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.graph.util.EdgeType;
 
@@ -19,7 +18,10 @@ import edu.uci.ics.jung.graph.util.EdgeType;
  */
 public class RNDBFSSingleSampler extends RNDBFSSampler {
 	
-	public RNDBFSSingleSampler(double alpha, double bfs_rnd, int seed, EdgeType type) {
+	// The sampled vertices before this position have no more neighbors to add. The sample only grows, so they never will again
+	protected int bfsCursor = 0;
+	
+	public RNDBFSSingleSampler(double alpha, double bfs_rnd, long seed, EdgeType type) {
 		super(alpha, bfs_rnd, seed, type);
 	}
 	
@@ -27,6 +29,28 @@ public class RNDBFSSingleSampler extends RNDBFSSampler {
 		super(alpha, bfs_rnd, type);
 	}
 	
+	/**
+	 * The continuation of the RNDBFSSampler, with the BFS cursor after its values
+	 */
+	@Override
+	public SampleCheckpoints.Continuation getContinuation() {
+		SampleCheckpoints.Continuation continuation = super.getContinuation();
+		long[] values = Arrays.copyOf(continuation.values, getContinuationValues());
+		values[values.length - 1] = bfsCursor;
+		return new SampleCheckpoints.Continuation(continuation.vertexLists, values);
+	}
+	
+	@Override
+	public void restoreSample(Graph<String, String> parent, int[] vertices, int[] edges, SampleCheckpoints.Continuation continuation) {
+		super.restoreSample(parent, vertices, edges, continuation);
+		bfsCursor = (int)continuation.values[getContinuationValues() - 1];
+	}
+	
+	@Override
+	protected int getContinuationValues() {
+		return super.getContinuationValues() + 1;
+	}
+	
 	/**
 	 * Only extends the BFS one connected node at a time
 	 * @param parentGraph
@@ -34,24 +58,24 @@ public class RNDBFSSingleSampler extends RNDBFSSampler {
 	 */
 	@Override
 	protected boolean setupBFS(Graph<String, String> parentGraph) {
-		if (!addingQueue.isEmpty())
+		if (!state.isQueueEmpty())
 			throw new Error("Adding Queue must be empty before additional steps are taken");
 		
-		Collection<String> availableVerts = new HashSet<String>(sampledGraph.getVertices());
-		Iterator<String> sampleVerts = availableVerts.iterator();
+		CompactGraph parent = state.getParent();
+		int[] offsets = parent.getOutOffsets();
+		int[] neighbors = parent.getOutNeighbors();
 		
-		// Check every existing vertex in the sample for neighbors and add any that aren't added.
-		HashSet<String> neighbors = new HashSet<String>();
-		while (sampleVerts.hasNext() && neighbors.isEmpty()) {
-			neighbors.addAll(parentGraph.getSuccessors(sampleVerts.next()));
-			neighbors.removeAll(sampledGraph.getVertices());
+		// Check the existing vertices in the sample, in the order they were added, for neighbors and add any that aren't added.
+		for (; bfsCursor < state.getSampledCount(); bfsCursor++) {
+			int v = state.getSampled(bfsCursor);
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				if (!state.isSampled(neighbors[i]))
+					state.enqueue(neighbors[i]);
+			}
+			if (!state.isQueueEmpty())
+				return true;
 		}
 		
-		if (neighbors.isEmpty())
-			return false;
-		else {
-			addingQueue.addAll(neighbors);
-			return true;
-		}
+		return false;
 	}
 }
\ No newline at end of file
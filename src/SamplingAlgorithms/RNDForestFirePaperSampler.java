@@ -1,17 +1,12 @@
 package SamplingAlgorithms;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Random;
 
+import GraphCreation.CompactGraph;
 import Utils.CSV_Builder;
+import Utils.SplitMix64;
 import Utils.CSV_Builder_Objects.CSV_Percent;
-import edu.uci.ics.jung.graph.DirectedSparseGraph;
 import edu.uci.ics.jung.graph.Graph;
-import edu.uci.ics.jung.graph.UndirectedSparseGraph;
 import edu.uci.ics.jung.graph.util.EdgeType;
 
 /**
@@ -33,47 +28,57 @@ import edu.uci.ics.jung.graph.util.EdgeType;
  * In terms of a directed graph, each node has a forward burning and a backwards burning probability. the
  * backwards burning probability has a mean equal to r(pf/(1-pf))
  * 
+ * The sample and the burning nodes are tracked in a SamplingState over the parent's vertex ids. It only holds the edges the fire spread over.
+ * The fire is kept in int ring buffers and the neighbors it burns are picked in a reused array, so it doesn't allocate as it spreads
+ * 
  * @author iosbomb
  *
  */
-public class RNDForestFirePaperSampler implements TargetedSampleMethod {
+public class RNDForestFirePaperSampler implements ViewSampleMethod {
 	// Alpha is the percentage of the overall graph's vertexes it will fulfill
 	// Threshold is the chance of doing a sampling method vs the other
 	protected double alpha, forest_rnd;
-	protected int seed;
+	protected long seed;
 	
 	// Variables to store whether the algorithm is forward or backwards burning
 	protected double pFB, pBB;
 	
 	/**
 	 * Returns a number of failures before the first success based off a geometric distribution. 
+	 * It's drawn by inverting the distribution, P(r >= k) = probability^k, so it takes one draw however large it is
 	 * @param probability - rate of failure
 	 * @param max - the maximum number that matters in this calculation (to avoid needless calculation)
 	 * @param rndGen
-	 * @return
+	 * @return the number, no more than max
 	 */
 	public int getNodesAllowed(double probability, int max, Random rndGen) {
-		int retVal = 0;
-		while (retVal <= max && rndGen.nextDouble() <= probability)
-			retVal++;
-		
-		return retVal;
+		if (max <= 0 || probability <= 0)
+			return 0;
+		if (probability >= 1)
+			return max;
+		// 1 - nextDouble() is in (0, 1], so the log is finite
+		double draw = Math.floor(Math.log(1.0 - rndGen.nextDouble()) / Math.log(probability));
+		return (draw >= max) ? max : (int)draw;
 	}
 
-	// As a SparseGraph, this can support both Directed and Undirected edges
-	protected Graph<String, String> sampledGraph;
 	// Queue to control the adding
-	protected LinkedList<String> nodeQueue;
+	protected IntQueue nodeQueue;
 	// Queue to store the addition of Edges, holds the predecessors
-	protected LinkedList<String> nodePred;
-	// Queue to control the flaming nodes. They're on FIRE!
-	protected HashSet<String> fireQueue;
+	protected IntQueue nodePred;
+	// The sample, with the flaming nodes as its queue. They're on FIRE! This supports both Directed and Undirected edges
+	protected SamplingState state;
+	
+	// The vertex ids in a random order and the position of the next one to try, for Random Sampling
+	protected int[] vertices;
+	protected int mainVGetter;
+	// Where the unburned neighbors of a burning node are picked from, reused for every node
+	protected int[] scratch = new int[0];
 	
 	// Count of how many random vs bfs samples were used
 	protected int randomSample;
 	protected int forestSample;
 	
-	public RNDForestFirePaperSampler(double alpha, double forest_rnd, int seed, EdgeType type, double forwardProb, double backwardMult) {
+	public RNDForestFirePaperSampler(double alpha, double forest_rnd, long seed, EdgeType type, double forwardProb, double backwardMult) {
 		this.alpha = alpha;
 		this.forest_rnd = forest_rnd;
 		this.seed = seed;
@@ -81,29 +86,21 @@ public class RNDForestFirePaperSampler implements TargetedSampleMethod {
 		this.pFB = forwardProb;
 		this.pBB = backwardMult*forwardProb;
 		
-		nodeQueue = new LinkedList<String>();
-		nodePred = new LinkedList<String>();
-		fireQueue = new HashSet<String>();
-		
+		nodeQueue = new IntQueue();
+		nodePred = new IntQueue();
 		// Variables needed for the tracking of the growing sample
-		if (type.equals(EdgeType.DIRECTED)) {
-			sampledGraph = new DirectedSparseGraph<String, String>();	
-		} else if (type.equals(EdgeType.UNDIRECTED)) {
-			sampledGraph = new UndirectedSparseGraph<String, String>();
-		} else {
-			throw new Error("Unrecognized Edge Type");
-		}
+		state = new SamplingState(type, false);
 		
 		randomSample = 0;
 		forestSample = 0;
 	}
 	
 	public RNDForestFirePaperSampler(double alpha, double forest_rnd, EdgeType type, double forwardBurning, double backwardsBurningMult) {
-		this(alpha, forest_rnd, (new Random()).nextInt(), type, forwardBurning, backwardsBurningMult);
+		this(alpha, forest_rnd, (new Random()).nextLong(), type, forwardBurning, backwardsBurningMult);
 	}
 	
 	public RNDForestFirePaperSampler(double alpha, double forest_rnd, EdgeType type, double forwardBurning) {
-		this(alpha, forest_rnd, (new Random()).nextInt(), type, forwardBurning, 0);
+		this(alpha, forest_rnd, (new Random()).nextLong(), type, forwardBurning, 0);
 	}
 	
 	public void changeAlpha(double alpha) {
@@ -111,12 +108,39 @@ public class RNDForestFirePaperSampler implements TargetedSampleMethod {
 	}
 	
 	public Graph<String, String> getGraph() {
-		return sampledGraph;
+		return state.getGraph();
+	}
+	
+	public SampleView getSampleView() {
+		return state.getView();
+	}
+	
+	/**
+	 * The spreading flames and their predecessors, the burning nodes, then the counts of random and forest-fire steps
+	 */
+	public SampleCheckpoints.Continuation getContinuation() {
+		return new SampleCheckpoints.Continuation(new int[][]{nodeQueue.toArray(), nodePred.toArray(), state.getQueue()},
+				new long[]{randomSample, forestSample});
+	}
+	
+	public void restoreSample(Graph<String, String> parent, int[] vertices, int[] edges, SampleCheckpoints.Continuation continuation) {
+		continuation.expect(3, 2);
+		state.attach(parent);
+		state.restore(vertices, edges);
+		nodeQueue.clear();
+		for (int node : continuation.vertexLists[0])
+			nodeQueue.add(node);
+		nodePred.clear();
+		for (int node : continuation.vertexLists[1])
+			nodePred.add(node);
+		state.setQueue(continuation.vertexLists[2]);
+		randomSample = (int)continuation.values[0];
+		forestSample = (int)continuation.values[1];
 	}
 	
 	protected int sampleMinVertexes;
 	protected boolean continueSampling() {
-		return (sampledGraph.getVertexCount() < sampleMinVertexes);
+		return (state.getSampledCount() < sampleMinVertexes);
 	}
 	
 	public CSV_Builder sampleGraph(Graph<String, String> parentGraph) {
@@ -126,15 +150,14 @@ public class RNDForestFirePaperSampler implements TargetedSampleMethod {
 		// Set the sample minimum to begin the loop
 		sampleMinVertexes = (int)Math.ceil((double)parentGraph.getVertexCount() * alpha);
 		
-		Random rndGen = new Random(seed);
+		CompactGraph parent = state.attach(parentGraph);
+		// Every alpha gets its own stream of the sampler's seed
+		Random rndGen = new SplitMix64(seed).fork(SplitMix64.key(alpha));
 		
-		// A list to hold the set of Strings that is possibly selected
-		// ArrayList probably has one of the quickest shuffles and I'm unsure about the Collection's randomness
-		ArrayList<String> vertices = new ArrayList<String>(parentGraph.getVertices());
-		Collections.shuffle(vertices, rndGen);
-		// Iterator to easily run through the values
-		Iterator<String> mainVGetter = vertices.iterator();
-		/** Note, the above iterator will be used for Random Sampling **/
+		// The vertex ids in a random order, shuffled the same as a list of the vertices would be
+		vertices = state.shuffledVertices(rndGen);
+		mainVGetter = 0;
+		/** Note, the above array will be used for Random Sampling **/
 		
 		// Run the sampling. This will alternate between adding the nodes, one by one, and setting them up for adding
 		while (continueSampling()) {
@@ -142,12 +165,12 @@ public class RNDForestFirePaperSampler implements TargetedSampleMethod {
 			if (nodeQueue.isEmpty()) {
 				// Select Random Sampling
 				if (rndGen.nextDouble() > forest_rnd) {
-					if (randomSample(mainVGetter) == false)
+					if (randomSample() == false)
 						break; // All of the nodes have been sampled
 				} else {
 					// Attempt to rekindle the fire, if available, or rekindle if needed
-					if (fireQueue.isEmpty()) {
-						if (randomSample(mainVGetter) == false)
+					if (state.isQueueEmpty()) {
+						if (randomSample() == false)
 								break;
 					} else {
 						forestSample(parentGraph, rndGen);
@@ -158,28 +181,24 @@ public class RNDForestFirePaperSampler implements TargetedSampleMethod {
 				
 				// Add the node to the sample (if not already there)
 				// The tree is on fire if new
-				String newFlame = nodeQueue.pollFirst();
-				if (sampledGraph.addVertex(newFlame))
-					fireQueue.add(newFlame);
+				int newFlame = nodeQueue.poll();
+				if (state.addSampled(newFlame))
+					state.enqueue(newFlame);
 				
 				// Add the edge and/or back-vertices
-				String pred = nodePred.pollFirst();
-				if (sampledGraph.addVertex(pred))
-					fireQueue.add(pred);
-				// Now add the edges, handle Undirected issues first
-				if (sampledGraph.getDefaultEdgeType() == EdgeType.UNDIRECTED) {
-					if (sampledGraph.findEdge(newFlame, pred) != null)
-						continue;
-				}
-				String edge = parentGraph.findEdge(pred, newFlame);
-				if (edge != null)
-					sampledGraph.addEdge(edge, pred, newFlame);
+				int pred = nodePred.poll();
+				if (state.addSampled(pred))
+					state.enqueue(pred);
+				// Now add the edge, an UNDIRECTED edge has the same id both ways so it's only added once
+				int edge = parent.findEdge(pred, newFlame);
+				if (edge != -1)
+					state.addEdge(edge);
 			}
 		}
 		/**
 		 * Return the actual alpha, then actual threshold
 		 */
-		double actualAlpha = (double)sampledGraph.getVertexCount() / (double)parentGraph.getVertexCount();
+		double actualAlpha = (double)state.getSampledCount() / (double)parentGraph.getVertexCount();
 		if (randomSample + forestSample == 0)
 			throw new Error("Random and Thresh can't be 0 at this point");
 		double actualThreshold = (double)forestSample / (double)(randomSample + forestSample);
@@ -188,62 +207,78 @@ public class RNDForestFirePaperSampler implements TargetedSampleMethod {
 	}
 	
 	protected void forestSample(Graph<String, String> parentGraph, Random rndGen) {
-		// Queue the flames for processing with their predecessor!
-		for (String node : fireQueue) {
-			
-			ArrayList<String> succ = new ArrayList<String>(parentGraph.getSuccessors(node));
-			int nodesPossible = getNodesAllowed(pFB, succ.size(), rndGen);
+		CompactGraph parent = state.getParent();
+		
+		// Queue the flames for processing with their predecessor! Taking them off the queue puts them out
+		while (!state.isQueueEmpty()) {
+			int node = state.poll();
 			
-			Collections.shuffle(succ);
-			int i = 0;
-			for (String neighbor : succ) {
-				// Check to see if you should add neighbors
-				if (i >= nodesPossible)
-					break;
-				
-				// Connect to the neighbor if not
-				nodeQueue.add(neighbor);
+			// Burn up to r of the out-links to members that weren't burned yet
+			int count = unburned(parent.getOutNeighbors(), parent.getOutOffsets()[node], parent.getOutOffsets()[node + 1]);
+			int nodesPossible = getNodesAllowed(pFB, count, rndGen);
+			for (int i = 0; i < nodesPossible; i++) {
+				// Connect to the neighbor
+				nodeQueue.add(pick(i, count, rndGen));
 				nodePred.add(node);
 			}
 			
 			// Now connect to the predecessors
-			succ.clear();
-			
 			if (parentGraph.getDefaultEdgeType() == EdgeType.DIRECTED) {
-				succ = new ArrayList<String>(parentGraph.getPredecessors(node));
-				nodesPossible = getNodesAllowed(pBB, succ.size(), rndGen);
-				
-				Collections.shuffle(succ);
-				i = 0;
-				
-				for (String neighbor : succ) {
-					// Check to see if you should add neighbors
-					if (i >= nodesPossible)
-						break;
-					
-					// Connect to the neighbor if not
+				count = unburned(parent.getInNeighbors(), parent.getInOffsets()[node], parent.getInOffsets()[node + 1]);
+				nodesPossible = getNodesAllowed(pBB, count, rndGen);
+				for (int i = 0; i < nodesPossible; i++) {
+					// Connect to the neighbor
 					nodeQueue.add(node);
-					nodePred.add(neighbor);
+					nodePred.add(pick(i, count, rndGen));
 				}
 			}
 		}
-		fireQueue.clear();		
 		forestSample++;
 	}
 	
-	protected boolean randomSample(Iterator<String> mainVGetter) {
-		String current_vertex = null;
+	/**
+	 * Copies the neighbors[from, to) that aren't in the sample into the scratch array
+	 * @return how many there are
+	 */
+	private int unburned(int[] neighbors, int from, int to) {
+		if (scratch.length < to - from)
+			scratch = new int[Math.max(to - from, 2 * scratch.length)];
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			if (!state.isSampled(neighbors[i]))
+				scratch[count++] = neighbors[i];
+		}
+		return count;
+	}
+	
+	/**
+	 * One step of a partial Fisher-Yates shuffle of the scratch array, so the first picks are a uniform sample without
+	 * repeats and only the neighbors picked are shuffled
+	 * @param i - how many were already picked
+	 * @param count - how many there are to pick from
+	 * @return the next pick
+	 */
+	private int pick(int i, int count, Random rndGen) {
+		int j = i + rndGen.nextInt(count - i);
+		int picked = scratch[j];
+		scratch[j] = scratch[i];
+		scratch[i] = picked;
+		return picked;
+	}
+	
+	protected boolean randomSample() {
+		int current_vertex = -1;
 		// Add another random node, first get to an open position
-		while (mainVGetter.hasNext() && sampledGraph.getVertices().contains(current_vertex = mainVGetter.next()))
+		while (mainVGetter < vertices.length && state.isSampled(current_vertex = vertices[mainVGetter++]))
 			continue;
 		// Add the random selected node
-		if (current_vertex != null){
-			sampledGraph.addVertex(current_vertex);
+		if (current_vertex != -1){
+			state.addSampled(current_vertex);
 			// Add the random node as a source of FIRE!
-			fireQueue.add(current_vertex);
+			state.enqueue(current_vertex);
 			randomSample++;
 		} else {
-			if (!mainVGetter.hasNext())
+			if (mainVGetter >= vertices.length)
 				return false;
 		}
 		return true;		
@@ -0,0 +1,334 @@
+package SamplingAlgorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import GraphCreation.CompactGraph;
+import Utils.CSV_Builder;
+import Utils.SplitMix64;
+import Utils.CSV_Builder_Objects.CSV_List;
+import Utils.CSV_Builder_Objects.CSV_Percent;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+/**
+ * Sampler that runs several random walks at once, each on its own thread, growing the one sample.
+ * Every walker works the same as RNDWalkSampler's: it walks to a random neighbor or jumps to a random un-sampled node,
+ * based off the threshold, and jumps when it's walked over the sample rerunMax times in a row.
+ *   -visited: a bitset of the sample shared by the walkers, a walker only adds a node if it's the one to set its bit
+ *   -claimed: the size of the sample, a walker takes the next rank of the sample for every node it adds
+ * Sampling stops once the sample reaches the alpha target. A node that gets a rank past the target is left out, so the sample
+ * always has exactly the target's amount of nodes (unless the graph runs out). The walkers then hand what they found to the
+ * SamplingState in rank order, so the sample grows in one order like any other.
+ * Each walker draws from its own stream of the seed, but how the walkers interleave isn't repeatable, so neither is the sample
+ * @author MOREPOWER
+ *
+ */
+public class RNDMultiWalkSampler implements ViewSampleMethod {
+	// Alpha is the percentage of the overall graph's vertexes it will fulfill
+	// Threshold is the chance of doing a sampling method vs the other
+	protected double alpha, walk_rnd;
+	protected long seed;
+
+	// The sample, by vertex and edge id. Only changed between the walks, never by the walkers
+	protected SamplingState state;
+
+	protected final Walker[] walkers;
+	protected final int rerunMax = 200;
+
+	// Shared by the walkers during a sampleGraph call
+	private AtomicLongArray visited;
+	private AtomicInteger claimed;
+	private AtomicInteger mainVGetter;
+	private int[] vertices;
+	private int sampleMinVertexes;
+
+	public RNDMultiWalkSampler(double alpha, double walk_rnd, long seed, EdgeType type, int walkerCount) {
+		if (walkerCount < 1)
+			throw new Error("There has to be at least one walker");
+		this.alpha = alpha;
+		this.walk_rnd = walk_rnd;
+		this.seed = seed;
+
+		// Variables needed for the tracking of the growing sample
+		state = new SamplingState(type, false);
+		walkers = new Walker[walkerCount];
+		for (int i = 0; i < walkerCount; i++)
+			walkers[i] = new Walker();
+	}
+
+	public RNDMultiWalkSampler(double alpha, double walk_rnd, EdgeType type, int walkerCount) {
+		this(alpha, walk_rnd, (new Random()).nextLong(), type, walkerCount);
+	}
+
+	public void changeAlpha(double alpha) {
+		this.alpha = alpha;
+	}
+
+	public Graph<String, String> getGraph() {
+		return state.getGraph();
+	}
+
+	public SampleView getSampleView() {
+		return state.getView();
+	}
+
+	/**
+	 * Where the walkers that have started are, then for every walker its counts of random and walk steps and whether it's started
+	 */
+	public SampleCheckpoints.Continuation getContinuation() {
+		IntQueue at = new IntQueue();
+		long[] values = new long[3 * walkers.length];
+		for (int i = 0; i < walkers.length; i++) {
+			if (walkers[i].at != -1)
+				at.add(walkers[i].at);
+			values[3 * i] = walkers[i].randomSample;
+			values[3 * i + 1] = walkers[i].walkSample;
+			values[3 * i + 2] = (walkers[i].at != -1) ? 1 : 0;
+		}
+		return new SampleCheckpoints.Continuation(new int[][]{at.toArray()}, values);
+	}
+
+	public void restoreSample(Graph<String, String> parent, int[] vertices, int[] edges, SampleCheckpoints.Continuation continuation) {
+		continuation.expect(1, 3 * walkers.length);
+		state.attach(parent);
+		state.restore(vertices, edges);
+		// Every walker carries on from where it was
+		int started = 0;
+		for (int i = 0; i < walkers.length; i++) {
+			walkers[i].randomSample = (int)continuation.values[3 * i];
+			walkers[i].walkSample = (int)continuation.values[3 * i + 1];
+			walkers[i].at = (continuation.values[3 * i + 2] == 0) ? -1 : continuation.vertexLists[0][started++];
+		}
+	}
+
+	public CSV_Builder sampleGraph(Graph<String, String> parentGraph) {
+		if (parentGraph.getVertexCount() == 0 || parentGraph.getEdgeCount() == 0)
+			throw new Error("Parent Graph must contain vertexes and edges");
+
+		// Set the sample minimum to begin the loop
+		sampleMinVertexes = (int)Math.ceil((double)parentGraph.getVertexCount() * alpha);
+
+		CompactGraph parent = state.attach(parentGraph);
+		// Every alpha gets its own stream of the sampler's seed, and every walker its own stream of that
+		SplitMix64 rndGen = new SplitMix64(seed).fork(SplitMix64.key(alpha));
+
+		// The vertex ids in a random order, for the jumps. The walkers share the position of the next one to try
+		vertices = state.shuffledVertices(rndGen);
+		mainVGetter = new AtomicInteger(0);
+
+		// The shared view of the sample so far
+		int start = state.getSampledCount();
+		visited = new AtomicLongArray((parent.getVertexCount() + 63) >>> 6);
+		for (int k = 0; k < start; k++)
+			setVisited(state.getSampled(k));
+		claimed = new AtomicInteger(start);
+
+		if (start < sampleMinVertexes) {
+			List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+			for (int i = 0; i < walkers.length; i++) {
+				walkers[i].begin(parent, rndGen.fork(i));
+				tasks.add(walkers[i]);
+			}
+			ExecutorService walkPool = Executors.newFixedThreadPool(walkers.length);
+			try {
+				for (Future<Void> walk : walkPool.invokeAll(tasks))
+					walk.get();
+			} catch (InterruptedException e) {
+				throw new Error("Interrupted while walking", e);
+			} catch (ExecutionException e) {
+				throw new Error("A walker failed", e.getCause());
+			} finally {
+				walkPool.shutdown();
+			}
+			merge(start);
+		}
+
+		/**
+		 * Return the actual alpha, then actual threshold, then the walkers' share of the sample and their own thresholds
+		 */
+		double actualAlpha = (double)state.getSampledCount() / (double)parentGraph.getVertexCount();
+		int randomSample = 0, walkSample = 0;
+		List<Integer> added = new ArrayList<Integer>();
+		List<CSV_Percent> thresholds = new ArrayList<CSV_Percent>();
+		for (Walker walker : walkers) {
+			randomSample += walker.randomSample;
+			walkSample += walker.walkSample;
+			added.add(walker.randomSample + walker.walkSample);
+			thresholds.add(new CSV_Percent((walker.randomSample + walker.walkSample == 0) ? 0 :
+				(double)walker.walkSample / (double)(walker.randomSample + walker.walkSample)));
+		}
+		if (randomSample + walkSample == 0)
+			throw new Error("Random and Thresh can't be 0 at this point");
+		double actualThreshold = (double)walkSample / (double)(randomSample + walkSample);
+		return new CSV_Builder(new CSV_Percent(actualAlpha),
+				new CSV_Builder(new CSV_Percent(actualThreshold),
+						new CSV_Builder(walkers.length,
+								new CSV_Builder(new CSV_List(added),
+										new CSV_Builder(new CSV_List(thresholds))))));
+	}
+
+	/**
+	 * Adds what the walkers found to the sample: the vertices in the order of their ranks, then the edges walker by walker
+	 * @param start - the size of the sample before the walk
+	 */
+	private void merge(int start) {
+		int end = Math.min(claimed.get(), sampleMinVertexes);
+		int[] byRank = new int[end - start];
+		for (Walker walker : walkers) {
+			for (int i = 0; i < walker.found.size(); i++)
+				byRank[walker.ranks.get(i) - start] = walker.found.get(i);
+		}
+		for (int vertex : byRank)
+			state.addSampled(vertex);
+
+		// An edge only counts if both of its ends made it into the sample
+		CompactGraph parent = state.getParent();
+		for (Walker walker : walkers) {
+			for (int i = 0; i < walker.edges.size(); i++) {
+				int edge = walker.edges.get(i);
+				if (state.isSampled(parent.getEdgeSource(edge)) && state.isSampled(parent.getEdgeTarget(edge)))
+					state.addEdge(edge);
+			}
+		}
+	}
+
+	private boolean isVisited(int vertex) {
+		return (visited.get(vertex >>> 6) & (1L << vertex)) != 0;
+	}
+
+	/**
+	 * @return false if the vertex was already visited
+	 */
+	private boolean setVisited(int vertex) {
+		int word = vertex >>> 6;
+		long bit = 1L << vertex;
+		while (true) {
+			long old = visited.get(word);
+			if ((old & bit) != 0)
+				return false;
+			if (visited.compareAndSet(word, old, old | bit))
+				return true;
+		}
+	}
+
+	/**
+	 * One of the walks. It keeps its place and its counts from one alpha to the next
+	 */
+	protected class Walker implements Callable<Void> {
+		// The id of the vertex the walk is at, -1 before it starts
+		protected int at = -1;
+		// Count of how many random vs walk samples this walker added
+		protected int randomSample = 0;
+		protected int walkSample = 0;
+
+		// What was found during the current call: the vertices with their ranks, and the edges walked over
+		private final IntQueue found = new IntQueue();
+		private final IntQueue ranks = new IntQueue();
+		private final IntQueue edges = new IntQueue();
+		private CompactGraph parent;
+		private Random rndGen;
+
+		void begin(CompactGraph parent, Random rndGen) {
+			this.parent = parent;
+			this.rndGen = rndGen;
+			found.clear();
+			ranks.clear();
+			edges.clear();
+		}
+
+		@Override
+		public Void call() {
+			int[] offsets = parent.getOutOffsets();
+			int[] neighbors = parent.getOutNeighbors();
+			// Tracks how many times the walk walked over the sample in a row
+			int rerunCount = 0;
+
+			while (claimed.get() < sampleMinVertexes) {
+				int degree = (at == -1) ? 0 : offsets[at + 1] - offsets[at];
+				// Jump if this is a random step, the walk hasn't started, it's on an island, or it's stuck in the sample
+				if (degree == 0 || rerunCount >= rerunMax || rndGen.nextDouble() > walk_rnd) {
+					int next = jump();
+					if (next == -1)
+						break;
+					rerunCount = 0;
+					continue;
+				}
+
+				int next = neighbors[offsets[at] + rndGen.nextInt(degree)];
+				if (!isVisited(next)) {
+					int rank = claim(next);
+					if (rank >= sampleMinVertexes)
+						break;
+					if (rank != -1) {
+						walkSample++;
+						move(next);
+						rerunCount = 0;
+						continue;
+					}
+				}
+				// Walked over the sample
+				move(next);
+				rerunCount++;
+			}
+			return null;
+		}
+
+		/**
+		 * Jumps to the next un-sampled vertex of the random order
+		 * @return the vertex, or -1 if the sample is full or every vertex was already sampled
+		 */
+		private int jump() {
+			int index;
+			while ((index = mainVGetter.getAndIncrement()) < vertices.length) {
+				int next = vertices[index];
+				if (isVisited(next))
+					continue;
+				int rank = claim(next);
+				if (rank >= sampleMinVertexes)
+					return -1;
+				if (rank != -1) {
+					randomSample++;
+					move(next);
+					return next;
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * Adds the vertex to the sample if no other walker has
+		 * @return its rank in the sample, or -1 if it was already visited
+		 */
+		private int claim(int vertex) {
+			if (!setVisited(vertex))
+				return -1;
+			int rank = claimed.getAndIncrement();
+			if (rank < sampleMinVertexes) {
+				found.add(vertex);
+				ranks.add(rank);
+			}
+			return rank;
+		}
+
+		/**
+		 * Moves the walker, keeping the edge from where it was if there is one
+		 */
+		private void move(int next) {
+			if (at != -1 && at != next) {
+				int edge = parent.findEdge(at, next);
+				if (edge != -1)
+					edges.add(edge);
+			}
+			at = next;
+		}
+	}
+}
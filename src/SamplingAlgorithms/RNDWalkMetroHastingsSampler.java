@@ -1,16 +1,14 @@
 package SamplingAlgorithms;
 
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Random;
 
-import edu.uci.ics.jung.graph.Graph;
+import GraphCreation.CompactGraph;
 import edu.uci.ics.jung.graph.util.EdgeType;
 
 /**
  * Sampler implementing the metro-hastings version of the walk method as well as the Random sampling for mixing.
- * Metro-Hastings biases the random walk to explore less degree-centric nodes.
+ * Metro-Hastings biases the random walk to explore less degree-centric nodes. A rejected move keeps the walk where it is,
+ * which counts as a step over an already sampled node.
  * Random sampling only selects one node that's currently unselected and adds no connections.
  * Connections are added based off where the walk goes, making a full graph sampling able to include only a proportion of the connections
  * 
@@ -19,68 +17,34 @@ import edu.uci.ics.jung.graph.util.EdgeType;
  */
 public class RNDWalkMetroHastingsSampler extends RNDWalkSampler {
 	
-	public RNDWalkMetroHastingsSampler(double alpha, double walk_rnd, int seed, EdgeType type) {
+	public RNDWalkMetroHastingsSampler(double alpha, double walk_rnd, long seed, EdgeType type) {
 		super(alpha, walk_rnd, seed, type);
 	}
 	
 	public RNDWalkMetroHastingsSampler(double alpha, double walk_rnd, EdgeType type) {
-		super(alpha, walk_rnd, (new Random()).nextInt(), type);
-	}
-	
-	protected static class PercentageGroup<T> {
-		double percentage;
-		T data;
-		public PercentageGroup(T data, double percentage) {
-			this.data = data;
-			this.percentage = percentage;
-		}
-		@Override
-		public String toString() {
-			return data.toString() + ", " + percentage;
-		}
+		super(alpha, walk_rnd, (new Random()).nextLong(), type);
 	}
 	
 	/**
-	 * Takes in a group of objects with an attached percentage, then returns the a selected value based based off the probabilities.
-	 * This only gives the items the percent they were given and only works for cumulative percentages less than 100%. No negatives either.
-	 * @param group  
-	 * @return null if none were chosen, or the grouping that was
+	 * A Metropolis-Hastings step: a neighbor is proposed uniformly and the walk moves to it with probability
+	 * min(1, deg(u)/deg(v)), the out-degree of where it is over the in-degree of the neighbor. Otherwise the walk stays put.
+	 * Degrees come straight from the CompactGraph's offsets, so a step is constant work whatever the degrees
+	 * @return the id of the neighbor, the vertex itself if the move was rejected, or -1 if there aren't any neighbors
 	 */
-	private PercentageGroup<String> pickPercent(LinkedList<PercentageGroup<String>> group) {
-		double selection = (new Random()).nextDouble();
-		double counter = 0;
-		PercentageGroup<String> value = null;
-		
-		Iterator<PercentageGroup<String>> iter = group.iterator();
-		do {
-			if (iter.hasNext()) {
-				value = iter.next();
-				counter += value.percentage;
-			} else 
-				return null;
-		} while (counter < selection);
-			
-		return value;
-	}
-	
 	@Override
-	protected String pickNextWalk(Collection<String> neighbors,
-			Graph<String, String> parentGraph) {
-		// Make the selection non-uniform. Look at in-nodes for neighbors and out-nodes for the current percentage
-		PercentageGroup<String> selection = null;
-		LinkedList<PercentageGroup<String>> perNeighbors = new LinkedList<PercentageGroup<String>>();
-		double size = neighbors.size();
-		for (String neighbor : neighbors) {
-			perNeighbors.add(new PercentageGroup<String>(
-					neighbor, 
-					(1/size) * Math.min(1, size/(double)parentGraph.getPredecessorCount(neighbor))
-					));
-		}
-		do {
-			selection = pickPercent(perNeighbors);
-		} while (selection == null);
+	protected int pickNextWalk(int vertex, CompactGraph parent, Random rndGen) {
+		int[] outOffsets = parent.getOutOffsets();
+		int degree = outOffsets[vertex + 1] - outOffsets[vertex];
+		if (degree == 0)
+			return -1;
+		int proposal = parent.getOutNeighbors()[outOffsets[vertex] + rndGen.nextInt(degree)];
 		
-		return selection.data;
+		// A neighbor with at most the degree of the vertex is always accepted, no need for a draw
+		int[] inOffsets = parent.getInOffsets();
+		int proposalDegree = inOffsets[proposal + 1] - inOffsets[proposal];
+		if (proposalDegree <= degree || rndGen.nextDouble() * proposalDegree < degree)
+			return proposal;
+		return vertex;
 	}
 	
 //	public static void main(String[] args) throws Exception {
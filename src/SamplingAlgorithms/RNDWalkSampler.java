@@ -1,38 +1,36 @@
 package SamplingAlgorithms;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Random;
 
+import GraphCreation.CompactGraph;
 import Utils.CSV_Builder;
+import Utils.SplitMix64;
 import Utils.CSV_Builder_Objects.CSV_Percent;
-import edu.uci.ics.jung.graph.DirectedSparseGraph;
 import edu.uci.ics.jung.graph.Graph;
-import edu.uci.ics.jung.graph.UndirectedSparseGraph;
 import edu.uci.ics.jung.graph.util.EdgeType;
 
 /**
  * Sampler that operates off of a random walk or random sample, or a mixture of the two.
  *   Random: randomly selects an un-sampled node and sets the current node to it.
  *   Walk: randomly selects a neighbor of the current node, explores it and adds the edge. If more than 
- *   rerunMax steps occur before a node is added, a random node that hasn't been added is selected
+ *   rerunMax steps occur before a node is added, it jumps to an un-sampled out-neighbor of the sample picked uniformly,
+ *   or to a random node that hasn't been added if there are none
  *   
  * This will always start with random, then choose between a walk or random based off the threshold
+ * The sample is tracked in a SamplingState over the parent's vertex ids. It only holds the edges the walk went over
  * @author MOREPOWER
  *
  */
-public class RNDWalkSampler implements TargetedSampleMethod {
+public class RNDWalkSampler implements ViewSampleMethod {
 	// Alpha is the percentage of the overall graph's vertexes it will fulfill
 	// Threshold is the chance of doing a sampling method vs the other
 	protected double alpha, walk_rnd;
-	protected int seed;
+	protected long seed;
 	
-	// As a SparseGraph, this can support both Directed and Undirected edges
-	protected Graph<String, String> sampledGraph;
-	protected String lastNode;
+	// The sample, by vertex and edge id. This supports both Directed and Undirected edges
+	protected SamplingState state;
+	// The id of the vertex the walk is at, -1 before it starts
+	protected int lastNode = -1;
 	
 	// Count of how many random vs bfs samples were used
 	protected int randomSample;
@@ -42,26 +40,20 @@ public class RNDWalkSampler implements TargetedSampleMethod {
 	protected int rerunCount = 0;
 	protected final int rerunMax = 200;
 	
-	public RNDWalkSampler(double alpha, double walk_rnd, int seed, EdgeType type) {
+	public RNDWalkSampler(double alpha, double walk_rnd, long seed, EdgeType type) {
 		this.alpha = alpha;
 		this.walk_rnd = walk_rnd;
 		this.seed = seed; 
 		
-		// Variables needed for the tracking of the growing sample
-		if (type.equals(EdgeType.DIRECTED)) {
-			sampledGraph = new DirectedSparseGraph<String, String>();	
-		} else if (type.equals(EdgeType.UNDIRECTED)) {
-			sampledGraph = new UndirectedSparseGraph<String, String>();
-		} else {
-			throw new Error("Unrecognized Edge Type");
-		}
-		
+		// Variables needed for the tracking of the growing sample, the frontier is where a stuck walk jumps to
+		state = new SamplingState(type, false);
+		state.trackFrontier();
 		randomSample = 0;
 		walkSample = 0;
 	}
 	
 	public RNDWalkSampler(double alpha, double walk_rnd, EdgeType type) {
-		this(alpha, walk_rnd, (new Random()).nextInt(), type);
+		this(alpha, walk_rnd, (new Random()).nextLong(), type);
 	}
 	
 	public void changeAlpha(double alpha) {
@@ -69,12 +61,36 @@ public class RNDWalkSampler implements TargetedSampleMethod {
 	}
 	
 	public Graph<String, String> getGraph() {
-		return sampledGraph;
+		return state.getGraph();
+	}
+	
+	public SampleView getSampleView() {
+		return state.getView();
+	}
+	
+	/**
+	 * Where the walk is (empty before it starts), then the counts of random and walk steps and how long the walk
+	 * has been going over the sample
+	 */
+	public SampleCheckpoints.Continuation getContinuation() {
+		int[] at = (lastNode == -1) ? new int[0] : new int[]{lastNode};
+		return new SampleCheckpoints.Continuation(new int[][]{at}, new long[]{randomSample, walkSample, rerunCount});
+	}
+	
+	public void restoreSample(Graph<String, String> parent, int[] vertices, int[] edges, SampleCheckpoints.Continuation continuation) {
+		continuation.expect(1, 3);
+		state.attach(parent);
+		state.restore(vertices, edges);
+		// The walk carries on from where it was, which isn't always the last vertex it added
+		lastNode = (continuation.vertexLists[0].length == 0) ? -1 : continuation.vertexLists[0][0];
+		randomSample = (int)continuation.values[0];
+		walkSample = (int)continuation.values[1];
+		rerunCount = (int)continuation.values[2];
 	}
 	
 	protected int sampleMinVertexes;
 	protected boolean continueSampling() {
-		return (sampledGraph.getVertexCount() < sampleMinVertexes);
+		return (state.getSampledCount() < sampleMinVertexes);
 	}
 	
 	public CSV_Builder sampleGraph(Graph<String, String> parentGraph) {
@@ -84,24 +100,24 @@ public class RNDWalkSampler implements TargetedSampleMethod {
 		// Set the sample minimum to begin the loop
 		sampleMinVertexes = (int)Math.ceil((double)parentGraph.getVertexCount() * alpha);
 		
-		Random rndGen = new Random(seed);
+		CompactGraph parent = state.attach(parentGraph);
+		// Every alpha gets its own stream of the sampler's seed
+		Random rndGen = new SplitMix64(seed).fork(SplitMix64.key(alpha));
 		
-		// A list to hold the set of Strings that is possibly selected
-		// ArrayList probably has one of the quickest shuffles and I'm unsure about the Collection's randomness
-		ArrayList<String> vertices = new ArrayList<String>(parentGraph.getVertices());
-		Collections.shuffle(vertices, rndGen);
-		// Iterator to easily run through the values
-		Iterator<String> mainVGetter = vertices.iterator();
-		/** Note, the above classes will be used for Random Sampling **/
+		// The vertex ids in a random order, shuffled the same as a list of the vertices would be
+		int[] vertices = state.shuffledVertices(rndGen);
+		// Position of the next vertex to try
+		int mainVGetter = 0;
+		/** Note, the above array will be used for Random Sampling **/
 
-		String current_vertex = null;
-		if (lastNode == null) {
-			if (sampledGraph.getVertexCount() != 0)
+		int current_vertex = -1;
+		if (lastNode == -1) {
+			if (state.getSampledCount() != 0)
 				throw new Error("Last node unchosen during a random walk...");			
 			// Start at a random node
-			if (mainVGetter.hasNext()){
-				current_vertex = mainVGetter.next();
-				sampledGraph.addVertex(current_vertex);
+			if (mainVGetter < vertices.length){
+				current_vertex = vertices[mainVGetter++];
+				state.addSampled(current_vertex);
 				lastNode = current_vertex;
 				randomSample++;
 			} else {
@@ -115,92 +131,76 @@ public class RNDWalkSampler implements TargetedSampleMethod {
 			// Select Random Sampling
 			if (rndGen.nextDouble() > walk_rnd) {
 				// Add another random node, first get to an open position
-				while (mainVGetter.hasNext() && sampledGraph.getVertices().contains(current_vertex = mainVGetter.next()))
+				while (mainVGetter < vertices.length && state.isSampled(current_vertex = vertices[mainVGetter++]))
 					continue;
 				// Add the random selected node
-				if (current_vertex != null){
+				if (current_vertex != -1){
 					randomSample++;
 				} else {
-					if (!mainVGetter.hasNext())
+					if (mainVGetter >= vertices.length)
 						break;
 				}
 			} else {
 				// Attempt to walk from the last node, moving forward only
-				Collection<String> neighbors = new ArrayList<String>(parentGraph.getSuccessors(lastNode));
-				if (neighbors.size() > 0) {
+				if (parent.outDegree(lastNode) > 0) {
 					
 					// Pick a neighbor at Random
-					current_vertex = pickNextWalk(neighbors, parentGraph);
-					if (current_vertex == null)
+					current_vertex = pickNextWalk(lastNode, parent, rndGen);
+					if (current_vertex == -1)
 						throw new Error("Impossible Error");
 					
 					// Attempt to add that neighbor, based off if it's already contained
-					if (sampledGraph.containsVertex(current_vertex) == false) {
+					if (state.isSampled(current_vertex) == false) {
 						// current_vertex is good! Add at bottom
 						walkSample++;
 					} else if (rerunCount >= rerunMax) {
 						// Check to see if there are any open spots and give them equal probability, then hit them
-						LinkedList<String> allNeighbors = new LinkedList<String>();
-						// Add all of the possible neighbors
-						for (String vertex : sampledGraph.getVertices()) {
-							allNeighbors.addAll(parentGraph.getSuccessors(vertex));
-						}
-						// Remove all of the neighbors that are currently in the graph
-						allNeighbors.removeAll(sampledGraph.getVertices());
-						
-						// Select the current vertex based off the total available neighbors, uniform weighting
-						if (allNeighbors.size() != 0) {
-							Collections.shuffle(allNeighbors);
-							current_vertex = allNeighbors.get(0);
+						// The frontier is kept up to date as the sample grows, so the jump doesn't rescan the sample
+						if (state.frontierSize() != 0) {
+							current_vertex = state.randomFrontier(rndGen);
 							walkSample++;
 						} else {
 							// All the connected nodes have been selected
 							// Take a random free node
-							while (mainVGetter.hasNext() && sampledGraph.containsVertex(current_vertex = mainVGetter.next()))
+							while (mainVGetter < vertices.length && state.isSampled(current_vertex = vertices[mainVGetter++]))
 								continue;
 							// Add the random selected node
-							if (current_vertex != null){
+							if (current_vertex != -1){
 								randomSample++;
 							} else {
-								if (!mainVGetter.hasNext())
+								if (mainVGetter >= vertices.length)
 									break;
 							}
 						}
 					} else {
 						rerunCount++;
-						// Check to see if it's an UNDIRECTED graph and has the reversed connection
-						if (parentGraph.getDefaultEdgeType() == EdgeType.UNDIRECTED) {
-							if (sampledGraph.findEdge(current_vertex, lastNode) != null) {
-								lastNode = current_vertex;
-								continue;
-							}
-						}
-						// Now check for the current edge
-						String edge = parentGraph.findEdge(lastNode, current_vertex);
-						if (edge != null)
-							sampledGraph.addEdge(edge, lastNode, current_vertex);
+						// Add the edge walked over, an UNDIRECTED edge has the same id both ways so it's only added once.
+						// A walk that stayed put (a rejected move) didn't go over one
+						int edge = (current_vertex == lastNode) ? -1 : parent.findEdge(lastNode, current_vertex);
+						if (edge != -1)
+							state.addEdge(edge);
 
 						lastNode = current_vertex;
 						continue;
 					}
 				} else {
 					// An island was selected. Random sample please.
-					while (mainVGetter.hasNext() && sampledGraph.containsVertex(current_vertex = mainVGetter.next()))
+					while (mainVGetter < vertices.length && state.isSampled(current_vertex = vertices[mainVGetter++]))
 						continue;
 					// Add the random selected node
-					if (current_vertex != null){
+					if (current_vertex != -1){
 						randomSample++;
 					} else {
-						if (!mainVGetter.hasNext())
+						if (mainVGetter >= vertices.length)
 							break;
 					}
 				}
 			}
 			// Add the selected current vertex
-			sampledGraph.addVertex(current_vertex);
-			String edge = parentGraph.findEdge(lastNode, current_vertex);
-			if (edge != null)
-				sampledGraph.addEdge(edge, lastNode, current_vertex);
+			state.addSampled(current_vertex);
+			int edge = parent.findEdge(lastNode, current_vertex);
+			if (edge != -1)
+				state.addEdge(edge);
 			
 			// Set the last node to be the added node
 			lastNode = current_vertex;
@@ -210,7 +210,7 @@ public class RNDWalkSampler implements TargetedSampleMethod {
 		/**
 		 * Return the actual alpha, then actual threshold
 		 */
-		double actualAlpha = (double)sampledGraph.getVertexCount() / (double)parentGraph.getVertexCount();
+		double actualAlpha = (double)state.getSampledCount() / (double)parentGraph.getVertexCount();
 		if (randomSample + walkSample == 0)
 			throw new Error("Random and Thresh can't be 0 at this point");
 		double actualThreshold = (double)walkSample / (double)(randomSample + walkSample);
@@ -218,18 +218,18 @@ public class RNDWalkSampler implements TargetedSampleMethod {
 				new CSV_Builder(new CSV_Percent(actualThreshold)));		
 	}
 	
-	protected String pickNextWalk(Collection<String> neighbors,
-			Graph<String, String> parentGraph) {
-		
-		int rndCount = (new Random()).nextInt(neighbors.size());
-		int start = 0;
-		for (String node : neighbors) {
-			if (start == rndCount) {
-				return node;
-			}
-			start++;
-		}
-		return null;
+	/**
+	 * Picks the out-neighbor of the vertex to walk to, uniformly
+	 * @param vertex - the id of the vertex being walked from
+	 * @param parent - the compact parent graph
+	 * @param rndGen - the sampler's stream
+	 * @return the id of the neighbor, or -1 if there aren't any
+	 */
+	protected int pickNextWalk(int vertex, CompactGraph parent, Random rndGen) {
+		int degree = parent.outDegree(vertex);
+		if (degree == 0)
+			return -1;
+		return parent.getOutNeighbors()[parent.getOutOffsets()[vertex] + rndGen.nextInt(degree)];
 	}
 
 	protected boolean goodParent(Graph<String, String> parentGraph) {
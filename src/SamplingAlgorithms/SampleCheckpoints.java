@@ -0,0 +1,246 @@
+package SamplingAlgorithms;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import GraphCreation.CompactGraph;
+
+/**
+ * The checkpoints of a growing sample, written to a single file instead of a graph for every alpha.
+ * Every alpha's sample is a prefix of the one after it, so each checkpoint only holds what was sampled since the last:
+ *    -Header: magic, version (ints) and whether the sample is induced
+ *    -Checkpoint: the alpha, the new vertex labels, the new edges as their source and target labels, the sampler's
+ *     continuation (its lists of vertex labels, then its values), then the magic again
+ * The continuation is the whole of what the sampler carries into the next alpha besides the sample, such as its queues, where
+ * its walk is and its counts, so a sampler read back from a checkpoint grows the same sample as one that never stopped.
+ * The file is only ever appended to. A checkpoint cut short (the run was stopped while writing it) is dropped when the file is loaded
+ * @author MOREPOWER
+ *
+ */
+public class SampleCheckpoints {
+
+	// "JGSO" and the version of the layout above
+	static final int MAGIC = 0x4A47534F;
+	static final int VERSION = 2;
+
+	/**
+	 * The vertices and edges added to the sample to reach an alpha, as ids of the parent's CompactGraph
+	 */
+	public static class Checkpoint {
+		public final double alpha;
+		public final int[] vertices;
+		public final int[] edges;
+		public final Continuation continuation;
+
+		public Checkpoint(double alpha, int[] vertices, int[] edges, Continuation continuation) {
+			this.alpha = alpha;
+			this.vertices = vertices;
+			this.edges = edges;
+			this.continuation = continuation;
+		}
+	}
+
+	/**
+	 * The state of a sampler at a checkpoint besides its sample, as the parent's vertex ids (queues, where a walk is)
+	 * and plain values (cursors and counts). What each list and value is belongs to the sampler that made it
+	 */
+	public static class Continuation {
+		public final int[][] vertexLists;
+		public final long[] values;
+
+		public Continuation(int[][] vertexLists, long[] values) {
+			this.vertexLists = vertexLists;
+			this.values = values;
+		}
+
+		/**
+		 * Checks the continuation has the shape a sampler reads
+		 * @param lists - the amount of vertex lists
+		 * @param valueCount - the amount of values
+		 * @return the continuation
+		 * @throws Error if it was made by another kind of sampler
+		 */
+		public Continuation expect(int lists, int valueCount) {
+			if (vertexLists.length != lists || values.length != valueCount)
+				throw new Error("Checkpoint continuation doesn't match the sampler: " + vertexLists.length + " lists and "
+						+ values.length + " values");
+			return this;
+		}
+	}
+
+	private final String path;
+
+	public SampleCheckpoints(String path) {
+		this.path = path;
+	}
+
+	/**
+	 * Reads every complete checkpoint of the file, and cuts off anything after them so new checkpoints follow on
+	 * @param parent - the graph the sample was taken from
+	 * @return the checkpoints in the order they were written, empty if there's no file
+	 * @throws IOException
+	 */
+	public List<Checkpoint> load(CompactGraph parent) throws IOException {
+		List<Checkpoint> checkpoints = new ArrayList<Checkpoint>();
+		File file = new File(path);
+		if (!file.isFile())
+			return checkpoints;
+
+		long complete = 0;
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (input.readInt() != MAGIC)
+				throw new Error("Not a sample checkpoint file: " + path);
+			int version = input.readInt();
+			// Older checkpoints don't have the continuation, so a sample can't be carried on from them the same
+			if (version != VERSION)
+				throw new Error("Sample checkpoints are version " + version + ", only version " + VERSION + " can be resumed: " + path);
+			boolean induced = input.readBoolean();
+			complete = 9;
+			long position = complete;
+
+			while (true) {
+				double alpha = input.readDouble();
+				int[] vertices = new int[input.readInt()];
+				position += 12;
+				position += readVertices(input, parent, vertices);
+				int[] edges = new int[input.readInt()];
+				position += 4;
+				if (induced && edges.length != 0)
+					throw new Error("Induced sample has checkpointed edges: " + path);
+				for (int i = 0; i < edges.length; i++) {
+					String source = input.readUTF();
+					String target = input.readUTF();
+					position += utfLength(source) + utfLength(target);
+					int s = parent.getId(source), t = parent.getId(target);
+					edges[i] = (s == -1 || t == -1) ? -1 : parent.findEdge(s, t);
+					if (edges[i] == -1)
+						throw new Error("Checkpointed edge isn't in the parent graph: " + source + "," + target);
+				}
+				int[][] vertexLists = new int[input.readInt()][];
+				position += 4;
+				for (int l = 0; l < vertexLists.length; l++) {
+					vertexLists[l] = new int[input.readInt()];
+					position += 4 + readVertices(input, parent, vertexLists[l]);
+				}
+				long[] values = new long[input.readInt()];
+				position += 4;
+				for (int i = 0; i < values.length; i++)
+					values[i] = input.readLong();
+				position += 8L * values.length;
+				if (input.readInt() != MAGIC)
+					break;
+				position += 4;
+
+				checkpoints.add(new Checkpoint(alpha, vertices, edges, new Continuation(vertexLists, values)));
+				complete = position;
+			}
+		} catch (EOFException e) {
+			// The last checkpoint wasn't finished
+		} finally {
+			input.close();
+		}
+
+		if (complete == 0) {
+			file.delete();
+		} else if (complete < file.length()) {
+			RandomAccessFile truncate = new RandomAccessFile(file, "rw");
+			try {
+				truncate.setLength(complete);
+			} finally {
+				truncate.close();
+			}
+		}
+		return checkpoints;
+	}
+
+	/**
+	 * Reads labels into the vertex ids of the parent
+	 * @return the amount of bytes read
+	 */
+	private static long readVertices(DataInputStream input, CompactGraph parent, int[] vertices) throws IOException {
+		long length = 0;
+		for (int i = 0; i < vertices.length; i++) {
+			String label = input.readUTF();
+			length += utfLength(label);
+			vertices[i] = parent.getId(label);
+			if (vertices[i] == -1)
+				throw new Error("Checkpointed vertex isn't in the parent graph: " + label);
+		}
+		return length;
+	}
+
+	/**
+	 * Appends the checkpoint of an alpha, the part of the sample that isn't in the previous checkpoint
+	 * @param alpha - the alpha the sample was grown to
+	 * @param previous - the sample at the last checkpoint, null if there isn't one
+	 * @param current - the sample now
+	 * @param continuation - the sampler's state besides the sample, from ViewSampleMethod.getContinuation()
+	 * @throws IOException
+	 */
+	public void append(double alpha, SampleView previous, SampleView current, Continuation continuation) throws IOException {
+		CompactGraph parent = current.getParent();
+		int vertexStart = (previous == null) ? 0 : previous.getVertexCount();
+		int edgeStart = (previous == null || current.isInduced()) ? 0 : previous.getEdgeCount();
+		int edgeEnd = current.isInduced() ? 0 : current.getEdgeCount();
+
+		boolean create = !(new File(path)).isFile();
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path, true)));
+		try {
+			if (create) {
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				output.writeBoolean(current.isInduced());
+			}
+			output.writeDouble(alpha);
+			output.writeInt(current.getVertexCount() - vertexStart);
+			for (int i = vertexStart; i < current.getVertexCount(); i++)
+				output.writeUTF(parent.getLabel(current.getVertex(i)));
+			output.writeInt(edgeEnd - edgeStart);
+			for (int i = edgeStart; i < edgeEnd; i++) {
+				int edge = current.getEdge(i);
+				output.writeUTF(parent.getLabel(parent.getEdgeSource(edge)));
+				output.writeUTF(parent.getLabel(parent.getEdgeTarget(edge)));
+			}
+			output.writeInt(continuation.vertexLists.length);
+			for (int[] list : continuation.vertexLists) {
+				output.writeInt(list.length);
+				for (int vertex : list)
+					output.writeUTF(parent.getLabel(vertex));
+			}
+			output.writeInt(continuation.values.length);
+			for (long value : continuation.values)
+				output.writeLong(value);
+			output.writeInt(MAGIC);
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * The amount of bytes writeUTF uses for the string
+	 */
+	private static int utfLength(String label) {
+		int length = 2;
+		for (int i = 0; i < label.length(); i++) {
+			char c = label.charAt(i);
+			if (c >= 0x0001 && c <= 0x007F)
+				length += 1;
+			else if (c > 0x07FF)
+				length += 3;
+			else
+				length += 2;
+		}
+		return length;
+	}
+}
@@ -0,0 +1,249 @@
+package SamplingAlgorithms;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import GraphCreation.CompactGraph;
+import GraphCreation.LabelDictionary;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.UndirectedSparseGraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+/**
+ * A sample held as a subset of its parent graph instead of a copy of it. A growing sample lists its vertices (and edges,
+ * unless it's induced) in the order they were added, and a view is a prefix of those lists:
+ *    -vertices: the first vertexCut vertices of the order, with a bitset of every vertex the sample has now
+ *    -edges: the first edgeCut edges of the order and their bitset, or null when the sample is induced (it has every edge
+ *     between its vertices)
+ * The orders and bitsets are shared with the sample rather than copied, so a view of every alpha of a sample costs nothing
+ * more than the sample itself. The sample can keep growing, a view only ever sees the prefix it was made with: the bitsets
+ * answer for the view while it's still the whole sample, after that the prefix is sorted once to look ids up in.
+ * toCompactGraph() gives the analyzers the sample's own CSR arrays, and toGraph() makes a JUNG graph of it for anything that
+ * still needs one. Neither needs anything the size of the parent.
+ * @author MOREPOWER
+ *
+ */
+public class SampleView {
+
+	private final CompactGraph parent;
+
+	// The sampled parent vertices, the order they were sampled in, and how much of it is in the view
+	private final BitSet vertexSet;
+	private final IntQueue vertexOrder;
+	private final int vertexCut;
+
+	// The same for the edges, null if the sample is induced
+	private final BitSet edgeSet;
+	private final IntQueue edgeOrder;
+	private final int edgeCut;
+
+	// The sorted prefixes, made the first time the sample has grown past the view
+	private IdMap vertexMap, edgeMap;
+
+	/**
+	 * Constructor for the view of a sample
+	 * @param parent - the graph the sample was taken from
+	 * @param vertexSet - the parent vertices sampled, the whole of vertexOrder
+	 * @param vertexOrder - the ids of the sampled vertices, in the order they were sampled
+	 * @param vertexCut - the amount of vertexOrder in the view
+	 * @param edgeSet - the parent edges sampled, the whole of edgeOrder. Null if the sample is induced
+	 * @param edgeOrder - the ids of the sampled edges, in the order they were sampled. Null if the sample is induced
+	 * @param edgeCut - the amount of edgeOrder in the view
+	 */
+	public SampleView(CompactGraph parent, BitSet vertexSet, IntQueue vertexOrder, int vertexCut,
+			BitSet edgeSet, IntQueue edgeOrder, int edgeCut) {
+		if (vertexCut > vertexOrder.size() || vertexSet.length() > parent.getVertexCount())
+			throw new Error("Sample vertices don't match the parent graph");
+		if ((edgeSet == null) != (edgeOrder == null)
+				|| (edgeSet != null && (edgeCut > edgeOrder.size() || edgeSet.length() > parent.getEdgeCount())))
+			throw new Error("Sample edges don't match the parent graph");
+		this.parent = parent;
+		this.vertexSet = vertexSet;
+		this.vertexOrder = vertexOrder;
+		this.vertexCut = vertexCut;
+		this.edgeSet = edgeSet;
+		this.edgeOrder = edgeOrder;
+		this.edgeCut = (edgeSet == null) ? 0 : edgeCut;
+	}
+
+	public CompactGraph getParent() {
+		return parent;
+	}
+
+	public EdgeType getEdgeType() {
+		return parent.getEdgeType();
+	}
+
+	/**
+	 * @return true if the sample holds every parent edge between its vertices
+	 */
+	public boolean isInduced() {
+		return edgeSet == null;
+	}
+
+	public int getVertexCount() {
+		return vertexCut;
+	}
+
+	/**
+	 * @param index - the position in the order the vertices were sampled
+	 * @return the parent id of the vertex
+	 */
+	public int getVertex(int index) {
+		if (index >= vertexCut)
+			throw new IndexOutOfBoundsException("Index " + index + " is not in the view of " + vertexCut + " vertices");
+		return vertexOrder.get(index);
+	}
+
+	public boolean containsVertex(int vertex) {
+		if (!vertexSet.get(vertex))
+			return false;
+		if (vertexOrder.size() == vertexCut)
+			return true;
+		if (vertexMap == null)
+			vertexMap = new IdMap(vertexOrder, vertexCut);
+		return vertexMap.indexOf(vertex) != -1;
+	}
+
+	/**
+	 * @param index - the position in the order the edges were sampled
+	 * @return the parent id of the edge
+	 */
+	public int getEdge(int index) {
+		if (edgeSet == null)
+			throw new Error("Edges of an induced sample aren't ordered");
+		if (index >= edgeCut)
+			throw new IndexOutOfBoundsException("Index " + index + " is not in the view of " + edgeCut + " edges");
+		return edgeOrder.get(index);
+	}
+
+	public boolean containsEdge(int edge) {
+		if (edgeSet != null) {
+			if (!edgeSet.get(edge))
+				return false;
+			if (edgeOrder.size() == edgeCut)
+				return true;
+			if (edgeMap == null)
+				edgeMap = new IdMap(edgeOrder, edgeCut);
+			return edgeMap.indexOf(edge) != -1;
+		}
+		return containsVertex(parent.getEdgeSource(edge)) && containsVertex(parent.getEdgeTarget(edge));
+	}
+
+	public int getEdgeCount() {
+		return (edgeSet != null) ? edgeCut : edgeList(new IdMap(vertexOrder, vertexCut)).size();
+	}
+
+	/**
+	 * @param vertices - the sample id of every vertex in the view
+	 * @return the parent ids of the sampled edges. Induced edges are listed as their later end was sampled
+	 */
+	private IntQueue edgeList(IdMap vertices) {
+		IntQueue edges = new IntQueue();
+		if (edgeSet != null) {
+			for (int i = 0; i < edgeCut; i++)
+				edges.add(edgeOrder.get(i));
+			return edges;
+		}
+
+		// Every edge is in the out-adjacency of its source, and of both ends for UNDIRECTED graphs
+		boolean directed = parent.isDirected();
+		int[] offsets = parent.getOutOffsets();
+		int[] neighbors = parent.getOutNeighbors();
+		int[] outEdges = parent.getOutEdges();
+		for (int k = 0; k < vertexCut; k++) {
+			int v = vertexOrder.get(k);
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				if (!vertexSet.get(neighbors[i]))
+					continue;
+				int rank = vertices.indexOf(neighbors[i]);
+				if (rank == -1)
+					continue;
+				// An UNDIRECTED edge is listed from its later end only
+				if (directed || rank <= k)
+					edges.add(outEdges[i]);
+			}
+		}
+		return edges;
+	}
+
+	/**
+	 * Builds the sample as a CompactGraph, without going through a JUNG graph. The vertices are in the order they were
+	 * sampled and the edges keep their parent labels
+	 * @return the compact sample
+	 */
+	public CompactGraph toCompactGraph() {
+		// A vertex's id in the sample is its rank, the dictionary is filled in the sampled order
+		LabelDictionary dictionary = new LabelDictionary(vertexCut);
+		for (int k = 0; k < vertexCut; k++)
+			dictionary.intern(parent.getLabel(vertexOrder.get(k)));
+
+		IdMap vertices = new IdMap(vertexOrder, vertexCut);
+		IntQueue edges = edgeList(vertices);
+		int m = edges.size();
+		int[] sources = new int[m];
+		int[] targets = new int[m];
+		String[] labels = parent.hasEdgeLabels() ? new String[m] : null;
+		for (int i = 0; i < m; i++) {
+			int e = edges.get(i);
+			sources[i] = vertices.indexOf(parent.getEdgeSource(e));
+			targets[i] = vertices.indexOf(parent.getEdgeTarget(e));
+			if (labels != null)
+				labels[i] = parent.getEdgeLabel(e);
+		}
+		return new CompactGraph(parent.getEdgeType(), dictionary, sources, targets, labels, m);
+	}
+
+	/**
+	 * Materializes the sample into a JUNG SparseGraph, only needed when something requires a graph that can be changed
+	 * @return a new graph of the sample
+	 */
+	public Graph<String, String> toGraph() {
+		Graph<String, String> graph = parent.isDirected() ?
+				new DirectedSparseGraph<String, String>() : new UndirectedSparseGraph<String, String>();
+		for (int k = 0; k < vertexCut; k++)
+			graph.addVertex(parent.getLabel(vertexOrder.get(k)));
+		IntQueue edges = edgeList(isInduced() ? new IdMap(vertexOrder, vertexCut) : null);
+		for (int i = 0; i < edges.size(); i++) {
+			int e = edges.get(i);
+			graph.addEdge(parent.getEdgeLabel(e), parent.getLabel(parent.getEdgeSource(e)), parent.getLabel(parent.getEdgeTarget(e)), parent.getEdgeType());
+		}
+		return graph;
+	}
+
+	/**
+	 * The position of every id in a prefix of an order, found by a binary search over the prefix sorted by id.
+	 * It's the size of the prefix rather than of the parent
+	 */
+	private static class IdMap {
+		// The ids of the prefix sorted, each packed above its position in the order
+		private final long[] entries;
+
+		IdMap(IntQueue order, int cut) {
+			entries = new long[cut];
+			for (int k = 0; k < cut; k++)
+				entries[k] = ((long)order.get(k) << 32) | k;
+			Arrays.sort(entries);
+		}
+
+		/**
+		 * @param id
+		 * @return the position of the id in the order, -1 if it isn't in the prefix
+		 */
+		int indexOf(int id) {
+			int low = 0, high = entries.length - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				int found = (int)(entries[mid] >>> 32);
+				if (found < id)
+					low = mid + 1;
+				else if (found > id)
+					high = mid - 1;
+				else
+					return (int)entries[mid];
+			}
+			return -1;
+		}
+	}
+}
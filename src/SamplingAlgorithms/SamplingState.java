@@ -0,0 +1,342 @@
+package SamplingAlgorithms;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import GraphCreation.CompactGraph;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.UndirectedSparseGraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+/**
+ * The membership and frontier of a growing sample, kept over the int ids of the parent graph's CompactGraph so the
+ * samplers don't scan collections of Strings in their loops.
+ *    -sampled: a bitset of the vertices in the sample, with the ids also listed in the order they were added
+ *    -edges: a bitset and list of the edges in the sample the same way, unless the sample is induced (has every edge between its vertices)
+ *    -queued: a bitset of the vertices waiting in the queue, so a vertex is only ever queued once
+ *    -queue: the ids waiting to be added, in a ring buffer
+ *    -frontier: the unsampled out-neighbors of the sample, only kept once trackFrontier() is called
+ * The state is the sample: getView() hands out the sample so far as a SampleView, a prefix of the orders that stays valid as
+ * the sample keeps growing. A JUNG graph of it is only made (and from then on kept up to date) once getGraph() is asked for.
+ * The state outlives a single sampleGraph call, since the samplers keep growing the same sample as alpha is raised.
+ * @author MOREPOWER
+ *
+ */
+public class SamplingState {
+
+	private final EdgeType type;
+	private final boolean induced;
+
+	// The graph the ids belong to
+	private Graph<String, String> parentGraph;
+	private CompactGraph parent;
+
+	private BitSet sampled;
+	private final IntQueue sampledOrder = new IntQueue();
+	private BitSet sampledEdges;
+	private IntQueue edgeOrder;
+	private BitSet queued;
+	private final IntQueue queue = new IntQueue();
+	private boolean trackFrontier = false;
+	private IndexedIntSet frontier;
+
+	// The JUNG version of the sample, null until it's asked for
+	private Graph<String, String> graph;
+
+	/**
+	 * Constructor for the state of an empty sample
+	 * @param type - DIRECTED or UNDIRECTED
+	 * @param induced - whether the sample has every edge between its vertices, rather than the edges added to it
+	 */
+	public SamplingState(EdgeType type, boolean induced) {
+		if (!type.equals(EdgeType.DIRECTED) && !type.equals(EdgeType.UNDIRECTED))
+			throw new Error("Unrecognized Edge Type");
+		this.type = type;
+		this.induced = induced;
+	}
+
+	/**
+	 * Points the state at the parent graph, making the ids from the parent's CompactGraph the first time.
+	 * A sample can only be grown from the one parent
+	 * @param parentGraph - the graph being sampled
+	 * @return the compact parent graph
+	 */
+	public CompactGraph attach(Graph<String, String> parentGraph) {
+		if (parentGraph == this.parentGraph)
+			return parent;
+		if (this.parentGraph != null)
+			throw new Error("A sample can only be grown from one parent graph");
+
+		this.parentGraph = parentGraph;
+		parent = CompactGraph.of(parentGraph);
+		if (parent.getEdgeType() != type)
+			throw new Error("Sample is " + type + " but the parent graph is " + parent.getEdgeType());
+		sampled = new BitSet(parent.getVertexCount());
+		if (!induced) {
+			sampledEdges = new BitSet(parent.getEdgeCount());
+			edgeOrder = new IntQueue();
+		}
+		queued = new BitSet(parent.getVertexCount());
+		if (trackFrontier)
+			frontier = new IndexedIntSet(parent.getVertexCount());
+		return parent;
+	}
+
+	public CompactGraph getParent() {
+		return parent;
+	}
+
+	public int getId(String vertex) {
+		return parent.getId(vertex);
+	}
+
+	public String getLabel(int id) {
+		return parent.getLabel(id);
+	}
+
+	public boolean isSampled(int id) {
+		return sampled.get(id);
+	}
+
+	/**
+	 * @return the amount of sampled vertices
+	 */
+	public int getSampledCount() {
+		return sampledOrder.size();
+	}
+
+	/**
+	 * @param index - the position of the vertex in the order the sample was added to
+	 * @return the id of the sampled vertex
+	 */
+	public int getSampled(int index) {
+		return sampledOrder.get(index);
+	}
+
+	/**
+	 * Marks the vertex as sampled
+	 * @param id
+	 * @return false if it was already sampled
+	 */
+	public boolean addSampled(int id) {
+		if (sampled.get(id))
+			return false;
+		sampled.set(id);
+		sampledOrder.add(id);
+		if (frontier != null)
+			addToFrontier(id);
+		if (graph != null) {
+			graph.addVertex(parent.getLabel(id));
+			if (induced)
+				addInducedEdges(id);
+		}
+		return true;
+	}
+
+	/**
+	 * Adds an edge of the parent to the sample, its ends should already be sampled
+	 * @param edge - the id of the parent edge
+	 * @return false if it was already in the sample
+	 */
+	public boolean addEdge(int edge) {
+		if (induced)
+			throw new Error("Edges of an induced sample come from its vertices");
+		if (sampledEdges.get(edge))
+			return false;
+		sampledEdges.set(edge);
+		edgeOrder.add(edge);
+		if (graph != null)
+			graph.addEdge(parent.getEdgeLabel(edge), parent.getLabel(parent.getEdgeSource(edge)),
+					parent.getLabel(parent.getEdgeTarget(edge)), type);
+		return true;
+	}
+
+	public boolean isQueued(int id) {
+		return queued.get(id);
+	}
+
+	/**
+	 * Adds the vertex to the end of the queue, unless it's already waiting in it
+	 * @param id
+	 * @return false if it was already queued
+	 */
+	public boolean enqueue(int id) {
+		if (queued.get(id))
+			return false;
+		queued.set(id);
+		queue.add(id);
+		return true;
+	}
+
+	/**
+	 * Removes the first vertex of the queue
+	 * @return its id
+	 */
+	public int poll() {
+		int id = queue.poll();
+		queued.clear(id);
+		return id;
+	}
+
+	public boolean isQueueEmpty() {
+		return queue.isEmpty();
+	}
+
+	public int queueSize() {
+		return queue.size();
+	}
+
+	/**
+	 * @return the ids waiting in the queue, from first to last
+	 */
+	public int[] getQueue() {
+		return queue.toArray();
+	}
+
+	/**
+	 * Replaces the queue, as when a sample is read back from its checkpoints
+	 * @param ids - the ids waiting, from first to last
+	 */
+	public void setQueue(int[] ids) {
+		while (!queue.isEmpty())
+			queued.clear(queue.poll());
+		for (int id : ids)
+			enqueue(id);
+	}
+
+	/**
+	 * Keeps the frontier of the sample, the vertices an out-edge of the sample leads to that aren't sampled yet,
+	 * up to date from here on. It costs a scan of each new vertex's out-edges as it's added
+	 */
+	public void trackFrontier() {
+		if (trackFrontier)
+			return;
+		trackFrontier = true;
+		if (parent != null) {
+			frontier = new IndexedIntSet(parent.getVertexCount());
+			for (int k = 0; k < sampledOrder.size(); k++)
+				addToFrontier(sampledOrder.get(k));
+		}
+	}
+	
+	/**
+	 * @return the amount of vertices in the frontier
+	 */
+	public int frontierSize() {
+		return frontier.size();
+	}
+	
+	/**
+	 * @param rndGen
+	 * @return a vertex of the frontier, picked uniformly
+	 */
+	public int randomFrontier(Random rndGen) {
+		return frontier.random(rndGen);
+	}
+	
+	public boolean inFrontier(int id) {
+		return frontier.contains(id);
+	}
+	
+	/**
+	 * Moves the newly sampled vertex out of the frontier, and its unsampled out-neighbors in
+	 */
+	private void addToFrontier(int v) {
+		frontier.remove(v);
+		int[] offsets = parent.getOutOffsets();
+		int[] neighbors = parent.getOutNeighbors();
+		for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+			if (!sampled.get(neighbors[i]))
+				frontier.add(neighbors[i]);
+		}
+	}
+	
+	/**
+	 * Shuffles all of the vertex ids the same way Collections.shuffle shuffles a list of them,
+	 * so the order is the same as shuffling the parent's vertices with the same generator
+	 * @param rndGen
+	 * @return the shuffled ids
+	 */
+	public int[] shuffledVertices(Random rndGen) {
+		int[] ids = new int[parent.getVertexCount()];
+		for (int id = 0; id < ids.length; id++)
+			ids[id] = id;
+		for (int i = ids.length; i > 1; i--) {
+			int j = rndGen.nextInt(i);
+			int temp = ids[i - 1];
+			ids[i - 1] = ids[j];
+			ids[j] = temp;
+		}
+		return ids;
+	}
+
+	/**
+	 * @return the amount of sampled edges, 0 if the sample is induced
+	 */
+	public int getEdgeCount() {
+		return induced ? 0 : edgeOrder.size();
+	}
+
+	/**
+	 * Adds vertices and edges that were sampled before, as when a sample is read back from its checkpoints
+	 * @param vertices - the ids of the vertices, in the order they were sampled
+	 * @param edges - the ids of the edges, in the order they were sampled (empty if the sample is induced)
+	 */
+	public void restore(int[] vertices, int[] edges) {
+		for (int id : vertices)
+			addSampled(id);
+		for (int edge : edges)
+			addEdge(edge);
+	}
+
+	/**
+	 * @return the sample as it is now, as a prefix of the sampled order
+	 */
+	public SampleView getView() {
+		if (parent == null)
+			throw new Error("Nothing has been sampled yet");
+		return new SampleView(parent, sampled, sampledOrder, sampledOrder.size(), sampledEdges, edgeOrder, getEdgeCount());
+	}
+
+	/**
+	 * The sample as a JUNG graph. It's made the first time it's asked for and kept up to date as the sample grows,
+	 * so the same graph is returned every time
+	 * @return the sampled graph
+	 */
+	public Graph<String, String> getGraph() {
+		if (graph == null) {
+			if (parent == null) {
+				graph = type.equals(EdgeType.DIRECTED) ?
+						new DirectedSparseGraph<String, String>() : new UndirectedSparseGraph<String, String>();
+			} else {
+				graph = getView().toGraph();
+			}
+		}
+		return graph;
+	}
+
+	/**
+	 * Adds the edges between the newly added vertex and the rest of the sample to the JUNG graph.
+	 * Only the new vertex's own in and out edges can be new, so those are scanned and kept if the other end is already sampled
+	 */
+	private void addInducedEdges(int v) {
+		addSampledEdges(v, parent.getOutOffsets(), parent.getOutNeighbors(), parent.getOutEdges(), false);
+		if (parent.isDirected())
+			addSampledEdges(v, parent.getInOffsets(), parent.getInNeighbors(), parent.getInEdges(), true);
+	}
+
+	/**
+	 * Adds the edges of one side of the vertex's adjacency that lead to a sampled vertex
+	 * @param skipLoops - whether to leave out self-loops, when they were already seen on the other side
+	 */
+	private void addSampledEdges(int v, int[] offsets, int[] neighbors, int[] adjacentEdges, boolean skipLoops) {
+		for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+			if (!sampled.get(neighbors[i]) || (skipLoops && neighbors[i] == v))
+				continue;
+			int edge = adjacentEdges[i];
+			graph.addEdge(parent.getEdgeLabel(edge), parent.getLabel(parent.getEdgeSource(edge)),
+					parent.getLabel(parent.getEdgeTarget(edge)), type);
+		}
+	}
+}
@@ -0,0 +1,297 @@
+package SamplingAlgorithms;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import GraphCreation.CompactGraph;
+import GraphCreation.EdgeListBuilder;
+import GraphCreation.VertexTVertexImporter;
+import Utils.CSV_Builder;
+import Utils.SplitMix64;
+import Utils.CSV_Builder_Objects.CSV_Percent;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+/**
+ * Partially-induced edge sampling (PIES) over a stream of edges (Ahmed, Neville, and Kompella 2014). The edge file is read
+ * once and only the sample is held, so graphs too large to load can still be sampled:
+ *   Fill: the ends of the first edges are added until the sample has its n vertices, along with the edges between them
+ *   Stream: the t-th edge is picked with probability m/t, m being the amount of edges the sample was filled with.
+ *   A picked edge's ends that aren't in the sample each take the place of a random sampled vertex, which leaves with its edges.
+ *   Any edge with both ends in the sample is added, picked or not (the partial induction)
+ * Picking the edges with a shrinking probability keeps the vertices a reservoir-style sample of the stream, favoring vertices
+ * that show up on more edges. The sample size is decided from the parent's vertex count, since there's no parent graph to count.
+ * Each sampleGraph call reads the file again for a new sample of that alpha, they don't grow from each other.
+ * @author MOREPOWER
+ *
+ */
+public class StreamPIESSampler implements TargetedSampleMethod {
+	// Alpha is the percentage of the overall graph's vertexes it will fulfill
+	protected double alpha;
+	protected long seed;
+
+	protected final VertexTVertexImporter source;
+	protected final int parentVertexCount;
+	protected final boolean directed;
+
+	// The sample of the last pass, and how many edges the file had
+	protected CompactGraph sample;
+	protected long streamedEdges;
+
+	// The sample while the stream is read. A vertex takes a slot, and gets a new id each time one is filled so the edges
+	// of a vertex that left can't be mistaken for the edges of the one that took its place.
+	// The edges of a slot are listed on both ends: incident[slot][i] is the slot at the other end and twin[slot][i] where
+	// the edge is in that slot's list, so a vertex leaving takes each of its edges out of its neighbor's list in constant time
+	private int n;
+	private int used;
+	private String[] slotLabel;
+	private int[] slotId;
+	private int[][] incident;
+	private int[][] twin;
+	private int[] degree;
+	private Map<String, Integer> slotOf;
+	private Set<Long> edges;
+	private int nextId;
+
+	// How many listed edges the evictions went through, which is at most twice the edges ever added to the sample
+	protected long evictionWork;
+
+	/**
+	 * Constructor for the sampler
+	 * @param alpha - the sample's share of the parent's vertices
+	 * @param seed
+	 * @param source - the edge file of the parent
+	 * @param parentVertexCount - the amount of vertices of the parent, since the stream isn't counted ahead of time
+	 */
+	public StreamPIESSampler(double alpha, long seed, VertexTVertexImporter source, int parentVertexCount) {
+		if (parentVertexCount <= 0)
+			throw new Error("Parent vertex count has to be positive");
+		this.alpha = alpha;
+		this.seed = seed;
+		this.source = source;
+		this.parentVertexCount = parentVertexCount;
+		this.directed = source.getEdgeType().equals(EdgeType.DIRECTED);
+	}
+
+	public StreamPIESSampler(double alpha, VertexTVertexImporter source, int parentVertexCount) {
+		this(alpha, (new Random()).nextLong(), source, parentVertexCount);
+	}
+
+	public void changeAlpha(double alpha) {
+		this.alpha = alpha;
+	}
+
+	/**
+	 * @return the sample of the last pass, read-only
+	 */
+	public Graph<String, String> getGraph() {
+		if (sample == null)
+			throw new Error("Nothing has been sampled yet");
+		return sample.asGraph();
+	}
+
+	/**
+	 * @return the amount of edges in the file, counted on the last pass
+	 */
+	public long getStreamedEdgeCount() {
+		return streamedEdges;
+	}
+
+	/**
+	 * Streams the edge file for a sample of the current alpha
+	 * @param parent - not used, the parent is the edge file. Can be null
+	 * @return the actual alpha, then the sample's share of the streamed edges
+	 */
+	public CSV_Builder sampleGraph(Graph<String, String> parent) {
+		n = (int)Math.ceil((double)parentVertexCount * alpha);
+		if (n <= 0)
+			throw new Error("The sample has to have a vertex");
+		used = 0;
+		slotLabel = new String[n];
+		slotId = new int[n];
+		incident = new int[n][];
+		twin = new int[n][];
+		degree = new int[n];
+		evictionWork = 0;
+		slotOf = new HashMap<String, Integer>();
+		edges = new HashSet<Long>();
+		nextId = 0;
+
+		// Every alpha gets its own stream of the sampler's seed
+		final Random rndGen = new SplitMix64(seed).fork(SplitMix64.key(alpha));
+		try {
+			streamedEdges = source.streamEdges(new VertexTVertexImporter.EdgeHandler() {
+				// The position of the edge in the stream, and the amount the sample was filled with
+				long t = 0;
+				long m = 0;
+
+				public void edge(String from, String to) {
+					t++;
+					Integer u = slotOf.get(from), v = slotOf.get(to);
+					if (used < n) {
+						// Fill the sample
+						if (u == null && used < n)
+							u = place(used++, from);
+						if (v == null && used < n)
+							v = place(used++, to);
+						if (u != null && v != null)
+							addEdge(u, v);
+						m = edges.size();
+					} else {
+						if (rndGen.nextDouble() * t <= m) {
+							// Picked, the ends take the place of random sampled vertices
+							// Neither pushes out the other end
+							if (u == null && (v == null || n > 1))
+								u = replace(randomSlot(v, rndGen), from);
+							if (v == null && from.equals(to))
+								v = u;
+							else if (v == null && n > 1)
+								v = replace(randomSlot(u, rndGen), to);
+						}
+						if (u != null && v != null)
+							addEdge(u, v);
+					}
+				}
+			});
+		} catch (IOException e) {
+			throw new Error("Couldn't stream the edges of the parent", e);
+		}
+
+		sample = build();
+		// Only the sample is kept
+		slotLabel = null;
+		slotId = null;
+		incident = null;
+		twin = null;
+		degree = null;
+		slotOf = null;
+		edges = null;
+
+		/**
+		 * Return the actual alpha, then the share of the edges kept
+		 */
+		double actualAlpha = (double)sample.getVertexCount() / (double)parentVertexCount;
+		double edgeShare = (streamedEdges == 0) ? 0 : (double)sample.getEdgeCount() / (double)streamedEdges;
+		return new CSV_Builder(new CSV_Percent(actualAlpha),
+				new CSV_Builder(new CSV_Percent(edgeShare)));
+	}
+
+	/**
+	 * @param keep - a slot not to pick, null if any can be
+	 * @return a random slot
+	 */
+	private int randomSlot(Integer keep, Random rndGen) {
+		if (keep == null)
+			return rndGen.nextInt(n);
+		int slot = rndGen.nextInt(n - 1);
+		return (slot < keep) ? slot : slot + 1;
+	}
+
+	/**
+	 * Puts the vertex into an empty slot
+	 * @return the slot
+	 */
+	private int place(int slot, String label) {
+		slotLabel[slot] = label;
+		slotId[slot] = nextId++;
+		if (incident[slot] == null) {
+			incident[slot] = new int[4];
+			twin[slot] = new int[4];
+		}
+		slotOf.put(label, slot);
+		return slot;
+	}
+
+	/**
+	 * Drops the slot's vertex and its edges, from the sample and from its neighbors, and puts the new vertex in its place
+	 * @return the slot
+	 */
+	private int replace(int slot, String label) {
+		int id = slotId[slot];
+		for (int i = 0; i < degree[slot]; i++) {
+			int other = incident[slot][i];
+			edges.remove(key(id, slotId[other]));
+			edges.remove(key(slotId[other], id));
+			if (other != slot)
+				removeListed(other, twin[slot][i]);
+			evictionWork++;
+		}
+		degree[slot] = 0;
+		slotOf.remove(slotLabel[slot]);
+		return place(slot, label);
+	}
+
+	private void addEdge(int u, int v) {
+		int a = slotId[u], b = slotId[v];
+		// An UNDIRECTED edge is kept the one way around
+		if (!directed && a > b) {
+			int temp = a;
+			a = b;
+			b = temp;
+		}
+		if (edges.add(key(a, b))) {
+			int i = list(u, v);
+			if (u == v) {
+				twin[u][i] = i;
+			} else {
+				int j = list(v, u);
+				twin[u][i] = j;
+				twin[v][j] = i;
+			}
+		}
+	}
+
+	/**
+	 * Lists the other end at the back of the slot's edges, growing the list if it's full
+	 * @return where it was listed
+	 */
+	private int list(int slot, int other) {
+		if (degree[slot] == incident[slot].length) {
+			incident[slot] = Arrays.copyOf(incident[slot], 2 * degree[slot]);
+			twin[slot] = Arrays.copyOf(twin[slot], 2 * degree[slot]);
+		}
+		incident[slot][degree[slot]] = other;
+		return degree[slot]++;
+	}
+
+	/**
+	 * Takes the edge at position i out of the slot's list by moving the last edge into its place, and points the moved
+	 * edge's twin at its new position
+	 */
+	private void removeListed(int slot, int i) {
+		int last = --degree[slot];
+		if (i == last)
+			return;
+		int other = incident[slot][last];
+		incident[slot][i] = other;
+		twin[slot][i] = twin[slot][last];
+		if (other == slot)
+			twin[slot][i] = i;
+		else
+			twin[other][twin[slot][i]] = i;
+	}
+
+	private static long key(int source, int target) {
+		return ((long)source << 32) | (target & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Builds the sample from the vertices in the slots and the edges between them
+	 */
+	private CompactGraph build() {
+		Map<Integer, String> labelOf = new HashMap<Integer, String>();
+		EdgeListBuilder builder = new EdgeListBuilder(edges.size());
+		for (int slot = 0; slot < used; slot++) {
+			labelOf.put(slotId[slot], slotLabel[slot]);
+			builder.addVertex(slotLabel[slot]);
+		}
+		for (long edge : edges)
+			builder.addEdge(labelOf.get((int)(edge >>> 32)), labelOf.get((int)edge));
+		return builder.build(directed ? EdgeType.DIRECTED : EdgeType.UNDIRECTED);
+	}
+}
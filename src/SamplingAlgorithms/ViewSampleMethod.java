@@ -0,0 +1,34 @@
+package SamplingAlgorithms;
+
+import edu.uci.ics.jung.graph.Graph;
+
+/**
+ * Interface extension for the targeted sample methods that can give their sample as a SampleView,
+ * so it doesn't have to be copied into a graph of its own
+ * @author MOREPOWER
+ *
+ */
+public interface ViewSampleMethod extends TargetedSampleMethod {
+	/**
+	 * Getter to retrieve the sample as a subset of the parent graph
+	 * @return a view of the sample as it is now
+	 */
+	public SampleView getSampleView();
+	
+	/**
+	 * Getter for what the sampler carries into the next alpha besides the sample: its queues, where its walk is, its counts
+	 * @return the state of the sampler as it is now, to be checkpointed with the sample
+	 */
+	public SampleCheckpoints.Continuation getContinuation();
+	
+	/**
+	 * Grows the sample by vertices and edges that were sampled before, and puts the sampler back in the state it was in,
+	 * so sampling carries on from a checkpoint as if it had never stopped
+	 * @param parent - the parent graph that's being sampled
+	 * @param vertices - the ids in parent's CompactGraph of the vertices, in the order they were sampled
+	 * @param edges - the ids of the edges, in the order they were sampled (empty if the sample is induced)
+	 * @param continuation - the state of the sampler at the checkpoint, from getContinuation()
+	 */
+	public void restoreSample(Graph<String, String> parent, int[] vertices, int[] edges, SampleCheckpoints.Continuation continuation);
+	
+}
@@ -3,8 +3,9 @@ package Utils;
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 
+import GraphAnalyzers.ApproximateBetweenness;
 import GraphCreation.BarabasiAlbertGraphGenerator;
-import GraphCreation.BasicGraph;
+import GraphCreation.BinaryGraph;
 import GraphCreation.ErdosRenyiGraphGenerator;
 import GraphCreation.FriendsTwitterDataImporter;
 import GraphCreation.GraphLoader;
@@ -17,6 +18,10 @@ import edu.uci.ics.jung.graph.util.EdgeType;
  * 	--load
  * 	--timeout
  * 	--pop
+ * 	--pajek
+ * 	--approxBC
+ * 	--seed
+ * 	--stream
  * @author MOREPOWER
  *
  */
@@ -26,12 +31,24 @@ public class ArgumentReader {
 	private static String sGraphLoaderHeader = "--load";
 	private static String sTimeUnitHeader = "--timeout";
 	private static String sPopPath = "--pop";
+	private static String sPajekHeader = "--pajek";
+	private static String sApproxBCHeader = "--approxBC";
+	private static String sSeedHeader = "--seed";
+	private static String sStreamHeader = "--stream";
 	
 	public GraphLoader myGraphLoader;
 	public String myOutput;
 	public int myTimeOut;
 	public TimeUnit myTimeOutUnit;
 	public String myPopPath;
+	public boolean myExportPajek;
+	// Epsilon of 0 means the population BC is exact
+	public double myApproxBCEpsilon;
+	public double myApproxBCDelta;
+	// Null to carry on with the output's seed, or pick a new one
+	public Long mySeed;
+	// Non-null to sample the edge file as a stream instead of loading a graph
+	public VertexTVertexImporter myStreamSource;
 	
 	/***
 	 * Loads the default values for the arguments to be entered
@@ -42,6 +59,11 @@ public class ArgumentReader {
 		myTimeOut = 1;
 		myTimeOutUnit = TimeUnit.HOURS;
 		myPopPath = null;
+		myExportPajek = false;
+		myApproxBCEpsilon = 0;
+		myApproxBCDelta = 0;
+		mySeed = null;
+		myStreamSource = null;
 	}
 
 	/**
@@ -51,7 +73,7 @@ public class ArgumentReader {
 	 *      twitterImport
 	 *         <path> <edgeType>
 	 *      genericImport
-	 *         <path>
+	 *         <path to a binary snapshot or Pajek file>
 	 *      erdosRenyi
 	 *         <#nodes: int> <probability: double>
 	 *      barabasi
@@ -64,6 +86,14 @@ public class ArgumentReader {
 	 *      <int of time> <timeunit>
 	 *    --pop
 	 *      <path to a folder of all the analysis :: String>
+	 *    --pajek
+	 *      (also exports every graph as a Pajek file next to its binary snapshot)
+	 *    --approxBC
+	 *      <epsilon: double> <delta: double> (approximates the population BC instead of computing it exactly)
+	 *    --seed
+	 *      <long> (the run seed every sample is drawn from, so the run can be repeated)
+	 *    --stream
+	 *      <path> <edgeType> <split> (samples a vertTvert file in one pass without loading it, needs --pop)
 	 * @param args
 	 * @return the arguments read in
 	 * @throws IOException
@@ -76,6 +106,19 @@ public class ArgumentReader {
 		for (int i = 0; i < args.length; i++) {
 			if (args[i].equalsIgnoreCase(sPopPath)) {
 				loader.myPopPath = args[++i];
+			} else if (args[i].equalsIgnoreCase(sPajekHeader)) {
+				loader.myExportPajek = true;
+			} else if (args[i].equalsIgnoreCase(sSeedHeader)) {
+				loader.mySeed = Long.valueOf(args[++i]);
+			} else if (args[i].equalsIgnoreCase(sStreamHeader)) {
+				String dLoc = args[++i];
+				EdgeType eType = EdgeType.valueOf(args[++i]);
+				String split = args[++i];
+				loader.myStreamSource = new VertexTVertexImporter(dLoc, eType, split);
+			} else if (args[i].equalsIgnoreCase(sApproxBCHeader)) {
+				loader.myApproxBCEpsilon = Double.valueOf(args[++i]);
+				loader.myApproxBCDelta = Double.valueOf(args[++i]);
+				ApproximateBetweenness.checkBounds(loader.myApproxBCEpsilon, loader.myApproxBCDelta);
 			} else if (args[i].equalsIgnoreCase(sGraphLoaderHeader)) {
 				if (args[++i].equalsIgnoreCase("twitterImport")) {
 					try {
@@ -104,7 +147,7 @@ public class ArgumentReader {
 				} else if (args[i].equalsIgnoreCase("genericImport")) {
 					try {
 						String dLoc = args[++i];
-						loader.myGraphLoader = new BasicGraph(dLoc);
+						loader.myGraphLoader = new BinaryGraph(dLoc);
 					} catch (Error e) {
 						System.err.println("Error in successive variables after genericImport");
 						e.printStackTrace();
@@ -1,5 +1,7 @@
 package Utils;
 
+import java.util.List;
+
 /**
  * A class that holds a series of objects for formatting purposes within the CSV_Builder implementation
  * 	Overriding the toString() method of an object will override how a CSV_Builder will print
@@ -39,4 +41,26 @@ public class CSV_Builder_Objects {
 			return HardCode.dcfP.format(value);
 		}
 	};
+	
+	/**
+	 * Nested class to put a list of values into one cell, separated by semicolons
+	 * @author MOREPOWER
+	 *
+	 */
+	public static class CSV_List extends Object {
+		List<?> values;
+		public CSV_List(List<?> values) {
+			this.values = values;
+		}
+		@Override
+		public String toString() {
+			StringBuilder cell = new StringBuilder();
+			for (Object value : values) {
+				if (cell.length() != 0)
+					cell.append(';');
+				cell.append(value.toString());
+			}
+			return cell.toString();
+		}
+	};
 }
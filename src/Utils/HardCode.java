@@ -27,6 +27,13 @@ public class HardCode {
 	public static String pSamplesFolder = "/samples/";
 	public static String pDistroFolder = "/distributions";
 	public static String pDataFix = "/data.dat";
+	public static String pPajekFix = "/data.net";
+	// The checkpoints of a replica's growing sample, one file for all of its alphas
+	public static String pSampleOrderFix = "/sample-order.dat";
+	// The run seed of an output folder
+	public static String pSeedFix = "/seed.txt";
+	// Added to the name of a measure csv for its binary cache
+	public static String pMeasureCacheFix = ".bin";
 	
 	// Formatting variables for how doubles will be displayed
 	public static DecimalFormat dcf3 = new DecimalFormat("0.00000");
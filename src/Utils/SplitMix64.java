@@ -0,0 +1,129 @@
+package Utils;
+
+import java.util.Random;
+
+/**
+ * A Random driven by the SplitMix64 generator (Steele, Lea and Flood 2014), the generator behind Java 8's SplittableRandom.
+ * Every draw is one add and a 64-bit mix, without the AtomicLong of java.util.Random, and a stream can be forked into
+ * independent child streams by key:
+ *    -fork(key): a new stream decided only by this stream's seed and the key, however much of this stream was used
+ *    -derive(seed, keys...): the seed of the stream reached by forking the keys in order
+ * So a run seed gives each (method, threshold, replica, alpha) its own stream, the same every time the run is repeated and no
+ * matter which thread or in what order the streams are made. The stream alone only repeats a sample if the sampler starts the
+ * alpha in the same state, which is why a resumed run restores the sampler's continuation from its checkpoints.
+ * Not thread safe, each user should have its own stream
+ * @author MOREPOWER
+ *
+ */
+public class SplitMix64 extends Random {
+
+	private static final long serialVersionUID = 1L;
+
+	// The golden ratio increment of the generator
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private long origin;
+	private long state;
+
+	public SplitMix64(long seed) {
+		// Random's constructor calls setSeed, which sets the state
+		super(seed);
+	}
+
+	@Override
+	public synchronized void setSeed(long seed) {
+		this.origin = seed;
+		this.state = seed;
+	}
+
+	/**
+	 * @return the seed the stream was started from
+	 */
+	public long getSeed() {
+		return origin;
+	}
+
+	/**
+	 * @param key
+	 * @return a stream independent of this one and of the ones forked with other keys
+	 */
+	public SplitMix64 fork(long key) {
+		return new SplitMix64(derive(origin, key));
+	}
+
+	/**
+	 * @param seed - the seed of the stream to fork from
+	 * @param keys - the keys forked in order
+	 * @return the seed of the forked stream
+	 */
+	public static long derive(long seed, long... keys) {
+		for (long key : keys)
+			seed = mix64(seed ^ mix64(key + GOLDEN_GAMMA));
+		return seed;
+	}
+
+	/**
+	 * A key for a name, the same in every JVM
+	 */
+	public static long key(String name) {
+		long h = 0;
+		for (int i = 0; i < name.length(); i++)
+			h = 31 * h + name.charAt(i);
+		return h;
+	}
+
+	/**
+	 * A key for a double such as an alpha or threshold
+	 */
+	public static long key(double value) {
+		return Double.doubleToLongBits(value);
+	}
+
+	/**
+	 * The finalizer of SplitMix64 (Stafford's variant 13 of the MurmurHash3 mix)
+	 */
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	@Override
+	public long nextLong() {
+		return mix64(state += GOLDEN_GAMMA);
+	}
+
+	@Override
+	protected int next(int bits) {
+		return (int)(nextLong() >>> (64 - bits));
+	}
+
+	@Override
+	public int nextInt() {
+		return (int)(nextLong() >>> 32);
+	}
+
+	@Override
+	public int nextInt(int bound) {
+		if (bound <= 0)
+			throw new IllegalArgumentException("bound must be positive");
+		// Rejects the top of the range that doesn't divide evenly, the same as Random does
+		int r = nextInt() >>> 1;
+		int m = bound - 1;
+		if ((bound & m) == 0)
+			return (int)((bound * (long)r) >> 31);
+		for (int u = r; u - (r = u % bound) + m < 0; u = nextInt() >>> 1)
+			continue;
+		return r;
+	}
+
+	@Override
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	@Override
+	public boolean nextBoolean() {
+		return nextLong() < 0;
+	}
+}